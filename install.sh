@@ -185,8 +185,8 @@ build_project() {
             print_warning "Failed to resolve some dependencies"
         }
 
-        # Create the fat JAR
-        mvn clean package || {
+        # Create the fat JAR plus its AppCDS archive (a training run that makes later starts faster)
+        mvn clean verify -Pappcds || {
             print_warning "Maven package failed. You may need to check the source code."
         }
 
@@ -216,7 +216,10 @@ echo "Starting SQL Learning Application..."
 echo "=================================="
 
 # Check if JAR exists
-if [ -f "target/db-learning-app-1.0.0.jar" ]; then
+if [ -f "target/db-learning-app-1.0.0.jar" ] && [ -f "target/db-learning-app.jsa" ]; then
+    echo "Running from built JAR with class data sharing..."
+    java -XX:SharedArchiveFile=target/db-learning-app.jsa -jar target/db-learning-app-1.0.0.jar
+elif [ -f "target/db-learning-app-1.0.0.jar" ]; then
     echo "Running from built JAR..."
     java -jar target/db-learning-app-1.0.0.jar
 elif [ -f "pom.xml" ]; then
@@ -253,6 +256,8 @@ echo "3. test    - Run tests"
 echo "4. package - Create JAR file"
 echo "5. run     - Run the application"
 echo "6. deps    - Download dependencies"
+echo "7. cds     - Create JAR file and AppCDS archive for faster startup"
+echo "8. probe   - Compare startup time with and without the AppCDS archive"
 echo
 
 if [ $# -eq 0 ]; then
@@ -280,9 +285,15 @@ case "$1" in
     deps)
         mvn dependency:resolve
         ;;
+    cds)
+        mvn clean verify -Pappcds -DskipTests
+        ;;
+    probe)
+        ./startup-probe.sh
+        ;;
     *)
         echo "Unknown command: $1"
-        echo "Available: clean, compile, test, package, run, deps"
+        echo "Available: clean, compile, test, package, run, deps, cds, probe"
         exit 1
         ;;
 esac
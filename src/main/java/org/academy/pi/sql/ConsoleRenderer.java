@@ -0,0 +1,150 @@
+package org.academy.pi.sql;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.function.Supplier;
+import org.academy.pi.sql.models.SqlQueryResult;
+
+/**
+ * Draws query results as a text table for the interactive console. Each screen is built in memory
+ * and written in one go, which is much faster than printing cell by cell on a Pi terminal, and
+ * long results are shown a page at a time.
+ */
+class ConsoleRenderer {
+
+  private static final int SAMPLE_ROWS = 200;
+  private static final int MAX_COLUMN_WIDTH = 40;
+  private static final int DEFAULT_PAGE_SIZE = 20;
+  // rule lines, header, "more" prompt and the SQL> prompt that follow a page
+  private static final int PAGE_CHROME_LINES = 6;
+
+  private final PrintStream out;
+  private final Supplier<String> input;
+  private final int pageSize;
+
+  /**
+   * @param input reads the user's answer at the "more" prompt
+   */
+  ConsoleRenderer(PrintStream out, Supplier<String> input) {
+    this.out = out;
+    this.input = input;
+    this.pageSize = pageSize();
+  }
+
+  /**
+   * Render a result set page by page, {@code footer} is printed after the last page shown
+   */
+  void render(SqlQueryResult result, String footer) {
+    List<String> columns = result.getColumns();
+    List<List<Object>> rows = result.getRows();
+    int[] widths = columnWidths(columns, rows);
+    boolean[] numeric = numericColumns(columns.size(), rows);
+    String rule = "-".repeat(Math.max(tableWidth(widths), 20));
+
+    int start = 0;
+    do {
+      int end = Math.min(start + pageSize, rows.size());
+      StringBuilder screen = new StringBuilder(256 + (end - start) * (rule.length() + 1));
+      screen.append('\n').append("=".repeat(rule.length())).append('\n');
+      appendRow(screen, columns, widths, null);
+      screen.append(rule).append('\n');
+      for (int i = start; i < end; i++) {
+        appendRow(screen, rows.get(i), widths, numeric);
+      }
+
+      if (end >= rows.size()) {
+        screen.append("=".repeat(rule.length())).append('\n').append(footer).append('\n');
+        out.print(screen);
+        out.flush();
+        return;
+      }
+      screen.append("-- rows %,d-%,d of %,d: Enter for more, q to stop --"
+          .formatted(start + 1, end, rows.size()));
+      out.print(screen);
+      out.flush();
+
+      String answer = input.get();
+      if (answer == null || answer.trim().equalsIgnoreCase("q")) {
+        out.println(footer);
+        return;
+      }
+      start = end;
+    } while (true);
+  }
+
+  /**
+   * Size each column to fit its header and the widest value among a sample of rows spread over
+   * the whole result, capped so one long value can't push everything off screen
+   */
+  private static int[] columnWidths(List<String> columns, List<List<Object>> rows) {
+    int[] widths = new int[columns.size()];
+    for (int c = 0; c < widths.length; c++) {
+      widths[c] = Math.min(columns.get(c).length(), MAX_COLUMN_WIDTH);
+    }
+    int step = Math.max(1, rows.size() / SAMPLE_ROWS);
+    for (int r = 0; r < rows.size(); r += step) {
+      List<Object> row = rows.get(r);
+      for (int c = 0; c < widths.length; c++) {
+        widths[c] = Math.max(widths[c], Math.min(cell(row.get(c)).length(), MAX_COLUMN_WIDTH));
+      }
+    }
+    return widths;
+  }
+
+  private static boolean[] numericColumns(int columnCount, List<List<Object>> rows) {
+    boolean[] numeric = new boolean[columnCount];
+    if (!rows.isEmpty()) {
+      for (int c = 0; c < columnCount; c++) {
+        numeric[c] = rows.get(0).get(c) instanceof Number;
+      }
+    }
+    return numeric;
+  }
+
+  private static int tableWidth(int[] widths) {
+    int width = 0;
+    for (int w : widths) {
+      width += w + 2;
+    }
+    return width;
+  }
+
+  private static void appendRow(StringBuilder screen, List<?> values, int[] widths,
+      boolean[] numeric) {
+    for (int c = 0; c < widths.length; c++) {
+      String value = cell(values.get(c));
+      if (value.length() > widths[c]) {
+        value = value.substring(0, widths[c] - 1) + "…";
+      }
+      int padding = widths[c] - value.length();
+      if (numeric != null && numeric[c]) {
+        screen.append(" ".repeat(padding)).append(value);
+      } else {
+        screen.append(value).append(" ".repeat(padding));
+      }
+      screen.append(c < widths.length - 1 ? "  " : "");
+    }
+    screen.append('\n');
+  }
+
+  private static String cell(Object value) {
+    if (value == null) {
+      return "NULL";
+    }
+    String text = value.toString();
+    return text.indexOf('\n') < 0 && text.indexOf('\r') < 0
+        ? text : text.replace("\r", "").replace('\n', ' ');
+  }
+
+  /**
+   * Rows per page: fit the terminal when the shell exports LINES, otherwise a safe default
+   */
+  private static int pageSize() {
+    try {
+      int lines = Integer.parseInt(System.getenv().getOrDefault("LINES", ""));
+      return Math.max(lines - PAGE_CHROME_LINES, 5);
+    } catch (NumberFormatException e) {
+      return DEFAULT_PAGE_SIZE;
+    }
+  }
+}
@@ -6,15 +6,46 @@ import java.util.*;
 import com.sun.net.httpserver.*;
 import java.net.InetSocketAddress;
 import java.io.*;
+import java.time.Duration;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.academy.pi.sql.data.CsvImporter;
 import org.academy.pi.sql.data.DataRepo;
+import org.academy.pi.sql.data.Dataset;
+import org.academy.pi.sql.data.DatasetRegistry;
+import org.academy.pi.sql.data.ExerciseGrader;
+import org.academy.pi.sql.data.LiveQueries;
+import org.academy.pi.sql.data.RepoLease;
+import org.academy.pi.sql.data.ResultExporter;
+import org.academy.pi.sql.data.SchemaCatalog;
+import org.academy.pi.sql.data.StudentSearchIndex;
+import org.academy.pi.sql.data.ShardRouter;
+import org.academy.pi.sql.data.WarmUp;
+import org.academy.pi.sql.diagnostics.CountingOutputStream;
+import org.academy.pi.sql.diagnostics.FlightRecorderControl;
+import org.academy.pi.sql.diagnostics.QueryContext;
+import org.academy.pi.sql.diagnostics.RequestEventFilter;
+import org.academy.pi.sql.diagnostics.SerializationEvent;
 import org.academy.pi.sql.handler.WebHandler;
+import org.academy.pi.sql.http.LimitedInputStream;
+import org.academy.pi.sql.http.NioHttpServer;
+import org.academy.pi.sql.http.RequestTooLargeException;
+import org.academy.pi.sql.http.SseStream;
+import org.academy.pi.sql.logging.AccessLogFilter;
+import org.academy.pi.sql.logging.AppLog;
 import org.academy.pi.sql.models.ApiResponse;
 import org.academy.pi.sql.models.ApiResponseType;
+import org.academy.pi.sql.models.ExportFormat;
+import org.academy.pi.sql.models.SearchMode;
+import org.academy.pi.sql.models.SqlGradeResult;
 import org.academy.pi.sql.models.SqlHealthResult;
+import org.academy.pi.sql.models.SqlImportResult;
 import org.academy.pi.sql.models.SqlQueryResult;
+import org.academy.pi.sql.models.SqlSearchResult;
 
 /**
  * REST API Controller for SQL Learning App Provides HTTP endpoints to access H2 database data Runs
@@ -23,36 +54,100 @@ import org.academy.pi.sql.models.SqlQueryResult;
 public class SqlController {
 
   private static final int API_PORT = 8080;
+  private static final int API_BACKLOG = 128;
+  private static final String HTTP_ENGINE = System.getProperty("sqllearning.http.engine", "jdk");
+  private static final long MAX_JSON_BODY_BYTES = 1024 * 1024;
+  private static final int SEARCH_LIMIT = 100;
+  private static final int MAX_SEARCH_LIMIT = 1000;
+  private static final int SHARD_COUNT = Integer.getInteger("sqllearning.shards", 1);
+  private static final String SESSION_HEADER = "X-Session-Id";
+  private static final String CLASS_HEADER = "X-Class-Id";
+  private static final String DATASET_HEADER = "X-Dataset";
 
   private final ObjectMapper objectMapper;
   private final DataRepo rootDataRepo;
+  private final ShardRouter shardRouter;
+  private final DatasetRegistry datasetRegistry;
+  private final ExerciseGrader exerciseGrader;
+  private final WarmUp warmUp;
+  private final FlightRecorderControl flightRecorder = new FlightRecorderControl();
+  private final RequestEventFilter requestEventFilter = new RequestEventFilter();
+  private final AccessLogFilter accessLogFilter = new AccessLogFilter();
 
   private HttpServer server;
+  private ExecutorService executor;
 
   public SqlController() {
     this.objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
     this.rootDataRepo = new DataRepo();
+    this.shardRouter = new ShardRouter(rootDataRepo, SHARD_COUNT);
+    this.datasetRegistry = new DatasetRegistry(objectMapper);
+    this.exerciseGrader = new ExerciseGrader(rootDataRepo);
+    this.warmUp = new WarmUp(rootDataRepo, objectMapper);
   }
 
   protected Connection getConnection() throws SQLException {
     return rootDataRepo.getConnection();
   }
 
+  DataRepo getDataRepo() {
+    return rootDataRepo;
+  }
+
   /**
    * Start the HTTP server
    */
   public void start() throws IOException {
-    server = HttpServer.create(new InetSocketAddress(API_PORT), 0);
-    server.createContext("/", new WebHandler());
-    server.createContext("/sql/health", this::handleHealth);
-    server.createContext("/sql/query", this::handleCustomQuery);
-    server.setExecutor(null);
+    AppLog.start();
+    InetSocketAddress address = new InetSocketAddress(API_PORT);
+    server = "nio".equalsIgnoreCase(HTTP_ENGINE)
+        ? new NioHttpServer(address, API_BACKLOG)
+        : HttpServer.create(address, API_BACKLOG);
+    createContext("/", new WebHandler());
+    createContext("/sql/health", this::handleHealth);
+    createContext("/sql/query", this::handleCustomQuery);
+    createContext("/sql/import", this::handleImport)
+        .getAttributes().put(NioHttpServer.MAX_REQUEST_BYTES, Long.MAX_VALUE);
+    createContext("/sql/export", this::handleExport);
+    createContext("/sql/live", this::handleLive);
+    createContext("/sql/search", this::handleSearch);
+    createContext("/sql/shards", this::handleShards);
+    createContext("/sql/datasets", this::handleDatasets);
+    createContext("/sql/schema", this::handleSchema);
+    createContext("/sql/grade", this::handleGrade);
+    createContext("/sql/diagnostics/recording", this::handleRecording);
+    executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+    server.setExecutor(executor);
     server.start();
+    warmUp.start();
 
-    System.out.println("🌐 SQL Learning API started on http://localhost:" + API_PORT);
+    System.out.println("🌐 SQL Learning API started on http://localhost:" + API_PORT
+        + " (" + HTTP_ENGINE + " engine, "
+        + rootDataRepo.getExecutionMode().name().toLowerCase().replace('_', '-') + " execution)");
     System.out.println("📋 Available endpoints:");
     System.out.println("   GET  /sql/health ==> SQL Server Health");
     System.out.println("   POST /sql/query  ==> SQL Custom Query");
+    System.out.println("   POST /sql/import ==> CSV Import (?table=NAME[&columns=A,B][&header=false])");
+    System.out.println("   GET  /sql/export ==> CSV/NDJSON Download (?sql=SELECT...[&format=ndjson])");
+    System.out.println("   GET  /sql/live   ==> Live Query Updates as Server-Sent Events (?sql=SELECT...)");
+    System.out.println("   GET  /sql/search ==> Full-text Student Search (?q=...[&mode=word|prefix|substring])");
+    System.out.println("   GET  /sql/schema ==> Tables and Columns (ETag cached)");
+    System.out.println("   GET  /sql/grade  ==> Detective Challenge Exercises");
+    System.out.println("   POST /sql/grade  ==> Check an Exercise Answer ({exercise, sql})");
+    System.out.println("   GET  /sql/shards ==> Per-shard Load and Latency ("
+        + shardRouter.getShardCount() + " shards)");
+    System.out.println("   GET  /sql/datasets ==> Lesson Datasets (POST {dataset} to switch)");
+    System.out.println("   POST /sql/diagnostics/recording ==> JFR Recording (?action=start|stop|dump)");
+  }
+
+  /**
+   * Register a handler with a JFR event and an access log entry per request
+   */
+  private HttpContext createContext(String path, HttpHandler handler) {
+    HttpContext context = server.createContext(path, handler);
+    context.getFilters().add(requestEventFilter);
+    context.getFilters().add(accessLogFilter);
+    return context;
   }
 
   /**
@@ -60,8 +155,14 @@ public class SqlController {
    */
   public void stop() {
     if (server != null) {
+      warmUp.stop();
       server.stop(0);
+      executor.shutdownNow();
+      flightRecorder.close();
+      LiveQueries.closeAll();
+      datasetRegistry.close();
       System.out.println("🛑 API server stopped");
+      AppLog.stop();
     }
   }
 
@@ -72,7 +173,10 @@ public class SqlController {
     Headers headers = exchange.getResponseHeaders();
     headers.add("Access-Control-Allow-Origin", "*");
     headers.add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-    headers.add("Access-Control-Allow-Headers", "Content-Type, Authorization");
+    headers.add("Access-Control-Allow-Headers",
+        "Content-Type, Authorization, If-None-Match, " + SESSION_HEADER + ", " + CLASS_HEADER
+            + ", " + DATASET_HEADER);
+    headers.add("Access-Control-Expose-Headers", "ETag");
     headers.add("Accept", "application/json");
     headers.add("Content-Type", "application/json");
 
@@ -90,11 +194,18 @@ public class SqlController {
     }
     try {
       if ("GET".equals(exchange.getRequestMethod())) {
-        SqlHealthResult healthResult = rootDataRepo.health();
+        SqlHealthResult healthResult;
+        try (RepoLease lease = acquire(exchange, false)) {
+          healthResult = lease.getDataRepo().health();
+        }
+        healthResult.setStatus(warmUp.isWarming() ? "warming" : "ready");
+        healthResult.setDatasets(datasetRegistry.info());
         sendJsonResponse(exchange, 200, ApiResponse.success(ApiResponseType.HEALTH, healthResult));
       } else {
         sendJsonResponseFor405(exchange);
       }
+    } catch (SQLException e) {
+      sendJsonResponseForSqlError(exchange, e);
     } catch (Exception e) {
       sendJsonResponseFor500(exchange, e);
     }
@@ -118,29 +229,445 @@ public class SqlController {
           return;
         }
 
-        SqlQueryResult result = rootDataRepo.executeQuery(sql);
+        boolean write = !DataRepo.isQuery(sql.trim().toUpperCase());
+        SqlQueryResult result;
+        try (RepoLease lease = acquire(exchange, write)) {
+          result = lease.getDataRepo().executeQuery(sql);
+        }
         sendJsonResponse(exchange, 200, ApiResponse.success(ApiResponseType.TABLE, result));
       } else {
         sendJsonResponseFor405(exchange);
       }
     } catch (SQLException e) {
       sendJsonResponseForSqlError(exchange, e);
+    } catch (RequestTooLargeException e) {
+      sendJsonResponseFor413(exchange, e);
+    } catch (Exception e) {
+      sendJsonResponseFor500(exchange, e);
+    }
+  }
+
+  /**
+   * Handle /sql/import - Stream a CSV request body into a table
+   */
+  private void handleImport(HttpExchange exchange) throws IOException {
+    if (!handleCors(exchange)) {
+      return;
+    }
+    try {
+      if ("POST".equals(exchange.getRequestMethod())) {
+        Map<String, String> params = readQueryParams(exchange);
+        String table = params.get("table");
+        if (table == null || table.isBlank()) {
+          sendJsonResponse(exchange, 400, ApiResponse.error("Table name is required"));
+          return;
+        }
+        List<String> columns = params.containsKey("columns")
+            ? List.of(params.get("columns").split(","))
+            : List.of();
+        boolean header = !"false".equalsIgnoreCase(params.get("header"));
+
+        SqlImportResult result;
+        try (InputStream is = exchange.getRequestBody();
+            RepoLease lease = acquire(exchange, true)) {
+          result = new CsvImporter(lease.getDataRepo()).importCsv(is, table, columns, header);
+        }
+        sendJsonResponse(exchange, 200, ApiResponse.success(ApiResponseType.IMPORT, result));
+      } else {
+        sendJsonResponseFor405(exchange);
+      }
+    } catch (SQLException e) {
+      sendJsonResponseForSqlError(exchange, e);
+    } catch (Exception e) {
+      sendJsonResponseFor500(exchange, e);
+    }
+  }
+
+  /**
+   * Handle /sql/export - Stream a SELECT as a CSV or NDJSON download. Takes the query from the
+   * {@code sql} parameter (GET) or a JSON body like /sql/query (POST).
+   */
+  @SuppressWarnings("unchecked")
+  private void handleExport(HttpExchange exchange) throws IOException {
+    if (!handleCors(exchange)) {
+      return;
+    }
+    try {
+      Map<String, String> params = readQueryParams(exchange);
+      if ("POST".equals(exchange.getRequestMethod())) {
+        params.putAll((Map<String, String>) readRequestBody(exchange, Map.class));
+      } else if (!"GET".equals(exchange.getRequestMethod())) {
+        sendJsonResponseFor405(exchange);
+        return;
+      }
+
+      String sql = params.get("sql");
+      if (sql == null || sql.trim().isEmpty()) {
+        sendJsonResponse(exchange, 400, ApiResponse.error("SQL query is required"));
+        return;
+      }
+      ExportFormat format;
+      try {
+        format = ExportFormat.valueOf(params.getOrDefault("format", "csv").toUpperCase());
+      } catch (IllegalArgumentException e) {
+        sendJsonResponse(exchange, 400, ApiResponse.error("Format must be csv or ndjson"));
+        return;
+      }
+
+      try (RepoLease lease = acquire(exchange, false);
+          ResultExporter.Export export =
+              new ResultExporter(lease.getDataRepo(), objectMapper).open(sql)) {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", format.getContentType());
+        headers.set("Content-Disposition",
+            "attachment; filename=\"query-results.%s\"".formatted(format.getFileExtension()));
+        exchange.sendResponseHeaders(200, 0);
+        long startNanos = System.nanoTime();
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        try (CountingOutputStream os = new CountingOutputStream(exchange.getResponseBody())) {
+          long rows = export.writeTo(os, format);
+          QueryContext.noteQuery(sql, rows);
+          AppLog.query(lease.getDataRepo().getDbName(), sql, rows,
+              System.nanoTime() - startNanos, null);
+          event.complete(format.name(), rows, os.getCount());
+        }
+      }
+    } catch (SQLException e) {
+      if (exchange.getResponseCode() == -1) {
+        sendJsonResponseForSqlError(exchange, e);
+      } else {
+        AppLog.error("export", "Export aborted: " + e.getMessage(), null);
+        exchange.close();
+      }
+    } catch (RequestTooLargeException e) {
+      sendJsonResponseFor413(exchange, e);
     } catch (Exception e) {
       sendJsonResponseFor500(exchange, e);
     }
   }
 
+  /**
+   * Handle /sql/live - Subscribe to a query and stream its changes as server-sent events. The
+   * session and dataset come from query parameters since EventSource can't set headers. With
+   * several shards the stream only follows the shard the session (or class) is on.
+   */
+  private void handleLive(HttpExchange exchange) throws IOException {
+    if (!handleCors(exchange)) {
+      return;
+    }
+    try {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        sendJsonResponseFor405(exchange);
+        return;
+      }
+      String sql = readQueryParams(exchange).get("sql");
+      if (sql == null || sql.trim().isEmpty()) {
+        sendJsonResponse(exchange, 400, ApiResponse.error("SQL query is required"));
+        return;
+      }
+
+      SseStream stream = new SseStream(exchange);
+      try (RepoLease lease = acquire(exchange, false)) {
+        LiveQueries.of(lease.getDataRepo(), objectMapper).subscribe(sql, stream);
+      }
+      QueryContext.noteQuery(sql, 0);
+      try {
+        stream.open();
+      } catch (IOException e) {
+        // gone before the first event, the engine drops it on its next send
+        stream.close();
+      }
+    } catch (SQLException e) {
+      sendJsonResponseForSqlError(exchange, e);
+    } catch (Exception e) {
+      sendJsonResponseFor500(exchange, e);
+    }
+  }
+
+  /**
+   * Handle /sql/search - Find students by name, email or catch phrase through the full-text
+   * index instead of a LIKE scan
+   */
+  private void handleSearch(HttpExchange exchange) throws IOException {
+    if (!handleCors(exchange)) {
+      return;
+    }
+    try {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        sendJsonResponseFor405(exchange);
+        return;
+      }
+      Map<String, String> params = readQueryParams(exchange);
+      String query = params.get("q");
+      if (query == null || query.trim().isEmpty()) {
+        sendJsonResponse(exchange, 400, ApiResponse.error("Search text is required"));
+        return;
+      }
+      SearchMode mode = StudentSearchIndex.parseMode(params.getOrDefault("mode", "substring"));
+      int limit;
+      try {
+        limit = Integer.parseInt(params.getOrDefault("limit", String.valueOf(SEARCH_LIMIT)));
+      } catch (NumberFormatException e) {
+        sendJsonResponse(exchange, 400, ApiResponse.error("Limit must be a number"));
+        return;
+      }
+      limit = Math.max(0, Math.min(limit, MAX_SEARCH_LIMIT));
+
+      SqlSearchResult result;
+      try (RepoLease lease = acquire(exchange, false)) {
+        StudentSearchIndex index = lease.getDataRepo().getSearchIndex();
+        if (index == null) {
+          sendJsonResponse(exchange, 400,
+              ApiResponse.error("Search is only available on the students dataset"));
+          return;
+        }
+        result = index.search(query, mode, params.get("column"), limit);
+      }
+      QueryContext.noteQuery("SEARCH_STUDENTS('%s', '%s')".formatted(query, mode),
+          result.getTotal());
+      sendJsonResponse(exchange, 200, ApiResponse.success(ApiResponseType.SEARCH, result));
+    } catch (SQLException e) {
+      sendJsonResponseForSqlError(exchange, e);
+    } catch (Exception e) {
+      sendJsonResponseFor500(exchange, e);
+    }
+  }
+
+  /**
+   * Handle /sql/schema - Tables and columns for the session's database. Answers 304 when the
+   * client's If-None-Match still matches, so polling for changes is nearly free.
+   */
+  private void handleSchema(HttpExchange exchange) throws IOException {
+    if (!handleCors(exchange)) {
+      return;
+    }
+    try {
+      if ("GET".equals(exchange.getRequestMethod())) {
+        SchemaCatalog.Snapshot snapshot;
+        try (RepoLease lease = acquire(exchange, false)) {
+          snapshot = lease.getDataRepo().getSchemaCatalog().snapshot();
+        }
+        exchange.getResponseHeaders().set("ETag", snapshot.etag());
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        if (snapshot.etag().equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+          exchange.sendResponseHeaders(304, -1);
+          exchange.close();
+          return;
+        }
+        sendJsonResponse(exchange, 200,
+            ApiResponse.success(ApiResponseType.SCHEMA, snapshot.schema()));
+      } else {
+        sendJsonResponseFor405(exchange);
+      }
+    } catch (SQLException e) {
+      sendJsonResponseForSqlError(exchange, e);
+    } catch (Exception e) {
+      sendJsonResponseFor500(exchange, e);
+    }
+  }
+
+  /**
+   * Handle /sql/grade - List the exercises (GET) or check an answer against one (POST). Answers
+   * are a single SELECT, run on the session's shard and rolled back, and only their digest is compared, never the rows. The
+   * exercises are about the students data, so they are graded there whichever dataset is selected.
+   */
+  @SuppressWarnings("unchecked")
+  private void handleGrade(HttpExchange exchange) throws IOException {
+    if (!handleCors(exchange)) {
+      return;
+    }
+    try {
+      if ("GET".equals(exchange.getRequestMethod())) {
+        sendJsonResponse(exchange, 200,
+            ApiResponse.success(ApiResponseType.EXERCISES, exerciseGrader.getExercises()));
+      } else if ("POST".equals(exchange.getRequestMethod())) {
+        var request = (Map<String, String>) readRequestBody(exchange, Map.class);
+        String exercise = request.get("exercise");
+        String sql = request.get("sql");
+        if (exercise == null || exercise.isBlank() || sql == null || sql.trim().isEmpty()) {
+          sendJsonResponse(exchange, 400, ApiResponse.error("Exercise and SQL query are required"));
+          return;
+        }
+
+        SqlGradeResult result;
+        try (ShardRouter.Lease lease = shardRouter.acquire(sessionKey(exchange), false)) {
+          result = exerciseGrader.grade(lease.getDataRepo(), exercise, sql);
+        }
+        QueryContext.noteQuery(sql, result.getRowCount());
+        sendJsonResponse(exchange, 200, ApiResponse.success(ApiResponseType.GRADE, result));
+      } else {
+        sendJsonResponseFor405(exchange);
+      }
+    } catch (IllegalArgumentException e) {
+      sendJsonResponse(exchange, 404, ApiResponse.error(e.getMessage()));
+    } catch (SQLException e) {
+      sendJsonResponseForSqlError(exchange, e);
+    } catch (RequestTooLargeException e) {
+      sendJsonResponseFor413(exchange, e);
+    } catch (Exception e) {
+      sendJsonResponseFor500(exchange, e);
+    }
+  }
+
+  /**
+   * Handle /sql/shards - Sessions, load and latency per database shard
+   */
+  private void handleShards(HttpExchange exchange) throws IOException {
+    if (!handleCors(exchange)) {
+      return;
+    }
+    try {
+      if ("GET".equals(exchange.getRequestMethod())) {
+        sendJsonResponse(exchange, 200,
+            ApiResponse.success(ApiResponseType.SHARDS, shardRouter.stats()));
+      } else {
+        sendJsonResponseFor405(exchange);
+      }
+    } catch (Exception e) {
+      sendJsonResponseFor500(exchange, e);
+    }
+  }
+
+  /**
+   * Handle /sql/datasets - List the lesson datasets and which are loaded (GET), or switch the
+   * session to another one (POST with {@code dataset})
+   */
+  @SuppressWarnings("unchecked")
+  private void handleDatasets(HttpExchange exchange) throws IOException {
+    if (!handleCors(exchange)) {
+      return;
+    }
+    try {
+      if ("GET".equals(exchange.getRequestMethod())) {
+        sendJsonResponse(exchange, 200,
+            ApiResponse.success(ApiResponseType.DATASETS, datasetRegistry.info()));
+      } else if ("POST".equals(exchange.getRequestMethod())) {
+        var request = (Map<String, String>) readRequestBody(exchange, Map.class);
+        String dataset = request.get("dataset");
+        if (dataset == null || dataset.isBlank()) {
+          sendJsonResponse(exchange, 400, ApiResponse.error("Dataset is required"));
+          return;
+        }
+        datasetRegistry.select(sessionKey(exchange), dataset);
+        sendJsonResponse(exchange, 200,
+            ApiResponse.success(ApiResponseType.DATASETS, datasetRegistry.info()));
+      } else {
+        sendJsonResponseFor405(exchange);
+      }
+    } catch (IllegalArgumentException e) {
+      sendJsonResponse(exchange, 404, ApiResponse.error(e.getMessage()));
+    } catch (RequestTooLargeException e) {
+      sendJsonResponseFor413(exchange, e);
+    } catch (Exception e) {
+      sendJsonResponseFor500(exchange, e);
+    }
+  }
+
+  /**
+   * Handle /sql/diagnostics/recording - List flight recordings (GET), or start, stop or dump one
+   * (POST with {@code action}). Start takes optional {@code maxAgeMinutes}, {@code maxSizeMb} and
+   * {@code settings} (default or profile). There's no login, so POSTs are only accepted from the
+   * machine the server runs on.
+   */
+  private void handleRecording(HttpExchange exchange) throws IOException {
+    if (!handleCors(exchange)) {
+      return;
+    }
+    try {
+      if ("GET".equals(exchange.getRequestMethod())) {
+        sendJsonResponse(exchange, 200,
+            ApiResponse.success(ApiResponseType.DIAGNOSTICS, flightRecorder.recordings()));
+      } else if ("POST".equals(exchange.getRequestMethod())) {
+        if (!exchange.getRemoteAddress().getAddress().isLoopbackAddress()) {
+          sendJsonResponse(exchange, 403,
+              ApiResponse.error("Recordings can only be controlled from the server itself"));
+          return;
+        }
+        Map<String, String> params = readQueryParams(exchange);
+        String action = params.getOrDefault("action", "");
+        Object result = switch (action) {
+          case "start" -> flightRecorder.start(params.getOrDefault("settings", "default"),
+              Duration.ofMinutes(Long.parseLong(params.getOrDefault("maxAgeMinutes", "30"))),
+              Long.parseLong(params.getOrDefault("maxSizeMb", "64")) * 1024 * 1024);
+          case "stop" -> flightRecorder.stop();
+          case "dump" -> flightRecorder.dump();
+          default -> null;
+        };
+        if (result == null) {
+          sendJsonResponse(exchange, 400, ApiResponse.error("Action must be start, stop or dump"));
+          return;
+        }
+        sendJsonResponse(exchange, 200, ApiResponse.success(ApiResponseType.DIAGNOSTICS, result));
+      } else {
+        sendJsonResponseFor405(exchange);
+      }
+    } catch (IllegalStateException e) {
+      sendJsonResponse(exchange, 409, ApiResponse.error(e.getMessage()));
+    } catch (IllegalArgumentException e) {
+      sendJsonResponse(exchange, 400, ApiResponse.error(e.getMessage()));
+    } catch (Exception e) {
+      sendJsonResponseFor500(exchange, e);
+    }
+  }
+
+  /**
+   * Database for one request: the session's shard for the students dataset, otherwise the lesson
+   * dataset's own database, loaded on first use
+   */
+  private RepoLease acquire(HttpExchange exchange, boolean write) throws SQLException {
+    String sessionKey = sessionKey(exchange);
+    String dataset = exchange.getRequestHeaders().getFirst(DATASET_HEADER);
+    if (dataset == null || dataset.isBlank()) {
+      dataset = readQueryParams(exchange).get("dataset");
+    }
+    if (dataset == null || dataset.isBlank()) {
+      dataset = datasetRegistry.selected(sessionKey);
+    }
+    return Dataset.STUDENTS.name().equals(dataset)
+        ? shardRouter.acquire(sessionKey, write)
+        : datasetRegistry.acquire(dataset);
+  }
+
+  /**
+   * Key used to pick a shard: the class id when a whole class shares a database, otherwise the
+   * browser's session id (headers, or {@code class} and {@code session} parameters for plain
+   * downloads and live streams), falling back to the client address
+   */
+  private String sessionKey(HttpExchange exchange) {
+    String classId = exchange.getRequestHeaders().getFirst(CLASS_HEADER);
+    if (classId == null || classId.isBlank()) {
+      classId = readQueryParams(exchange).get("class");
+    }
+    if (classId != null && !classId.isBlank()) {
+      return "class:" + classId;
+    }
+    String sessionId = exchange.getRequestHeaders().getFirst(SESSION_HEADER);
+    if (sessionId == null || sessionId.isBlank()) {
+      sessionId = readQueryParams(exchange).get("session");
+    }
+    if (sessionId != null && !sessionId.isBlank()) {
+      return "session:" + sessionId;
+    }
+    return "address:" + exchange.getRemoteAddress().getAddress().getHostAddress();
+  }
+
   private void sendJsonResponseFor405(HttpExchange exchange) throws IOException {
     sendJsonResponse(exchange, 405, ApiResponse.error("Method Not Allowed"));
   }
 
+  private void sendJsonResponseFor413(HttpExchange exchange, RequestTooLargeException e)
+      throws IOException {
+    sendJsonResponse(exchange, 413, ApiResponse.error(e.getMessage()));
+  }
+
   private void sendJsonResponseForSqlError(HttpExchange exchange, SQLException e) throws IOException {
     String friendlyMessage = extractFriendlySqlError(e);
     sendJsonResponse(exchange, 400, ApiResponse.error(friendlyMessage));
   }
 
   private void sendJsonResponseFor500(HttpExchange exchange, Exception e) throws IOException {
-    e.printStackTrace();
+    AppLog.error("api", "Unhandled error on " + exchange.getRequestURI().getPath(), e);
     sendJsonResponse(exchange, 500,
         ApiResponse.error("Internal Service Error: %s".formatted(e.getMessage())));
   }
@@ -184,10 +711,13 @@ public class SqlController {
     return message;
   }
 
-  private void sendJsonResponse(HttpExchange exchange, int statusCode, Object response)
+  private void sendJsonResponse(HttpExchange exchange, int statusCode, ApiResponse<?> response)
       throws IOException {
+    SerializationEvent event = new SerializationEvent();
+    event.begin();
     String jsonResponse = objectMapper.writeValueAsString(response);
     byte[] responseBytes = jsonResponse.getBytes(StandardCharsets.UTF_8);
+    event.complete(response.getType().name(), -1, responseBytes.length);
 
     exchange.sendResponseHeaders(statusCode, responseBytes.length);
     try (OutputStream os = exchange.getResponseBody()) {
@@ -195,18 +725,30 @@ public class SqlController {
     }
   }
 
+  /**
+   * Parse a JSON body straight from the request stream, keeping newlines intact (SQL comments need
+   * them) and refusing bodies over {@link #MAX_JSON_BODY_BYTES}
+   */
   private <T> T readRequestBody(HttpExchange exchange, final Class<T> clazz) throws IOException {
-    try (InputStream is = exchange.getRequestBody();
-        BufferedReader reader = new BufferedReader(
-            new InputStreamReader(is, StandardCharsets.UTF_8))) {
+    try (InputStream is = new LimitedInputStream(exchange.getRequestBody(), MAX_JSON_BODY_BYTES)) {
+      return objectMapper.readValue(is, clazz);
+    }
+  }
 
-      StringBuilder body = new StringBuilder();
-      String line;
-      while ((line = reader.readLine()) != null) {
-        body.append(line);
-      }
-      return objectMapper.readValue(body.toString(), clazz);
+  private Map<String, String> readQueryParams(HttpExchange exchange) {
+    Map<String, String> params = new HashMap<>();
+    String query = exchange.getRequestURI().getRawQuery();
+    if (query == null || query.isEmpty()) {
+      return params;
+    }
+    for (String pair : query.split("&")) {
+      int eq = pair.indexOf('=');
+      String key = eq < 0 ? pair : pair.substring(0, eq);
+      String value = eq < 0 ? "" : pair.substring(eq + 1);
+      params.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+          URLDecoder.decode(value, StandardCharsets.UTF_8));
     }
+    return params;
   }
 
   /**
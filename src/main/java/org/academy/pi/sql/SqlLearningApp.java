@@ -1,11 +1,33 @@
 package org.academy.pi.sql;
 
-import java.sql.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Scanner;
+import org.academy.pi.sql.data.DataRepo;
+import org.academy.pi.sql.data.QueryRepo;
+import org.academy.pi.sql.models.SqlNamedQuery;
+import org.academy.pi.sql.models.SqlQueryResult;
 
 public class SqlLearningApp {
 
+  private static final int DEFAULT_ROW_LIMIT = 1000;
+
   private final SqlController sqlController;
+  private final Scanner scanner = new Scanner(System.in);
+  private final ConsoleRenderer renderer =
+      new ConsoleRenderer(System.out, () -> scanner.hasNextLine() ? scanner.nextLine() : null);
+
+  private boolean timing;
+  private int rowLimit = DEFAULT_ROW_LIMIT;
 
   public SqlLearningApp() {
     this.sqlController = new SqlController();
@@ -15,41 +37,90 @@ public class SqlLearningApp {
    * Execute a SQL query and display results
    */
   public void executeQuery(String sql) {
-    try (
-        Connection conn = sqlController.getConnection();
-        Statement stmt = conn.createStatement()
-    ) {
-      if (sql.trim().toUpperCase().startsWith("SELECT")) {
-        // Execute SELECT query
-        ResultSet rs = stmt.executeQuery(sql);
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnCount = metaData.getColumnCount();
-
-        // Print column headers
-        System.out.println("\n" + "=".repeat(80));
-        for (int i = 1; i <= columnCount; i++) {
-          System.out.printf("%-15s", metaData.getColumnName(i));
-        }
-        System.out.println("\n" + "-".repeat(80));
+    DataRepo dataRepo = sqlController.getDataRepo();
+    try {
+      // one extra row tells us whether the limit actually cut the result short
+      SqlQueryResult result = dataRepo.executeQuery(sql, rowLimit == 0 ? 0 : rowLimit + 1);
+      String timingNote = timing ? " (%,d ms)".formatted(result.getExecTimeMs()) : "";
 
-        // Print rows
-        while (rs.next()) {
-          for (int i = 1; i <= columnCount; i++) {
-            System.out.printf("%-15s", rs.getString(i));
-          }
-          System.out.println();
+      if (DataRepo.isQuery(sql.trim().toUpperCase())) {
+        boolean truncated = rowLimit > 0 && result.getRows().size() > rowLimit;
+        if (truncated) {
+          result.setRows(result.getRows().subList(0, rowLimit));
+          result.setCount(rowLimit);
+        }
+        String footer = "%,d row%s%s".formatted(result.getCount(),
+            result.getCount() == 1 ? "" : "s", timingNote);
+        if (truncated) {
+          footer += " - stopped at the row limit, see \\limit";
         }
-        System.out.println("=".repeat(80));
+        renderer.render(result, footer);
       } else {
-        // Execute UPDATE, INSERT, DELETE, etc.
-        int rowsAffected = stmt.executeUpdate(sql);
-        System.out.println("✓ Query executed successfully! Rows affected: " + rowsAffected);
+        System.out.println("✓ Query executed successfully! Rows affected: " + result.getCount()
+            + timingNote);
       }
     } catch (SQLException e) {
       System.err.println("SQL Error: " + e.getMessage());
     }
   }
 
+  /**
+   * Show the query plan H2 picks for a statement
+   */
+  public void explain(String sql) {
+    try {
+      SqlQueryResult result = sqlController.getDataRepo().executeQuery("EXPLAIN " + sql);
+      StringBuilder plan = new StringBuilder("\n📋 Query plan:\n");
+      for (var row : result.getRows()) {
+        plan.append(row.get(0)).append('\n');
+      }
+      System.out.print(plan);
+    } catch (SQLException e) {
+      System.err.println("SQL Error: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Handle a backslash command, e.g. {@code \timing}
+   */
+  private void runMetaCommand(String input) {
+    String[] parts = input.split("\\s+", 2);
+    String argument = parts.length > 1 ? parts[1].trim() : "";
+    switch (parts[0].toLowerCase()) {
+      case "\\timing" -> {
+        timing = argument.isEmpty() ? !timing : argument.equalsIgnoreCase("on");
+        System.out.println("⏱ Timing is " + (timing ? "on" : "off"));
+      }
+      case "\\explain" -> {
+        if (argument.isEmpty()) {
+          System.out.println("Usage: \\explain SELECT ...");
+        } else {
+          explain(argument);
+        }
+      }
+      case "\\limit" -> {
+        if (!argument.isEmpty()) {
+          try {
+            rowLimit = Math.max(0, Integer.parseInt(argument));
+          } catch (NumberFormatException e) {
+            System.out.println("Usage: \\limit N (0 for no limit)");
+            return;
+          }
+        }
+        System.out.println("📏 Row limit is " + (rowLimit == 0 ? "off" : "%,d".formatted(rowLimit)));
+      }
+      default -> showMetaCommands();
+    }
+  }
+
+  private void showMetaCommands() {
+    System.out.println("\n⚙️ Console commands:");
+    System.out.println("   \\timing [on|off]  show how long each query takes");
+    System.out.println("   \\explain <sql>    show the query plan instead of running it");
+    System.out.println("   \\limit N          stop SELECT results after N rows (0 = no limit)");
+    System.out.println("   \\help             this list");
+  }
+
   /**
    * Display helpful SQL examples for students
    */
@@ -92,13 +163,15 @@ public class SqlLearningApp {
    * Interactive SQL console for students
    */
   public void startInteractiveMode() {
-    Scanner scanner = new Scanner(System.in);
     System.out.println("\n🎓 Welcome to SQL Learning Console!");
-    System.out.println("Type 'help' for examples, 'quit' to exit");
+    System.out.println("Type 'help' for examples, '\\help' for console commands, 'quit' to exit");
     System.out.println("-".repeat(50));
 
     while (true) {
       System.out.print("\nSQL> ");
+      if (!scanner.hasNextLine()) {
+        break;
+      }
       String input = scanner.nextLine().trim();
 
       if (input.equalsIgnoreCase("quit") || input.equalsIgnoreCase("exit")) {
@@ -106,6 +179,8 @@ public class SqlLearningApp {
         break;
       } else if (input.equalsIgnoreCase("help")) {
         showExamples();
+      } else if (input.startsWith("\\")) {
+        runMetaCommand(input);
       } else if (!input.isEmpty()) {
         executeQuery(input);
       }
@@ -114,6 +189,39 @@ public class SqlLearningApp {
     scanner.close();
   }
 
+  /**
+   * Training run for the AppCDS archive (see the {@code appcds} Maven profile): exercise the API
+   * over real HTTP so the server, H2, Jackson and model classes all get loaded, then exit so the
+   * JVM can dump the loaded classes.
+   */
+  private void train() throws IOException {
+    request("GET", "/sql/health", null);
+    request("GET", "/sql/schema", null);
+    for (SqlNamedQuery query : QueryRepo.getSampleQueries()) {
+      if (query.getQuery().trim().toUpperCase().startsWith("SELECT")) {
+        request("POST", "/sql/query",
+            new ObjectMapper().writeValueAsString(Map.of("sql", query.getQuery())));
+      }
+    }
+    request("GET", "/sql/export?format=ndjson&sql=SELECT%20*%20FROM%20FAVORITES", null);
+    System.out.println("✓ Training run complete");
+  }
+
+  private static void request(String method, String path, String body) throws IOException {
+    HttpURLConnection conn =
+        (HttpURLConnection) new URL("http://localhost:8080" + path).openConnection();
+    conn.setRequestMethod(method);
+    if (body != null) {
+      conn.setDoOutput(true);
+      try (OutputStream os = conn.getOutputStream()) {
+        os.write(body.getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    try (InputStream is = conn.getInputStream()) {
+      is.readAllBytes();
+    }
+  }
+
   /**
    * Main method - entry point
    */
@@ -123,10 +231,23 @@ public class SqlLearningApp {
     SqlLearningApp app = new SqlLearningApp();
     try {
       app.sqlController.start();
+      System.out.printf("✓ Ready in %,d ms since JVM start%n",
+          ManagementFactory.getRuntimeMXBean().getUptime());
     } catch (Exception e) {
       System.err.println("Could not start API server: " + e.getMessage());
     }
 
+    if (Arrays.asList(args).contains("--train")) {
+      try {
+        app.train();
+      } catch (IOException e) {
+        System.err.println("Training run failed: " + e.getMessage());
+      }
+      app.sqlController.stop();
+      // the H2 console keeps non-daemon threads alive, exit explicitly so the archive is written
+      System.exit(0);
+    }
+
     // Start interactive mode
     app.startInteractiveMode();
 
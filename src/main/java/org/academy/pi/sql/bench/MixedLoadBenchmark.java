@@ -0,0 +1,167 @@
+package org.academy.pi.sql.bench;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import org.academy.pi.sql.data.DataRepo;
+import org.academy.pi.sql.data.ExecutionMode;
+
+/**
+ * Simulates a class working through the sample queries: many clients running SELECTs with some
+ * INSERT/UPDATE practice mixed in, once per {@link ExecutionMode}, each on a fresh database.
+ *
+ * <pre>
+ * java -cp target/db-learning-app-1.0.0.jar org.academy.pi.sql.bench.MixedLoadBenchmark \
+ *     [clients=16] [seconds=10] [writePercent=20]
+ * </pre>
+ */
+public class MixedLoadBenchmark {
+
+  private static final List<String> READS = List.of(
+      "SELECT USERNAME, FIRST_NAME, LAST_NAME, EMAIL FROM STUDENTS WHERE FIRST_NAME LIKE 'Nan%'",
+      "SELECT GENDER, COUNT(*) FROM STUDENTS GROUP BY GENDER",
+      "SELECT s.FIRST_NAME, s.LAST_NAME FROM STUDENTS s JOIN FAVORITES f ON s.ID = f.STUDENT_ID "
+          + "WHERE f.CATEGORY = 'COLOR' AND f.FAVORITE = 'Puce'",
+      "SELECT FIRST_NAME, LAST_NAME, EMAIL FROM STUDENTS ORDER BY LAST_NAME ASC LIMIT 15");
+
+  private static final int WARMUP_SECONDS = 2;
+
+  public static void main(String[] args) throws Exception {
+    int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+    int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    int writePercent = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+    System.out.printf("Mixed load: %d clients, %d s per mode, %d%% writes%n%n", clients, seconds,
+        writePercent);
+    System.out.printf("%-13s %9s %9s %9s %9s %9s %9s %7s %7s%n", "mode", "ops/s", "reads/s",
+        "writes/s", "read p50", "read p99", "write p99", "errors", "group");
+    for (ExecutionMode mode : ExecutionMode.values()) {
+      DataRepo dataRepo = new DataRepo("bench_" + mode.name().toLowerCase(), mode);
+      run(dataRepo, clients, WARMUP_SECONDS, writePercent);
+      Result result = run(dataRepo, clients, seconds, writePercent);
+      System.out.printf("%-13s %9.0f %9.0f %9.0f %8.2fms %8.2fms %8.2fms %7d %7.1f%n",
+          mode.name().toLowerCase().replace('_', '-'), result.ops() / (double) seconds,
+          result.reads.length / (double) seconds, result.writes.length / (double) seconds,
+          percentile(result.reads, 50), percentile(result.reads, 99),
+          percentile(result.writes, 99), result.errors, dataRepo.getAverageCommitGroupSize());
+    }
+    System.exit(0);
+  }
+
+  private static Result run(DataRepo dataRepo, int clients, int seconds, int writePercent)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+    Client[] workers = new Client[clients];
+    CountDownLatch done = new CountDownLatch(clients);
+    for (int i = 0; i < clients; i++) {
+      workers[i] = new Client(dataRepo, deadline, writePercent, done);
+      new Thread(workers[i], "bench-client-" + i).start();
+    }
+    done.await();
+
+    Result result = new Result();
+    result.reads = Arrays.stream(workers).flatMapToLong(w -> Arrays.stream(w.reads, 0, w.readCount))
+        .sorted().toArray();
+    result.writes = Arrays.stream(workers)
+        .flatMapToLong(w -> Arrays.stream(w.writes, 0, w.writeCount)).sorted().toArray();
+    result.errors = Arrays.stream(workers).mapToLong(w -> w.errors).sum();
+    return result;
+  }
+
+  /**
+   * Latency at {@code p} percent in milliseconds, {@code sorted} holds nanoseconds
+   */
+  private static double percentile(long[] sorted, int p) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.min(sorted.length - 1L, (long) Math.ceil(sorted.length * p / 100.0) - 1);
+    return sorted[Math.max(index, 0)] / 1e6;
+  }
+
+  private static class Result {
+
+    private long[] reads;
+    private long[] writes;
+    private long errors;
+
+    private long ops() {
+      return reads.length + writes.length;
+    }
+  }
+
+  private static class Client implements Runnable {
+
+    private final DataRepo dataRepo;
+    private final long deadline;
+    private final int writePercent;
+    private final CountDownLatch done;
+    private long[] reads = new long[1024];
+    private long[] writes = new long[256];
+    private int readCount;
+    private int writeCount;
+    private long errors;
+
+    private Client(DataRepo dataRepo, long deadline, int writePercent, CountDownLatch done) {
+      this.dataRepo = dataRepo;
+      this.deadline = deadline;
+      this.writePercent = writePercent;
+      this.done = done;
+    }
+
+    @Override
+    public void run() {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      try {
+        while (System.nanoTime() < deadline) {
+          boolean write = random.nextInt(100) < writePercent;
+          String sql = write ? write(random) : READS.get(random.nextInt(READS.size()));
+          long start = System.nanoTime();
+          try {
+            dataRepo.executeQuery(sql);
+          } catch (SQLException e) {
+            errors++;
+            continue;
+          }
+          long elapsed = System.nanoTime() - start;
+          if (write) {
+            writes = record(writes, writeCount++, elapsed);
+          } else {
+            reads = record(reads, readCount++, elapsed);
+          }
+        }
+      } finally {
+        done.countDown();
+      }
+    }
+
+    /**
+     * Like the "Insert Multiple Students" and "Update By Name" samples, the update always hits the
+     * same rows the way a whole class running the same exercise does
+     */
+    private static String write(ThreadLocalRandom random) {
+      if (random.nextBoolean()) {
+        String a = UUID.randomUUID().toString();
+        String b = UUID.randomUUID().toString();
+        return """
+            INSERT INTO STUDENTS (ID, USERNAME, FIRST_NAME, LAST_NAME, EMAIL, GENDER) VALUES
+              ('%s', 'asmith', 'Alice', 'Smith', 'asmith@example.com', 'Female'),
+              ('%s', 'bjones', 'Bob', 'Jones', 'bjones@example.com', 'Male')
+            """.formatted(a, b);
+      }
+      return "UPDATE STUDENTS SET IS_GOOD = '%s' WHERE FIRST_NAME = 'Nanny'"
+          .formatted(random.nextBoolean() ? "Daily" : "Weekly");
+    }
+
+    private static long[] record(long[] samples, int index, long value) {
+      if (index == samples.length) {
+        samples = Arrays.copyOf(samples, samples.length * 2);
+      }
+      samples[index] = value;
+      return samples;
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package org.academy.pi.sql.bench;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import org.academy.pi.sql.data.DataRepo;
+import org.academy.pi.sql.data.StudentSearchIndex;
+import org.academy.pi.sql.models.SearchMode;
+
+/**
+ * Compares the full-text student search against the LIKE scans students would otherwise write,
+ * on a database with {@code students} synthetic students (loading 1M takes a while).
+ *
+ * <pre>
+ * java -Xmx4g -cp target/db-learning-app-1.0.0.jar org.academy.pi.sql.bench.SearchBenchmark \
+ *     [students=1000000] [runs=5]
+ * </pre>
+ */
+public class SearchBenchmark {
+
+  private static final List<String> PROBES = List.of("nan", "synergy", "son", "google", "zz");
+  private static final String ALL_COLUMNS_LIKE = "SELECT COUNT(*) FROM STUDENTS WHERE "
+      + "LOWER(FIRST_NAME) LIKE '%1$s' OR LOWER(LAST_NAME) LIKE '%1$s' "
+      + "OR LOWER(EMAIL) LIKE '%1$s' OR LOWER(CATCH_PHRASE) LIKE '%1$s'";
+
+  public static void main(String[] args) throws Exception {
+    long students = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+    int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+    // read once when DataRepo loads
+    System.setProperty("sqllearning.synthetic.students", String.valueOf(students));
+
+    DataRepo dataRepo = new DataRepo("bench_search");
+    StudentSearchIndex index = dataRepo.getSearchIndex();
+    if (index == null) {
+      System.err.println("Search is disabled, drop -Dsqllearning.search=false");
+      System.exit(1);
+    }
+    System.out.printf("%nSearch vs LIKE: %,d students, median of %d runs%n%n", index.size(),
+        runs);
+    System.out.printf("%-28s %9s %9s %9s %9s %9s%n", "probe", "like", "index", "sql fn",
+        "like hits", "hits");
+
+    for (String probe : PROBES) {
+      String like = ALL_COLUMNS_LIKE.formatted("%" + probe + "%");
+      String function = "SELECT COUNT(*) FROM SEARCH_STUDENTS('%s')".formatted(probe);
+      compare("'%" + probe + "%' any column", runs,
+          () -> count(dataRepo, like),
+          () -> index.matchingIds(probe, SearchMode.SUBSTRING, null).size(),
+          () -> count(dataRepo, function));
+    }
+    // the sample query's prefix search, one column
+    compare("'nan%' first name", runs,
+        () -> count(dataRepo, "SELECT COUNT(*) FROM STUDENTS WHERE LOWER(FIRST_NAME) LIKE 'nan%'"),
+        () -> index.matchingIds("nan", SearchMode.PREFIX, "FIRST_NAME").size(),
+        () -> count(dataRepo,
+            "SELECT COUNT(*) FROM SEARCH_STUDENTS('nan', 'prefix', 'FIRST_NAME')"));
+    System.exit(0);
+  }
+
+  private static void compare(String label, int runs, Count like, Count index, Count function)
+      throws SQLException {
+    long[] likeHits = new long[1];
+    long[] hits = new long[1];
+    double likeMs = median(runs, () -> likeHits[0] = like.run());
+    double indexMs = median(runs, () -> hits[0] = index.run());
+    double functionMs = median(runs, function);
+    System.out.printf("%-28s %7.1fms %7.1fms %7.1fms %9d %9d%n", label, likeMs, indexMs,
+        functionMs, likeHits[0], hits[0]);
+  }
+
+  /**
+   * Median time of {@code runs} calls in milliseconds, after one untimed warm-up call
+   */
+  private static double median(int runs, Count count) throws SQLException {
+    count.run();
+    long[] nanos = new long[runs];
+    for (int i = 0; i < runs; i++) {
+      long start = System.nanoTime();
+      count.run();
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+    return nanos[runs / 2] / 1_000_000.0;
+  }
+
+  private static long count(DataRepo dataRepo, String sql) throws SQLException {
+    return ((Number) dataRepo.executeQuery(sql).getRows().get(0).get(0)).longValue();
+  }
+
+  @FunctionalInterface
+  private interface Count {
+
+    long run() throws SQLException;
+  }
+}
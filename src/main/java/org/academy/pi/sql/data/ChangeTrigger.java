@@ -0,0 +1,86 @@
+package org.academy.pi.sql.data;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.h2.api.Trigger;
+
+/**
+ * Row trigger installed by {@link LiveQueries} on tables a live query reads. While the table is
+ * watched, every inserted, updated or deleted row is copied to {@code LIVE.CHANGES} as JSON in the
+ * writer's own transaction, so rolled-back changes never show up there. When the log itself is
+ * gone the change is skipped and {@link LiveQueries} is told to repair it.
+ */
+public class ChangeTrigger implements Trigger {
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  private String dbName;
+  private String tableName;
+  private final List<String> columns = new ArrayList<>();
+
+  @Override
+  public void init(Connection conn, String schemaName, String triggerName, String tableName,
+      boolean before, int type) throws SQLException {
+    this.tableName = tableName;
+    try (Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT DATABASE()")) {
+      rs.next();
+      dbName = rs.getString(1);
+    }
+    try (ResultSet rs = conn.getMetaData().getColumns(null, schemaName, tableName, null)) {
+      while (rs.next()) {
+        columns.add(rs.getString("COLUMN_NAME"));
+      }
+    }
+  }
+
+  @Override
+  public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+    LiveQueries live = LiveQueries.find(dbName);
+    if (live == null || !live.isWatching(tableName)) {
+      return;
+    }
+    try (PreparedStatement stmt = conn.prepareStatement(
+        "INSERT INTO LIVE.CHANGES (TABLE_NAME, OLD_ROW, NEW_ROW) VALUES (?, ?, ?)")) {
+      stmt.setString(1, tableName);
+      stmt.setString(2, toJson(oldRow));
+      stmt.setString(3, toJson(newRow));
+      stmt.executeUpdate();
+    } catch (SQLException e) {
+      if (!DataRepo.isMissingTable(e)) {
+        throw e;
+      }
+      // a student dropped the log, never fail their statement over it: the engine recreates the
+      // log and re-reads every live query instead
+      live.logLost();
+      return;
+    }
+    live.signal();
+  }
+
+  private String toJson(Object[] row) throws SQLException {
+    if (row == null) {
+      return null;
+    }
+    Map<String, Object> values = new LinkedHashMap<>();
+    for (int i = 0; i < row.length && i < columns.size(); i++) {
+      Object value = row[i];
+      values.put(columns.get(i), value == null || value instanceof String
+          || value instanceof Number || value instanceof Boolean ? value : value.toString());
+    }
+    try {
+      return JSON.writeValueAsString(values);
+    } catch (JsonProcessingException e) {
+      throw new SQLException("Could not log change to " + tableName, e);
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package org.academy.pi.sql.data;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Reads one column of the current row. A codec is picked once per column from the
+ * {@link ResultSetMetaData}, so the per-cell loop is a plain array lookup with no type-name
+ * comparisons, and every codec handles SQL {@code NULL}.
+ */
+@FunctionalInterface
+public interface ColumnCodec {
+
+  ColumnCodec STRING = ResultSet::getString;
+
+  ColumnCodec DATE = (rs, column) -> {
+    LocalDate date = rs.getObject(column, LocalDate.class);
+    return date == null ? null : date.toString();
+  };
+
+  ColumnCodec TIMESTAMP = ResultSet::getTimestamp;
+
+  ColumnCodec BOOLEAN = (rs, column) -> {
+    boolean value = rs.getBoolean(column);
+    return rs.wasNull() ? null : Boolean.valueOf(value);
+  };
+
+  ColumnCodec INTEGER = (rs, column) -> {
+    int value = rs.getInt(column);
+    return rs.wasNull() ? null : Integer.valueOf(value);
+  };
+
+  ColumnCodec BIGINT = (rs, column) -> {
+    long value = rs.getLong(column);
+    return rs.wasNull() ? null : Long.valueOf(value);
+  };
+
+  ColumnCodec REAL = (rs, column) -> {
+    float value = rs.getFloat(column);
+    return rs.wasNull() ? null : Float.valueOf(value);
+  };
+
+  ColumnCodec DOUBLE = (rs, column) -> {
+    double value = rs.getDouble(column);
+    return rs.wasNull() ? null : Double.valueOf(value);
+  };
+
+  ColumnCodec DECIMAL = ResultSet::getBigDecimal;
+
+  ColumnCodec UUID_VALUE = (rs, column) -> rs.getObject(column, UUID.class);
+
+  ColumnCodec BINARY = ResultSet::getBytes;
+
+  ColumnCodec ARRAY = (rs, column) -> {
+    Array array = rs.getArray(column);
+    if (array == null) {
+      return null;
+    }
+    try {
+      return array.getArray();
+    } finally {
+      array.free();
+    }
+  };
+
+  ColumnCodec OBJECT = ResultSet::getObject;
+
+  Object read(ResultSet rs, int column) throws SQLException;
+
+  /**
+   * Pick a codec for every column, index {@code i} holds the codec for JDBC column {@code i + 1}
+   */
+  static ColumnCodec[] forColumns(ResultSetMetaData metaData) throws SQLException {
+    ColumnCodec[] codecs = new ColumnCodec[metaData.getColumnCount()];
+    for (int i = 0; i < codecs.length; i++) {
+      codecs[i] = forColumn(metaData.getColumnType(i + 1), metaData.getColumnTypeName(i + 1));
+    }
+    return codecs;
+  }
+
+  private static ColumnCodec forColumn(int sqlType, String typeName) {
+    // H2 reports these as BINARY/VARCHAR-ish JDBC types, the type name is what tells them apart
+    if ("UUID".equals(typeName)) {
+      return UUID_VALUE;
+    }
+    if ("JSON".equals(typeName)) {
+      return STRING;
+    }
+
+    return switch (sqlType) {
+      case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR,
+          Types.LONGNVARCHAR, Types.CLOB, Types.NCLOB -> STRING;
+      case Types.DATE -> DATE;
+      case Types.TIMESTAMP -> TIMESTAMP;
+      case Types.BOOLEAN, Types.BIT -> BOOLEAN;
+      case Types.TINYINT, Types.SMALLINT, Types.INTEGER -> INTEGER;
+      case Types.BIGINT -> BIGINT;
+      case Types.REAL -> REAL;
+      case Types.FLOAT, Types.DOUBLE -> DOUBLE;
+      case Types.DECIMAL, Types.NUMERIC -> DECIMAL;
+      case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> BINARY;
+      case Types.ARRAY -> ARRAY;
+      default -> OBJECT;
+    };
+  }
+}
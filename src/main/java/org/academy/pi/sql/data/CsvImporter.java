@@ -0,0 +1,237 @@
+package org.academy.pi.sql.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.academy.pi.sql.logging.AppLog;
+import org.academy.pi.sql.models.SqlImportReject;
+import org.academy.pi.sql.models.SqlImportResult;
+
+/**
+ * Streams CSV records straight into a table. Rows are inserted through a batched
+ * {@link PreparedStatement} and committed periodically, so the upload is never held in memory and
+ * a bad row only rejects itself instead of the whole import.
+ */
+public class CsvImporter {
+
+  private static final int BATCH_SIZE = 1_000;
+  private static final int COMMIT_INTERVAL = 10_000;
+  private static final int PROGRESS_INTERVAL = 100_000;
+  private static final int MAX_REPORTED_REJECTS = 100;
+
+  private final DataRepo dataRepo;
+
+  public CsvImporter(DataRepo dataRepo) {
+    this.dataRepo = dataRepo;
+  }
+
+  /**
+   * Import CSV records into {@code table}.
+   *
+   * @param columns table columns the CSV fields map to, in file order. When empty the header row is
+   *                used, or every table column in table order if there is no header.
+   * @param header  whether the first record is a header row
+   */
+  public SqlImportResult importCsv(InputStream in, String table, List<String> columns,
+      boolean header) throws SQLException, IOException {
+    long startTime = System.currentTimeMillis();
+    CsvReader reader = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+    try (Connection conn = dataRepo.getConnection()) {
+      String tableName = resolveTable(conn, table);
+      Map<String, String> tableColumns = tableColumns(conn, tableName);
+
+      List<String> mapping = new ArrayList<>(columns);
+      if (header) {
+        List<String> headerRecord = reader.readRecord();
+        if (mapping.isEmpty() && headerRecord != null) {
+          mapping.addAll(headerRecord);
+        }
+      }
+      if (mapping.isEmpty()) {
+        mapping.addAll(tableColumns.values());
+      }
+
+      List<String> targetColumns = new ArrayList<>();
+      for (String column : mapping) {
+        String resolved = column == null ? null : tableColumns.get(column.trim().toUpperCase());
+        if (resolved == null) {
+          throw new SQLException("Column \"%s\" not found in table %s".formatted(column, tableName));
+        }
+        targetColumns.add(resolved);
+      }
+
+      String sql = "INSERT INTO %s (%s) VALUES (%s)".formatted(
+          quote(tableName),
+          targetColumns.stream().map(CsvImporter::quote).collect(Collectors.joining(", ")),
+          targetColumns.stream().map(c -> "?").collect(Collectors.joining(", ")));
+
+      conn.setAutoCommit(false);
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        Progress progress = new Progress(tableName, startTime);
+        long[] batchLines = new long[BATCH_SIZE];
+        int batched = 0;
+
+        List<String> record;
+        while ((record = reader.readRecord()) != null) {
+          if (record.size() != targetColumns.size()) {
+            progress.reject(reader.getRecordLine(), "Expected %d fields but found %d"
+                .formatted(targetColumns.size(), record.size()));
+            continue;
+          }
+          for (int i = 0; i < record.size(); i++) {
+            stmt.setString(i + 1, record.get(i));
+          }
+          stmt.addBatch();
+          batchLines[batched++] = reader.getRecordLine();
+
+          if (batched == BATCH_SIZE) {
+            executeBatch(stmt, batchLines, batched, progress);
+            batched = 0;
+            if (progress.uncommitted >= COMMIT_INTERVAL) {
+              conn.commit();
+              progress.uncommitted = 0;
+            }
+          }
+        }
+        executeBatch(stmt, batchLines, batched, progress);
+        conn.commit();
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        return SqlImportResult.builder()
+            .table(tableName)
+            .columns(targetColumns)
+            .rowsImported(progress.imported)
+            .rowsRejected(progress.rejected)
+            .rejects(progress.rejects)
+            .execTimeMs(elapsed)
+            .rowsPerSecond(progress.imported * 1000 / Math.max(1, elapsed))
+            .build();
+      } catch (SQLException | IOException | RuntimeException e) {
+        conn.rollback();
+        throw e;
+      }
+    }
+  }
+
+  private void executeBatch(PreparedStatement stmt, long[] batchLines, int batched,
+      Progress progress) throws SQLException {
+    if (batched == 0) {
+      return;
+    }
+    int[] updateCounts;
+    List<String> failures = new ArrayList<>();
+    try {
+      updateCounts = stmt.executeBatch();
+    } catch (BatchUpdateException e) {
+      updateCounts = e.getUpdateCounts();
+      for (SQLException next = e.getNextException(); next != null;
+          next = next.getNextException()) {
+        failures.add(next.getMessage());
+      }
+      if (updateCounts.length < batched) {
+        // the driver gave up part way, nothing after the failure was executed
+        throw e;
+      }
+    }
+
+    int failureIndex = 0;
+    for (int i = 0; i < batched; i++) {
+      if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+        String reason = failureIndex < failures.size() ? failures.get(failureIndex++) : null;
+        progress.reject(batchLines[i], conciseReason(reason));
+      } else {
+        progress.imported();
+      }
+    }
+  }
+
+  private static String resolveTable(Connection conn, String table) throws SQLException {
+    if (table == null || table.isBlank()) {
+      throw new SQLException("Table name is required");
+    }
+    try (ResultSet rs = conn.getMetaData().getTables(null, null, null, new String[]{"TABLE"})) {
+      while (rs.next()) {
+        String name = rs.getString("TABLE_NAME");
+        if (name.equalsIgnoreCase(table.trim())) {
+          return name;
+        }
+      }
+    }
+    throw new SQLException("Table \"%s\" not found".formatted(table));
+  }
+
+  private static Map<String, String> tableColumns(Connection conn, String tableName)
+      throws SQLException {
+    Map<String, String> columns = new LinkedHashMap<>();
+    try (ResultSet rs = conn.getMetaData().getColumns(null, null, tableName, null)) {
+      while (rs.next()) {
+        String name = rs.getString("COLUMN_NAME");
+        columns.put(name.toUpperCase(), name);
+      }
+    }
+    return columns;
+  }
+
+  private static String quote(String identifier) {
+    return '"' + identifier.replace("\"", "\"\"") + '"';
+  }
+
+  /**
+   * Keep only the first line of a driver message, without the echoed statement or error code
+   */
+  private static String conciseReason(String message) {
+    if (message == null) {
+      return "Row could not be inserted";
+    }
+    int sqlStatementIndex = message.indexOf("; SQL statement:");
+    if (sqlStatementIndex > 0) {
+      message = message.substring(0, sqlStatementIndex);
+    }
+    return message.replaceAll("\\[\\d+-\\d+\\]", "").trim();
+  }
+
+  private static class Progress {
+
+    private final String table;
+    private final long startTime;
+    private final List<SqlImportReject> rejects = new ArrayList<>();
+    private long imported;
+    private long rejected;
+    private long uncommitted;
+
+    private Progress(String table, long startTime) {
+      this.table = table;
+      this.startTime = startTime;
+    }
+
+    private void imported() {
+      imported++;
+      uncommitted++;
+      if (imported % PROGRESS_INTERVAL == 0) {
+        long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+        AppLog.info("import", "Imported %,d rows into %s (%,d rows/s, %,d rejected)".formatted(
+            imported, table, imported * 1000 / elapsed, rejected));
+      }
+    }
+
+    private void reject(long line, String reason) {
+      rejected++;
+      if (rejects.size() < MAX_REPORTED_REJECTS) {
+        rejects.add(SqlImportReject.builder().line(line).reason(reason).build());
+      }
+    }
+  }
+}
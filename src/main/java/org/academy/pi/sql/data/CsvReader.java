@@ -0,0 +1,130 @@
+package org.academy.pi.sql.data;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader. Only one record is held in memory at a time, quoted fields
+ * may contain commas, doubled quotes and line breaks. An empty unquoted field is read as
+ * {@code null} while {@code ""} stays an empty string.
+ */
+public class CsvReader {
+
+  private static final int EOF = -1;
+
+  private final Reader reader;
+  private final char[] buffer = new char[8192];
+  private int position;
+  private int limit;
+  private int pushedBack = EOF;
+
+  private long line = 1;
+  private long recordLine;
+
+  public CsvReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * Line number the last record returned by {@link #readRecord()} started on
+   */
+  public long getRecordLine() {
+    return recordLine;
+  }
+
+  /**
+   * Read the next record, or {@code null} once the input is exhausted
+   */
+  public List<String> readRecord() throws IOException {
+    int c = read();
+    while (c == '\r' || c == '\n') {
+      skipLineBreak(c);
+      c = read();
+    }
+    if (c == EOF) {
+      return null;
+    }
+
+    recordLine = line;
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+
+    while (true) {
+      if (c == '"' && field.isEmpty() && !quoted) {
+        quoted = true;
+        c = readQuoted(field);
+        continue;
+      }
+      if (c == ',' || c == '\r' || c == '\n' || c == EOF) {
+        fields.add(quoted || !field.isEmpty() ? field.toString() : null);
+        field.setLength(0);
+        quoted = false;
+        if (c == ',') {
+          c = read();
+          continue;
+        }
+        if (c != EOF) {
+          skipLineBreak(c);
+        }
+        return fields;
+      }
+      field.append((char) c);
+      c = read();
+    }
+  }
+
+  /**
+   * Read a quoted field body into {@code field}, returns the first character after the closing
+   * quote
+   */
+  private int readQuoted(StringBuilder field) throws IOException {
+    while (true) {
+      int c = read();
+      if (c == EOF) {
+        throw new IOException("Unterminated quoted field starting on line " + recordLine);
+      }
+      if (c == '"') {
+        int next = read();
+        if (next != '"') {
+          return next;
+        }
+      } else if (c == '\n') {
+        line++;
+      }
+      field.append((char) c);
+    }
+  }
+
+  /**
+   * Finish consuming a CR, LF or CRLF line break whose first character was {@code c}
+   */
+  private void skipLineBreak(int c) throws IOException {
+    line++;
+    if (c == '\r') {
+      int next = read();
+      if (next != '\n') {
+        pushedBack = next;
+      }
+    }
+  }
+
+  private int read() throws IOException {
+    if (pushedBack != EOF) {
+      int c = pushedBack;
+      pushedBack = EOF;
+      return c;
+    }
+    if (position == limit) {
+      limit = reader.read(buffer, 0, buffer.length);
+      position = 0;
+      if (limit <= 0) {
+        limit = 0;
+        return EOF;
+      }
+    }
+    return buffer[position++];
+  }
+}
@@ -2,6 +2,7 @@ package org.academy.pi.sql.data;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
@@ -9,20 +10,108 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.academy.pi.sql.diagnostics.ConnectionAcquireEvent;
+import org.academy.pi.sql.diagnostics.QueryContext;
+import org.academy.pi.sql.diagnostics.RowMaterializationEvent;
+import org.academy.pi.sql.diagnostics.StatementExecutionEvent;
+import org.academy.pi.sql.logging.AppLog;
 import org.academy.pi.sql.models.SqlHealthResult;
 import org.academy.pi.sql.models.SqlQueryResult;
+import org.h2.api.ErrorCode;
 import org.h2.tools.RunScript;
 import org.h2.tools.Server;
 
 public class DataRepo {
 
-  private static final String DB_URL = "jdbc:h2:mem:sqllearning;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+  public static final String ROOT_DB_NAME = "sqllearning";
+
+  private static final String DB_URL_TEMPLATE = "jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
   private static final String DB_USER = "student";
   private static final String DB_PASSWORD = "learn123";
 
+  private static final long SYNTHETIC_STUDENTS = Long.getLong("sqllearning.synthetic.students", 0);
+  private static final long SYNTHETIC_SEED = Long.getLong("sqllearning.synthetic.seed", 42);
+
+  private final String dbName;
+  private final String dbUrl;
+  private final Dataset dataset;
+  private final SchemaCatalog schemaCatalog = new SchemaCatalog(this);
+  private final GroupCommitExecutor groupCommit;
+  private final StudentSearchIndex searchIndex;
+  private final List<Runnable> closeHooks = new CopyOnWriteArrayList<>();
+
   public DataRepo() {
-    initializeDatabase();
+    this(ROOT_DB_NAME);
+  }
+
+  /**
+   * Open (and seed) the in-memory database {@code dbName}. Every database is built from the same
+   * init script and synthetic data seed, so they all start out identical.
+   */
+  public DataRepo(String dbName) {
+    this(dbName, ExecutionMode.configured());
+  }
+
+  public DataRepo(String dbName, ExecutionMode executionMode) {
+    this(dbName, Dataset.STUDENTS, executionMode);
+  }
+
+  /**
+   * Open the in-memory database {@code dbName} and seed it with {@code dataset}. Synthetic
+   * students are only added to the students dataset. If seeding fails the half-built database is
+   * shut down, so opening {@code dbName} again starts from scratch.
+   */
+  public DataRepo(String dbName, Dataset dataset, ExecutionMode executionMode) {
+    this.dbName = dbName;
+    this.dbUrl = DB_URL_TEMPLATE.formatted(dbName);
+    this.dataset = dataset;
+    try {
+      initializeDatabase();
+      if (SYNTHETIC_STUDENTS > 0 && dataset.isStudents()) {
+        generateSyntheticData(SYNTHETIC_STUDENTS, SYNTHETIC_SEED);
+      }
+      this.searchIndex = dataset.isStudents() ? StudentSearchIndex.create(this) : null;
+      this.groupCommit = executionMode == ExecutionMode.GROUP_COMMIT
+          ? new GroupCommitExecutor(this) : null;
+    } catch (RuntimeException | Error e) {
+      // DB_CLOSE_DELAY=-1 keeps the database alive without connections, nothing else would ever
+      // drop it
+      close();
+      throw e;
+    }
+  }
+
+  public String getDbName() {
+    return dbName;
+  }
+
+  public Dataset getDataset() {
+    return dataset;
+  }
+
+  public SchemaCatalog getSchemaCatalog() {
+    return schemaCatalog;
+  }
+
+  /**
+   * Full-text index over the students, null for other datasets or when search is disabled
+   */
+  public StudentSearchIndex getSearchIndex() {
+    return searchIndex;
+  }
+
+  public ExecutionMode getExecutionMode() {
+    return groupCommit == null ? ExecutionMode.DIRECT : ExecutionMode.GROUP_COMMIT;
+  }
+
+  /**
+   * Client writes per commit in group-commit mode, 0 in direct mode
+   */
+  public double getAverageCommitGroupSize() {
+    return groupCommit == null ? 0 : groupCommit.averageGroupSize();
   }
 
   public SqlHealthResult health() {
@@ -30,27 +119,88 @@ public class DataRepo {
       return SqlHealthResult.builder()
           .connected(conn != null)
           .message("Green means go!")
-          .sampleQueries(QueryRepo.getSampleQueries())
-          .tableNames(QueryRepo.getTableNames())
+          .dataset(dataset.name())
+          .sampleQueries(dataset.sampleQueries())
+          .tableNames(schemaCatalog.getTableNames().stream().map(String::toLowerCase).toList())
           .build();
     } catch (Exception e) {
       return SqlHealthResult.builder()
           .connected(false)
           .message(e.getMessage())
+          .dataset(dataset.name())
           .sampleQueries(List.of())
           .tableNames(List.of())
           .build();
     }
   }
 
+  /**
+   * Stop the group-commit writer and drop the in-memory database, freeing its memory. The repo
+   * can't be used afterwards.
+   */
+  public void close() {
+    closeHooks.forEach(Runnable::run);
+    if (groupCommit != null) {
+      groupCommit.close();
+    }
+    try (Connection conn = getConnection();
+        Statement stmt = conn.createStatement()) {
+      stmt.execute("SHUTDOWN");
+    } catch (SQLException e) {
+      AppLog.error("datarepo", "Could not shut down " + dbName, e);
+    }
+  }
+
+  /**
+   * Run {@code hook} first thing in {@link #close()}, for helpers that keep threads on this repo
+   */
+  void onClose(Runnable hook) {
+    closeHooks.add(hook);
+  }
+
   public SqlQueryResult executeQuery(String sql) throws SQLException {
+    return executeQuery(sql, 0);
+  }
+
+  /**
+   * Execute {@code sql}, returning at most {@code maxRows} rows of a SELECT (0 means no limit)
+   */
+  public SqlQueryResult executeQuery(String sql, int maxRows) throws SQLException {
+    long startNanos = System.nanoTime();
+    try {
+      SqlQueryResult result;
+      if (groupCommit != null) {
+        result = groupCommit.execute(sql, maxRows);
+      } else {
+        try (Connection conn = getConnection()) {
+          result = runQuery(conn, sql, maxRows);
+        }
+      }
+      QueryContext.noteQuery(sql, result.getCount());
+      AppLog.query(dbName, sql, result.getCount(), System.nanoTime() - startNanos, null);
+      return result;
+    } catch (SQLException e) {
+      QueryContext.noteQuery(sql, -1);
+      AppLog.query(dbName, sql, -1, System.nanoTime() - startNanos, e.getMessage());
+      throw e;
+    }
+  }
+
+  /**
+   * Run one statement on {@code conn} and read back its rows or update count
+   */
+  SqlQueryResult runQuery(Connection conn, String sql, int maxRows) throws SQLException {
     long startTime = System.currentTimeMillis();
 
-    try (Connection conn = getConnection();
-        Statement stmt = conn.createStatement()) {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.setMaxRows(maxRows);
 
-      if (sql.trim().toUpperCase().startsWith("SELECT")) {
+      String keyword = sql.trim().toUpperCase();
+      StatementExecutionEvent execution = new StatementExecutionEvent();
+      execution.begin();
+      if (isQuery(keyword)) {
         try (ResultSet rs = stmt.executeQuery(sql)) {
+          execution.complete(dbName, sql, -1);
           ResultSetMetaData metaData = rs.getMetaData();
           int columnCount = metaData.getColumnCount();
 
@@ -61,18 +211,18 @@ public class DataRepo {
           }
 
           // Get rows
+          RowMaterializationEvent materialization = new RowMaterializationEvent();
+          materialization.begin();
+          ColumnCodec[] codecs = ColumnCodec.forColumns(metaData);
           List<List<Object>> rows = new ArrayList<>();
           while (rs.next()) {
-            List<Object> row = new ArrayList<>();
-            for (int i = 1; i <= columnCount; i++) {
-              if ("DATE".equals(metaData.getColumnTypeName(i))) {
-                row.add(rs.getDate(i).toLocalDate().toString());
-              } else {
-                row.add(rs.getObject(i));
-              }
+            Object[] row = new Object[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+              row[i] = codecs[i].read(rs, i + 1);
             }
-            rows.add(row);
+            rows.add(Arrays.asList(row));
           }
+          materialization.complete(dbName, sql, rows.size(), columnCount);
 
           long executionTime = System.currentTimeMillis() - startTime;
           return SqlQueryResult.builder()
@@ -84,6 +234,13 @@ public class DataRepo {
         }
       } else {
         int rowsAffected = stmt.executeUpdate(sql);
+        execution.complete(dbName, sql, rowsAffected);
+        if (isDdl(keyword)) {
+          schemaCatalog.refresh();
+          if (searchIndex != null) {
+            searchIndex.afterDdl(keyword);
+          }
+        }
         long executionTime = System.currentTimeMillis() - startTime;
 
         List<String> columns = List.of("rows_affected");
@@ -98,32 +255,87 @@ public class DataRepo {
     }
   }
 
+  /**
+   * Whether the upper-cased, trimmed {@code keyword} starts a statement that returns rows rather
+   * than changing anything
+   */
+  public static boolean isQuery(String keyword) {
+    return keyword.startsWith("SELECT") || keyword.startsWith("EXPLAIN")
+        || keyword.startsWith("WITH") || keyword.startsWith("VALUES");
+  }
+
+  /**
+   * Whether {@code e} says a table or its schema doesn't exist, e.g. one of the app's own tables a
+   * student dropped
+   */
+  static boolean isMissingTable(SQLException e) {
+    int code = e.getErrorCode();
+    return code == ErrorCode.TABLE_OR_VIEW_NOT_FOUND_1
+        || code == ErrorCode.TABLE_OR_VIEW_NOT_FOUND_WITH_CANDIDATES_2
+        || code == ErrorCode.TABLE_OR_VIEW_NOT_FOUND_DATABASE_EMPTY_1
+        || code == ErrorCode.SCHEMA_NOT_FOUND_1;
+  }
+
+  private static boolean isDdl(String keyword) {
+    return keyword.startsWith("CREATE") || keyword.startsWith("ALTER")
+        || keyword.startsWith("DROP") || keyword.startsWith("TRUNCATE")
+        || keyword.startsWith("RENAME") || keyword.startsWith("COMMENT");
+  }
+
   public Connection getConnection() throws SQLException {
+    ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+    event.begin();
     try {
       Class.forName("org.h2.Driver");
-      return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+      return DriverManager.getConnection(dbUrl, DB_USER, DB_PASSWORD);
     } catch (ClassNotFoundException e) {
       throw new SQLException("H2 Driver not found", e);
+    } finally {
+      event.complete(dbName);
+    }
+  }
+
+  /**
+   * Bulk load generated students on top of the seed data, see {@link SyntheticDataGenerator}
+   */
+  public void generateSyntheticData(long studentCount, long seed) {
+    long startTime = System.currentTimeMillis();
+    try {
+      long favoriteCount = new SyntheticDataGenerator(this, seed).generate(studentCount);
+      long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+      System.out.printf("✓ Generated %,d synthetic students and %,d favorites in %,d ms"
+          + " (%,d rows/s)%n", studentCount, favoriteCount, elapsed,
+          (studentCount + favoriteCount) * 1000 / elapsed);
+    } catch (SQLException e) {
+      System.err.println("generateSyntheticData Error! " + e.getMessage());
+      throw new RuntimeException(e);
     }
   }
 
   private void initializeDatabase() {
 
-    String initScript = "/sql/initialize-database.sql";
+    String initScript = dataset.seedScript();
 
     try (InputStream is = getClass().getResourceAsStream(initScript)) {
       if (is == null) {
+        if (!dataset.isStudents()) {
+          throw new IllegalStateException("Seed script not found: " + initScript);
+        }
         return;
       }
       try (
           Connection conn = getConnection();
-          InputStreamReader isr = new InputStreamReader(is)
+          InputStreamReader isr = new InputStreamReader(is, StandardCharsets.UTF_8)
       ) {
         RunScript.execute(conn, isr);
+        if (!ROOT_DB_NAME.equals(dbName)) {
+          System.out.println("✓ Database " + dbName + " initialize!");
+          return;
+        }
         Server.createWebServer("-web", "-webAllowOthers", "-webPort", "8082").start();
         System.out.println("✓ Database initialize!");
         System.out.println("✓ H2 Web Console available at: http://localhost:8082");
-        System.out.println("  - JDBC URL: " + DB_URL);
+        System.out.println("  - JDBC URL: " + dbUrl);
         System.out.println("  - Username: " + DB_USER);
         System.out.println("  - Password: " + DB_PASSWORD);
       }
@@ -0,0 +1,25 @@
+package org.academy.pi.sql.data;
+
+import java.util.List;
+import org.academy.pi.sql.models.SqlNamedQuery;
+
+/**
+ * One lesson's data: the script that creates and fills its tables and the sample queries shown
+ * next to the editor
+ *
+ * @param seedScript classpath resource run against a fresh database
+ */
+public record Dataset(String name, String title, String description, String seedScript,
+    List<SqlNamedQuery> sampleQueries) {
+
+  /**
+   * The original students and favorites data, always loaded and the one exercises are graded on
+   */
+  public static final Dataset STUDENTS = new Dataset("students", "Students & Favorites",
+      "Students of the academy and their favorite colors, foods and phones",
+      "/sql/initialize-database.sql", QueryRepo.getSampleQueries());
+
+  public boolean isStudents() {
+    return STUDENTS.name().equals(name);
+  }
+}
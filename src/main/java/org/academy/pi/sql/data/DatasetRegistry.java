@@ -0,0 +1,238 @@
+package org.academy.pi.sql.data;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.academy.pi.sql.logging.AppLog;
+import org.academy.pi.sql.models.SqlDatasetInfo;
+import org.academy.pi.sql.models.SqlNamedQuery;
+
+/**
+ * The lesson datasets listed in {@code /sql/datasets/datasets.json}, each with a
+ * {@code seed.sql} and {@code queries.json} in a folder of the same name.
+ *
+ * <p>A dataset's database is only created the first time a request uses it. Loaded datasets are
+ * kept in least-recently-used order and the oldest idle ones are shut down when more than
+ * {@code sqllearning.datasets.maxLoaded} are loaded or the heap has less than
+ * {@code sqllearning.datasets.minFreeMb} left, so a Pi can offer many lessons while only holding
+ * the ones a class is actually using. The students dataset lives in the {@link ShardRouter}
+ * instead and is never evicted.
+ *
+ * <p>Which dataset a session uses is remembered here as well, so every request from the session
+ * (queries, schema, downloads) goes to the same one.
+ */
+public class DatasetRegistry {
+
+  private static final String INDEX = "/sql/datasets/datasets.json";
+  private static final int MAX_LOADED = Integer.getInteger("sqllearning.datasets.maxLoaded", 3);
+  private static final long MIN_FREE_BYTES =
+      Long.getLong("sqllearning.datasets.minFreeMb", 32) * 1024 * 1024;
+  private static final int MAX_SESSIONS = 10_000;
+
+  private record IndexEntry(String name, String title, String description) {
+
+  }
+
+  private final Map<String, Dataset> datasets = new LinkedHashMap<>();
+  // guarded by this, in least-recently-used order
+  private final Map<String, Loaded> loaded = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, String> sessionDatasets =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+          return size() > MAX_SESSIONS;
+        }
+      };
+
+  public DatasetRegistry(ObjectMapper objectMapper) {
+    datasets.put(Dataset.STUDENTS.name(), Dataset.STUDENTS);
+    try (InputStream is = getClass().getResourceAsStream(INDEX)) {
+      if (is == null) {
+        return;
+      }
+      for (IndexEntry entry : objectMapper.readValue(is, new TypeReference<List<IndexEntry>>() {
+      })) {
+        String folder = "/sql/datasets/" + entry.name() + "/";
+        datasets.put(entry.name(), new Dataset(entry.name(), entry.title(), entry.description(),
+            folder + "seed.sql", readQueries(objectMapper, folder + "queries.json")));
+      }
+    } catch (IOException e) {
+      System.err.println("DatasetRegistry Error! " + e.getMessage());
+      throw new RuntimeException(e);
+    }
+    System.out.printf("✓ %d lesson datasets available%n", datasets.size());
+  }
+
+  private List<SqlNamedQuery> readQueries(ObjectMapper objectMapper, String resource)
+      throws IOException {
+    try (InputStream is = getClass().getResourceAsStream(resource)) {
+      return is == null ? List.of()
+          : List.copyOf(objectMapper.readValue(is, new TypeReference<List<SqlNamedQuery>>() {
+          }));
+    }
+  }
+
+  public boolean exists(String name) {
+    return datasets.containsKey(name);
+  }
+
+  /**
+   * Dataset chosen by {@code sessionKey}, students until it picks another one
+   */
+  public synchronized String selected(String sessionKey) {
+    return sessionDatasets.getOrDefault(sessionKey, Dataset.STUDENTS.name());
+  }
+
+  /**
+   * Remember {@code name} as the dataset for {@code sessionKey}
+   *
+   * @throws IllegalArgumentException when there is no such dataset
+   */
+  public synchronized void select(String sessionKey, String name) {
+    if (!exists(name)) {
+      throw new IllegalArgumentException("Unknown dataset: " + name);
+    }
+    sessionDatasets.put(sessionKey, name);
+  }
+
+  public synchronized List<SqlDatasetInfo> info() {
+    List<SqlDatasetInfo> info = new ArrayList<>();
+    for (Dataset dataset : datasets.values()) {
+      info.add(SqlDatasetInfo.builder()
+          .name(dataset.name())
+          .title(dataset.title())
+          .description(dataset.description())
+          .loaded(dataset.isStudents() || loaded.containsKey(dataset.name()))
+          .build());
+    }
+    return info;
+  }
+
+  /**
+   * Hand out the database for dataset {@code name}, creating it first if it isn't loaded. Close
+   * the lease when the request is done so the dataset can be evicted again.
+   *
+   * @throws SQLException when there is no such dataset or it fails to load
+   */
+  public RepoLease acquire(String name) throws SQLException {
+    Dataset dataset = datasets.get(name);
+    if (dataset == null || dataset.isStudents()) {
+      throw new SQLException("Unknown dataset: " + name);
+    }
+
+    Loaded entry;
+    synchronized (this) {
+      entry = loaded.computeIfAbsent(name, n -> new Loaded(dataset));
+      entry.inFlight++;
+    }
+    if (entry.repo == null) {
+      // make room before seeding, not only once the new database already takes up memory
+      evictIdle(entry);
+    }
+    try {
+      entry.open();
+    } catch (RuntimeException | OutOfMemoryError e) {
+      // DataRepo has shut the half-seeded database down, the next request seeds a fresh one
+      synchronized (this) {
+        entry.inFlight--;
+        loaded.remove(name, entry);
+      }
+      throw new SQLException("Could not load dataset " + name, e);
+    }
+    evictIdle(entry);
+    return new Lease(entry);
+  }
+
+  /**
+   * Shut down every loaded dataset, for server shutdown
+   */
+  public synchronized void close() {
+    loaded.values().forEach(Loaded::close);
+    loaded.clear();
+  }
+
+  /**
+   * Shut down the least recently used idle datasets while there are too many or memory is short.
+   * Runs under the registry lock so a dataset can't be reloaded while its old database is still
+   * being dropped.
+   */
+  private synchronized void evictIdle(Loaded keep) {
+    Iterator<Loaded> oldestFirst = loaded.values().iterator();
+    while ((loaded.size() > MAX_LOADED || lowOnMemory()) && oldestFirst.hasNext()) {
+      Loaded entry = oldestFirst.next();
+      if (entry == keep || entry.inFlight > 0 || entry.repo == null) {
+        continue;
+      }
+      oldestFirst.remove();
+      entry.close();
+      AppLog.info("datasets", "Evicted dataset " + entry.dataset.name());
+    }
+  }
+
+  private static boolean lowOnMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    long used = runtime.totalMemory() - runtime.freeMemory();
+    return runtime.maxMemory() - used < MIN_FREE_BYTES;
+  }
+
+  private synchronized void release(Loaded entry) {
+    entry.inFlight--;
+  }
+
+  private static class Loaded {
+
+    private final Dataset dataset;
+    // guarded by the registry
+    private int inFlight;
+    private volatile DataRepo repo;
+
+    private Loaded(Dataset dataset) {
+      this.dataset = dataset;
+    }
+
+    /**
+     * Create and seed the database on first use, other requests for it wait here
+     */
+    private synchronized void open() {
+      if (repo == null) {
+        long startTime = System.currentTimeMillis();
+        repo = new DataRepo(DataRepo.ROOT_DB_NAME + "_" + dataset.name().replace('-', '_'),
+            dataset, ExecutionMode.configured());
+        AppLog.info("datasets", "Loaded dataset %s in %,d ms".formatted(dataset.name(),
+            System.currentTimeMillis() - startTime));
+      }
+    }
+
+    private void close() {
+      if (repo != null) {
+        repo.close();
+      }
+    }
+  }
+
+  private class Lease implements RepoLease {
+
+    private final Loaded entry;
+
+    private Lease(Loaded entry) {
+      this.entry = entry;
+    }
+
+    @Override
+    public DataRepo getDataRepo() {
+      return entry.repo;
+    }
+
+    @Override
+    public void close() {
+      release(entry);
+    }
+  }
+}
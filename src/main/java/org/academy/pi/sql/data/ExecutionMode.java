@@ -0,0 +1,28 @@
+package org.academy.pi.sql.data;
+
+/**
+ * How {@link DataRepo} runs statements, chosen with {@code -Dsqllearning.execution}
+ */
+public enum ExecutionMode {
+
+  /**
+   * Every statement on its own new connection in autocommit mode
+   */
+  DIRECT,
+
+  /**
+   * Queries on pooled read-only connections, DML through a single writer that commits several
+   * clients' statements per transaction, see {@link GroupCommitExecutor}
+   */
+  GROUP_COMMIT;
+
+  public static ExecutionMode configured() {
+    String mode = System.getProperty("sqllearning.execution", "direct");
+    try {
+      return valueOf(mode.trim().toUpperCase().replace('-', '_'));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(
+          "sqllearning.execution must be direct or group-commit, not " + mode);
+    }
+  }
+}
@@ -0,0 +1,302 @@
+package org.academy.pi.sql.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.academy.pi.sql.logging.AppLog;
+import org.academy.pi.sql.models.SqlExercise;
+import org.academy.pi.sql.models.SqlGradeResult;
+
+/**
+ * Checks a student's answer to an exercise by comparing {@link ResultDigest}s instead of result
+ * tables, so grading never holds more than one row in memory and a wrong answer that returns a
+ * whole table is cut off one row past the expected count.
+ *
+ * <p>Expected digests are worked out once per database and reused until one of the tables the
+ * exercise reads changes (H2 bumps {@code LAST_MODIFICATION} on every write), so a student who has
+ * been practising UPDATEs on their shard is graded against their own data, and writes to other
+ * tables cost nothing. Only one thread works out answers for a database at a time; students who
+ * check at the same moment wait for it and share the result.
+ */
+public class ExerciseGrader {
+
+  private static final int QUERY_TIMEOUT_SECONDS = 10;
+  private static final int FETCH_SIZE = 1_000;
+  private static final String VERSION_SQL = """
+      SELECT TABLE_NAME, LAST_MODIFICATION FROM INFORMATION_SCHEMA.TABLES
+      WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ANY(?)
+      """;
+  private static final Pattern PLAN_TABLE = Pattern.compile("\"PUBLIC\"\\.\"((?:[^\"]|\"\")+)\"");
+
+  /**
+   * An exercise's answer and the versions of the tables it was worked out from
+   */
+  private record Expected(Map<String, Long> versions, ResultDigest digest) {
+
+  }
+
+  /**
+   * Answers for one database, also used as its lock while working them out
+   */
+  private static class Answers {
+
+    private final Map<String, List<String>> tables = new ConcurrentHashMap<>();
+    private final Map<String, Expected> expected = new ConcurrentHashMap<>();
+  }
+
+  private final Map<String, Answers> answersByDb = new ConcurrentHashMap<>();
+
+  /**
+   * Work out the expected answers on {@code dataRepo} up front so the first student to submit
+   * doesn't pay for them
+   */
+  public ExerciseGrader(DataRepo dataRepo) {
+    try {
+      long startTime = System.currentTimeMillis();
+      List<SqlExercise> exercises = ExerciseRepo.getExercises();
+      try (Connection conn = dataRepo.getConnection()) {
+        for (SqlExercise exercise : exercises) {
+          expected(dataRepo, conn, exercise);
+        }
+      }
+      System.out.printf("✓ Prepared %d exercise answers in %,d ms%n", exercises.size(),
+          System.currentTimeMillis() - startTime);
+    } catch (SQLException e) {
+      System.err.println("ExerciseGrader Error! " + e.getMessage());
+    }
+  }
+
+  public List<SqlExercise> getExercises() {
+    return ExerciseRepo.getExercises();
+  }
+
+  /**
+   * Run {@code sql} on {@code dataRepo} in a transaction that is rolled back afterwards and compare
+   * it with the exercise's answer
+   *
+   * @throws IllegalArgumentException when the exercise doesn't exist
+   * @throws SQLException when the query is not a single SELECT or fails to run
+   */
+  public SqlGradeResult grade(DataRepo dataRepo, String exerciseId, String sql)
+      throws SQLException {
+    SqlExercise exercise = ExerciseRepo.find(exerciseId)
+        .orElseThrow(() -> new IllegalArgumentException("Unknown exercise: " + exerciseId));
+    String keyword = sql.trim().toUpperCase();
+    if (!keyword.startsWith("SELECT") && !keyword.startsWith("WITH")) {
+      throw new SQLException("Answers must be a SELECT query");
+    }
+    if (!isSingleStatement(sql)) {
+      throw new SQLException("Answers must be a single SELECT query");
+    }
+
+    ResultDigest expected;
+    ResultDigest actual;
+    long startNanos;
+    try (Connection conn = dataRepo.getConnection()) {
+      expected = expected(dataRepo, conn, exercise);
+      startNanos = System.nanoTime();
+      try {
+        actual = digest(conn, sql, expected.getRowCount() + 1);
+      } catch (SQLException e) {
+        AppLog.query(dataRepo.getDbName(), sql, -1, System.nanoTime() - startNanos,
+            e.getMessage());
+        throw e;
+      }
+    }
+    long execNanos = System.nanoTime() - startNanos;
+    AppLog.query(dataRepo.getDbName(), sql, actual.getRowCount(), execNanos, null);
+
+    boolean passed = actual.matches(expected, exercise.isOrdered());
+    return SqlGradeResult.builder()
+        .exercise(exercise.getId())
+        .passed(passed)
+        .hint(passed ? "Correct! Case closed." : hint(exercise, actual, expected))
+        .rowCount(actual.getRowCount())
+        .execTimeMs(execNanos / 1_000_000)
+        .build();
+  }
+
+  /**
+   * Whether {@code sql} holds one statement, optionally followed by semicolons, blanks and
+   * comments. H2 runs every statement in the string, and DDL such as a DROP TABLE after the query
+   * commits on its own, so rolling back afterwards wouldn't undo it.
+   *
+   * <p>Only quotes, line comments and block comments hide a semicolon here. Anything H2 reads
+   * differently, such as nested comments or {@code $$} strings, errs on the side of a second
+   * statement.
+   */
+  static boolean isSingleStatement(String sql) {
+    boolean ended = false;
+    int i = 0;
+    while (i < sql.length()) {
+      char c = sql.charAt(i);
+      if (c == '\'' || c == '"') {
+        // a doubled quote is read as two strings back to back, which is the same thing here
+        int close = sql.indexOf(c, i + 1);
+        if (close < 0 || ended) {
+          return false;
+        }
+        i = close + 1;
+      } else if (sql.startsWith("--", i)) {
+        int eol = sql.indexOf('\n', i);
+        i = eol < 0 ? sql.length() : eol + 1;
+      } else if (sql.startsWith("/*", i)) {
+        int close = sql.indexOf("*/", i + 2);
+        if (close < 0) {
+          return false;
+        }
+        i = close + 2;
+      } else if (c == ';') {
+        ended = true;
+        i++;
+      } else if (ended && !Character.isWhitespace(c)) {
+        return false;
+      } else {
+        i++;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Most useful thing to tell a student about a wrong answer, from the broadest difference to the
+   * most specific
+   */
+  private static String hint(SqlExercise exercise, ResultDigest actual, ResultDigest expected) {
+    if (actual.getColumnCount() != expected.getColumnCount()) {
+      return "Your query returns %d column%s, the answer has %d.".formatted(
+          actual.getColumnCount(), actual.getColumnCount() == 1 ? "" : "s",
+          expected.getColumnCount());
+    }
+    if (actual.getRowCount() > expected.getRowCount()) {
+      return "Your query returns more rows than the answer (%,d). Check your WHERE or LIMIT."
+          .formatted(expected.getRowCount());
+    }
+    if (actual.getRowCount() < expected.getRowCount()) {
+      return "Your query returns %,d row%s, the answer has %,d. Check your WHERE conditions."
+          .formatted(actual.getRowCount(), actual.getRowCount() == 1 ? "" : "s",
+              expected.getRowCount());
+    }
+    if (exercise.isOrdered() && actual.matches(expected, false)) {
+      return "You have the right rows in the wrong order. Check your ORDER BY.";
+    }
+
+    StringBuilder hint = new StringBuilder("Right number of rows, but some values are different.");
+    int column = actual.firstDifferentColumn(expected);
+    if (column >= 0) {
+      hint.append(" Take another look at column %d.".formatted(column + 1));
+    }
+    int row = exercise.isOrdered()
+        ? actual.firstDifferentRow(expected)
+        : actual.firstRowNotIn(expected);
+    if (row >= 0) {
+      hint.append(" Row %,d is not in the answer.".formatted(row + 1));
+    }
+    return hint.toString();
+  }
+
+  /**
+   * The exercise's answer on {@code dataRepo}, worked out again only when a table it reads has
+   * changed since
+   */
+  private ResultDigest expected(DataRepo dataRepo, Connection conn, SqlExercise exercise)
+      throws SQLException {
+    Answers answers = answersByDb.computeIfAbsent(dataRepo.getDbName(), name -> new Answers());
+    List<String> tables = answers.tables.get(exercise.getId());
+    if (tables != null) {
+      Expected cached = answers.expected.get(exercise.getId());
+      if (cached != null && cached.versions().equals(versions(conn, tables))) {
+        return cached.digest();
+      }
+    }
+
+    synchronized (answers) {
+      tables = answers.tables.get(exercise.getId());
+      if (tables == null) {
+        tables = tables(conn, exercise.getReferenceSql());
+        answers.tables.put(exercise.getId(), tables);
+      }
+      // read before the answer, so a write in between only means working it out once more
+      Map<String, Long> versions = versions(conn, tables);
+      Expected cached = answers.expected.get(exercise.getId());
+      if (cached != null && cached.versions().equals(versions)) {
+        return cached.digest();
+      }
+      ResultDigest digest = digest(conn, exercise.getReferenceSql(), 0);
+      answers.expected.put(exercise.getId(), new Expected(versions, digest));
+      return digest;
+    }
+  }
+
+  /**
+   * Tables {@code sql} reads, taken from H2's plan for it so joins and subqueries count too
+   */
+  private static List<String> tables(Connection conn, String sql) throws SQLException {
+    Set<String> tables = new TreeSet<>();
+    try (Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery("EXPLAIN " + sql)) {
+      while (rs.next()) {
+        Matcher matcher = PLAN_TABLE.matcher(rs.getString(1));
+        while (matcher.find()) {
+          tables.add(matcher.group(1).replace("\"\"", "\""));
+        }
+      }
+    }
+    return List.copyOf(tables);
+  }
+
+  /**
+   * {@code LAST_MODIFICATION} of each of {@code tables}, missing tables are left out
+   */
+  private static Map<String, Long> versions(Connection conn, List<String> tables)
+      throws SQLException {
+    Map<String, Long> versions = new HashMap<>();
+    try (PreparedStatement stmt = conn.prepareStatement(VERSION_SQL)) {
+      stmt.setObject(1, tables.toArray(new String[0]));
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          versions.put(rs.getString(1), rs.getLong(2));
+        }
+      }
+    }
+    return versions;
+  }
+
+  /**
+   * Stream a query into a digest inside a transaction that is always rolled back, so a data-change
+   * table such as {@code OLD TABLE (DELETE FROM ...)} in the answer leaves nothing behind
+   *
+   * @param maxRows stop after this many rows, 0 for all of them
+   */
+  private static ResultDigest digest(Connection conn, String sql, long maxRows)
+      throws SQLException {
+    conn.setAutoCommit(false);
+    try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY,
+        ResultSet.CONCUR_READ_ONLY)) {
+      int limit = (int) Math.min(maxRows, Integer.MAX_VALUE);
+      stmt.setMaxRows(limit);
+      stmt.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+      // H2 refuses a fetch size larger than the row limit
+      stmt.setFetchSize(limit > 0 ? Math.min(FETCH_SIZE, limit) : FETCH_SIZE);
+      if (!stmt.execute(sql)) {
+        throw new SQLException("Answers must be a SELECT query");
+      }
+      try (ResultSet rs = stmt.getResultSet()) {
+        return ResultDigest.of(rs);
+      }
+    } finally {
+      conn.rollback();
+      conn.setAutoCommit(true);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package org.academy.pi.sql.data;
+
+import java.util.List;
+import java.util.Optional;
+import lombok.experimental.UtilityClass;
+import org.academy.pi.sql.models.SqlExercise;
+
+/**
+ * The "SQL Detective Challenge" from the activity sheet, with the query each answer is checked
+ * against. Reference queries never leave the server.
+ */
+@UtilityClass
+public class ExerciseRepo {
+
+  private static final List<SqlExercise> EXERCISES = List.of(
+      SqlExercise.builder()
+          .id("count-students")
+          .title("Headcount")
+          .question("How many students are in the STUDENTS table?")
+          .referenceSql("SELECT COUNT(*) FROM STUDENTS")
+          .build(),
+      SqlExercise.builder()
+          .id("favorite-categories")
+          .title("Kinds of Favorites")
+          .question("What different categories of favorites are there?")
+          .referenceSql("SELECT DISTINCT CATEGORY FROM FAVORITES")
+          .build(),
+      SqlExercise.builder()
+          .id("names-starting-with-z")
+          .title("The Z Team")
+          .question("Find the first and last name of every student whose first name starts with Z.")
+          .referenceSql("""
+           SELECT FIRST_NAME, LAST_NAME FROM STUDENTS
+           WHERE FIRST_NAME LIKE 'Z%'
+           """)
+          .build(),
+      SqlExercise.builder()
+          .id("good-daily")
+          .title("Good Every Day")
+          .question("How many students are good 'Daily'?")
+          .referenceSql("SELECT COUNT(*) FROM STUDENTS WHERE IS_GOOD = 'Daily'")
+          .build(),
+      SqlExercise.builder()
+          .id("longest-catch-phrase")
+          .title("Longest Catch Phrase")
+          .question("Which student has the longest catch phrase? Show first name, last name and "
+              + "the catch phrase.")
+          .referenceSql("""
+           SELECT FIRST_NAME, LAST_NAME, CATCH_PHRASE FROM STUDENTS
+           ORDER BY LENGTH(CATCH_PHRASE) DESC
+           LIMIT 1
+           """)
+          .build(),
+      SqlExercise.builder()
+          .id("most-popular-color")
+          .title("Most Popular Color")
+          .question("Which color is the most popular favorite? Show the color and how many "
+              + "students picked it.")
+          .referenceSql("""
+           SELECT FAVORITE, COUNT(*) AS COUNT FROM FAVORITES
+           WHERE CATEGORY = 'COLOR'
+           GROUP BY FAVORITE
+           ORDER BY COUNT DESC
+           LIMIT 1
+           """)
+          .build(),
+      SqlExercise.builder()
+          .id("puce-fans")
+          .title("Puce Fans")
+          .question("Find the first and last name of every student whose favorite color is Puce.")
+          .referenceSql("""
+           SELECT s.FIRST_NAME, s.LAST_NAME FROM STUDENTS s
+           JOIN FAVORITES f ON s.ID = f.STUDENT_ID
+           WHERE f.CATEGORY = 'COLOR' AND f.FAVORITE = 'Puce'
+           """)
+          .build(),
+      SqlExercise.builder()
+          .id("distinct-colors")
+          .title("Color Palette")
+          .question("How many different favorite colors are there?")
+          .referenceSql("""
+           SELECT COUNT(DISTINCT FAVORITE) FROM FAVORITES
+           WHERE CATEGORY = 'COLOR'
+           """)
+          .build(),
+      SqlExercise.builder()
+          .id("top-phone-brand")
+          .title("Top Phone Brand")
+          .question("Which mobile phone brand (the first word of the phone) is the most popular? "
+              + "Show the brand and its count.")
+          .referenceSql("""
+           SELECT LEFT(FAVORITE, LOCATE(' ', FAVORITE) - 1) AS BRAND, COUNT(*) AS COUNT
+           FROM FAVORITES
+           WHERE CATEGORY = 'MOBILE_PHONE'
+           GROUP BY BRAND
+           ORDER BY COUNT DESC
+           LIMIT 1
+           """)
+          .build(),
+      SqlExercise.builder()
+          .id("samsung-and-red")
+          .title("Samsung and Red")
+          .question("Find the first and last name of every student who has a Samsung phone AND "
+              + "whose favorite color is Red.")
+          .referenceSql("""
+           SELECT s.FIRST_NAME, s.LAST_NAME FROM STUDENTS s
+           WHERE s.ID IN (SELECT STUDENT_ID FROM FAVORITES
+                          WHERE CATEGORY = 'MOBILE_PHONE' AND FAVORITE LIKE 'Samsung%')
+             AND s.ID IN (SELECT STUDENT_ID FROM FAVORITES
+                          WHERE CATEGORY = 'COLOR' AND FAVORITE = 'Red')
+           """)
+          .build()
+  );
+
+  public static List<SqlExercise> getExercises() {
+    return EXERCISES;
+  }
+
+  public static Optional<SqlExercise> find(String id) {
+    return EXERCISES.stream().filter(exercise -> exercise.getId().equals(id)).findFirst();
+  }
+}
@@ -0,0 +1,299 @@
+package org.academy.pi.sql.data;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import org.academy.pi.sql.logging.AppLog;
+import org.academy.pi.sql.models.SqlQueryResult;
+
+/**
+ * Runs a {@link DataRepo}'s statements in {@link ExecutionMode#GROUP_COMMIT} mode.
+ *
+ * <p>Queries run on the calling thread on read-only connections taken from a lock-free pool. H2's
+ * MVCC means they never wait for writers. INSERT, UPDATE, DELETE and MERGE are queued for a single
+ * writer thread. It takes everything waiting (up to {@link #MAX_BATCH}), runs each statement under
+ * its own savepoint on one connection and commits them all at once. A statement that fails is
+ * rolled back to its savepoint, so only its own client sees the error. Writers no longer queue on
+ * each other's row locks, and a burst of writes costs one commit instead of one per student.
+ *
+ * <p>Other statements (DDL, SET, COMMIT, ...) commit the current group and then run on their own
+ * connection exactly as in direct mode, still in queue order. A client's call returns only after
+ * its write is committed, so its next query sees the change, or with an error after
+ * {@code sqllearning.groupCommit.timeoutSeconds} (default 60) when the writer is stuck.
+ */
+class GroupCommitExecutor {
+
+  private static final int MAX_BATCH = 64;
+  private static final long POLL_TIMEOUT_MS = 100;
+  private static final long WRITE_TIMEOUT_MS =
+      TimeUnit.SECONDS.toMillis(Long.getLong("sqllearning.groupCommit.timeoutSeconds", 60));
+
+  private final DataRepo dataRepo;
+  private final ConcurrentLinkedQueue<Connection> readConnections = new ConcurrentLinkedQueue<>();
+  private final BlockingQueue<Write> writes = new LinkedBlockingQueue<>();
+  private final LongAdder commits = new LongAdder();
+  private final LongAdder groupedWrites = new LongAdder();
+  private final Thread writer;
+
+  private volatile boolean running = true;
+  private Connection writeConnection;
+
+  GroupCommitExecutor(DataRepo dataRepo) {
+    this.dataRepo = dataRepo;
+    this.writer = new Thread(this::run, "group-commit-" + dataRepo.getDbName());
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  SqlQueryResult execute(String sql, int maxRows) throws SQLException {
+    String keyword = sql.trim().toUpperCase();
+    if (DataRepo.isQuery(keyword)) {
+      return read(sql, maxRows);
+    }
+    if (!running) {
+      throw shuttingDown();
+    }
+    Write write = new Write(sql, maxRows, isDml(keyword));
+    writes.add(write);
+    try {
+      return write.future.get(WRITE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof SQLException sqlException) {
+        throw sqlException;
+      }
+      throw new SQLException(e.getCause().getMessage(), e.getCause());
+    } catch (TimeoutException e) {
+      // still queued means it never ran, otherwise the writer is stuck on it or the ones before
+      throw new SQLException(writes.remove(write)
+          ? "Timed out waiting for the writer, the statement was not run"
+          : "Timed out waiting for the write to commit, it may still be committed");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted while waiting for the write to commit");
+    }
+  }
+
+  /**
+   * Average number of client statements per commit so far
+   */
+  double averageGroupSize() {
+    long count = commits.sum();
+    return count == 0 ? 0 : (double) groupedWrites.sum() / count;
+  }
+
+  /**
+   * Fail anything still queued, stop the writer and close all connections
+   */
+  void close() {
+    running = false;
+    try {
+      writer.join(TimeUnit.SECONDS.toMillis(5));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    failQueuedWrites();
+    Connection conn;
+    while ((conn = readConnections.poll()) != null) {
+      closeQuietly(conn);
+    }
+  }
+
+  private SqlQueryResult read(String sql, int maxRows) throws SQLException {
+    Connection conn = readConnections.poll();
+    if (conn == null) {
+      conn = dataRepo.getConnection();
+      conn.setReadOnly(true);
+    }
+    try {
+      return dataRepo.runQuery(conn, sql, maxRows);
+    } finally {
+      if (running && !conn.isClosed()) {
+        readConnections.offer(conn);
+      } else {
+        closeQuietly(conn);
+      }
+    }
+  }
+
+  private void run() {
+    List<Write> batch = new ArrayList<>(MAX_BATCH);
+    while (running) {
+      try {
+        Write first = writes.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        writes.drainTo(batch, MAX_BATCH - 1);
+        executeBatch(batch);
+      } catch (InterruptedException e) {
+        break;
+      } catch (Throwable t) {
+        // a bug or an Error must not take the writer down with it, nobody would complete the
+        // futures of the writes still to come
+        failBatch(batch, t);
+      } finally {
+        batch.clear();
+      }
+    }
+    failQueuedWrites();
+    if (writeConnection != null) {
+      closeQuietly(writeConnection);
+    }
+  }
+
+  /**
+   * Fail whatever in {@code batch} isn't complete yet and start over on a fresh connection, since
+   * nothing is known about the state of the current one
+   */
+  private void failBatch(List<Write> batch, Throwable cause) {
+    AppLog.error("group-commit", "Write batch failed on " + dataRepo.getDbName(), cause);
+    SQLException failure = new SQLException("Write failed: " + cause, cause);
+    for (Write write : batch) {
+      write.future.completeExceptionally(failure);
+    }
+    if (writeConnection != null) {
+      try {
+        writeConnection.rollback();
+      } catch (SQLException | RuntimeException e) {
+        // closed below either way
+      }
+      closeQuietly(writeConnection);
+      writeConnection = null;
+    }
+  }
+
+  private void failQueuedWrites() {
+    Write pending;
+    while ((pending = writes.poll()) != null) {
+      pending.future.completeExceptionally(shuttingDown());
+    }
+  }
+
+  private SQLException shuttingDown() {
+    return new SQLException("Database " + dataRepo.getDbName() + " is shutting down");
+  }
+
+  private void executeBatch(List<Write> batch) {
+    List<Write> uncommitted = new ArrayList<>(batch.size());
+    for (Write write : batch) {
+      if (!write.grouped) {
+        commit(uncommitted);
+        runAlone(write);
+        continue;
+      }
+      Savepoint savepoint = null;
+      try {
+        Connection conn = writeConnection();
+        savepoint = conn.setSavepoint();
+        write.result = dataRepo.runQuery(conn, write.sql, write.maxRows);
+        uncommitted.add(write);
+      } catch (SQLException e) {
+        write.future.completeExceptionally(e);
+        if (savepoint != null && !rollbackTo(savepoint, uncommitted)) {
+          uncommitted.clear();
+        }
+      }
+    }
+    commit(uncommitted);
+  }
+
+  private void runAlone(Write write) {
+    try (Connection conn = dataRepo.getConnection()) {
+      write.future.complete(dataRepo.runQuery(conn, write.sql, write.maxRows));
+    } catch (SQLException e) {
+      write.future.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Undo one failed statement, or when even that fails the whole group, whose clients then get
+   * the error too
+   *
+   * @return false when the group was rolled back
+   */
+  private boolean rollbackTo(Savepoint savepoint, List<Write> uncommitted) {
+    try {
+      writeConnection.rollback(savepoint);
+      return true;
+    } catch (SQLException e) {
+      abort(uncommitted, e);
+      return false;
+    }
+  }
+
+  private void commit(List<Write> uncommitted) {
+    if (uncommitted.isEmpty()) {
+      return;
+    }
+    try {
+      writeConnection.commit();
+      commits.increment();
+      groupedWrites.add(uncommitted.size());
+      for (Write write : uncommitted) {
+        write.future.complete(write.result);
+      }
+    } catch (SQLException e) {
+      abort(uncommitted, e);
+    }
+    uncommitted.clear();
+  }
+
+  private void abort(List<Write> uncommitted, SQLException cause) {
+    for (Write write : uncommitted) {
+      write.future.completeExceptionally(cause);
+    }
+    try {
+      writeConnection.rollback();
+    } catch (SQLException e) {
+      closeQuietly(writeConnection);
+      writeConnection = null;
+    }
+  }
+
+  private Connection writeConnection() throws SQLException {
+    if (writeConnection == null || writeConnection.isClosed()) {
+      writeConnection = dataRepo.getConnection();
+      writeConnection.setAutoCommit(false);
+    }
+    return writeConnection;
+  }
+
+  private static boolean isDml(String keyword) {
+    return keyword.startsWith("INSERT") || keyword.startsWith("UPDATE")
+        || keyword.startsWith("DELETE") || keyword.startsWith("MERGE");
+  }
+
+  private static void closeQuietly(Connection conn) {
+    try {
+      conn.close();
+    } catch (SQLException ignored) {
+      // already broken
+    }
+  }
+
+  private static class Write {
+
+    private final String sql;
+    private final int maxRows;
+    private final boolean grouped;
+    private final CompletableFuture<SqlQueryResult> future = new CompletableFuture<>();
+    private SqlQueryResult result;
+
+    private Write(String sql, int maxRows, boolean grouped) {
+      this.sql = sql;
+      this.maxRows = maxRows;
+      this.grouped = grouped;
+    }
+  }
+}
@@ -0,0 +1,602 @@
+package org.academy.pi.sql.data;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A live query simple enough to keep up to date from row changes alone: one table, a
+ * {@code COUNT(*)} grouped by plain columns, optionally filtered by {@code col = literal},
+ * {@code col <> literal} or {@code col IS [NOT] NULL} conditions joined with AND, and ordered or
+ * limited. For example
+ * <pre>
+ *   SELECT F.FAVORITE AS COLOR, COUNT(*) AS STUDENT_COUNT
+ *   FROM FAVORITES F
+ *   WHERE F.CATEGORY = 'COLOR'
+ *   GROUP BY F.FAVORITE
+ *   ORDER BY STUDENT_COUNT DESC
+ *   LIMIT 10
+ * </pre>
+ * Anything else (joins, HAVING, other aggregates, quoted names) doesn't parse and is re-evaluated
+ * instead. Grouped and filtered columns must be text, whole numbers or booleans so values from a
+ * trigger compare the same way they do in H2.
+ */
+final class GroupCountPlan {
+
+  private static final Set<Integer> SUPPORTED_TYPES = Set.of(Types.CHAR, Types.VARCHAR,
+      Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR, Types.TINYINT, Types.SMALLINT,
+      Types.INTEGER, Types.BIGINT, Types.BOOLEAN);
+  private static final String COUNT_LABEL = "COUNT(*)";
+
+  private enum Op { EQUALS, NOT_EQUALS, IS_NULL, IS_NOT_NULL }
+
+  /**
+   * One WHERE condition, {@code literal} is null for the IS [NOT] NULL forms
+   */
+  private record Condition(String column, Op op, Token literal) {
+
+  }
+
+  private record Order(int column, boolean descending) {
+
+  }
+
+  private final String table;
+  private final List<String> groupColumns;
+  private final List<String> labels;
+  // index into groupColumns for each output column, -1 for the count
+  private final int[] outputs;
+  private final List<Condition> conditions;
+  private final List<Order> orders;
+  private final long limit;
+
+  private GroupCountPlan(String table, List<String> groupColumns, List<String> labels,
+      int[] outputs, List<Condition> conditions, List<Order> orders, long limit) {
+    this.table = table;
+    this.groupColumns = groupColumns;
+    this.labels = labels;
+    this.outputs = outputs;
+    this.conditions = conditions;
+    this.orders = orders;
+    this.limit = limit;
+  }
+
+  String getTable() {
+    return table;
+  }
+
+  List<String> getLabels() {
+    return labels;
+  }
+
+  /**
+   * Output columns holding group values, which together identify a row
+   */
+  List<Integer> keyColumns() {
+    List<Integer> keys = new ArrayList<>();
+    for (int i = 0; i < outputs.length; i++) {
+      if (outputs[i] >= 0) {
+        keys.add(i);
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * A query with the same groups and filter but no ordering or limit, so every group is counted
+   */
+  String groupSql() {
+    StringBuilder sql = new StringBuilder("SELECT ");
+    for (String column : groupColumns) {
+      sql.append(column).append(", ");
+    }
+    sql.append("COUNT(*) FROM ").append(table);
+    for (int i = 0; i < conditions.size(); i++) {
+      Condition condition = conditions.get(i);
+      sql.append(i == 0 ? " WHERE " : " AND ").append(condition.column()).append(switch (
+          condition.op()) {
+        case EQUALS -> " = " + condition.literal().text();
+        case NOT_EQUALS -> " <> " + condition.literal().text();
+        case IS_NULL -> " IS NULL";
+        case IS_NOT_NULL -> " IS NOT NULL";
+      });
+    }
+    if (!groupColumns.isEmpty()) {
+      sql.append(" GROUP BY ").append(String.join(", ", groupColumns));
+    }
+    return sql.toString();
+  }
+
+  /**
+   * True when every grouped and filtered column exists and has a type a trigger row can be
+   * compared on, and every literal fits its column
+   */
+  boolean supportedBy(Connection conn) throws SQLException {
+    Map<String, Integer> types = new HashMap<>();
+    DatabaseMetaData metaData = conn.getMetaData();
+    try (ResultSet rs = metaData.getColumns(null, "PUBLIC", table, null)) {
+      while (rs.next()) {
+        types.put(rs.getString("COLUMN_NAME"), rs.getInt("DATA_TYPE"));
+      }
+    }
+    for (String column : groupColumns) {
+      if (!supported(types.get(column))) {
+        return false;
+      }
+    }
+    for (Condition condition : conditions) {
+      Integer type = types.get(condition.column());
+      if (!supported(type)) {
+        return false;
+      }
+      if (condition.literal() != null && condition.literal().kind() != kindOf(type)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // null for a column the table doesn't have, which Set.of() can't be asked about
+  private static boolean supported(Integer type) {
+    return type != null && SUPPORTED_TYPES.contains(type);
+  }
+
+  private static Kind kindOf(int type) {
+    return switch (type) {
+      case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT -> Kind.NUMBER;
+      case Types.BOOLEAN -> Kind.BOOLEAN;
+      default -> Kind.STRING;
+    };
+  }
+
+  /**
+   * Whether a changed row, as column name to value, passes the WHERE conditions
+   */
+  boolean matches(Map<String, Object> row) {
+    for (Condition condition : conditions) {
+      Object value = normalize(row.get(condition.column()));
+      boolean passes = switch (condition.op()) {
+        case IS_NULL -> value == null;
+        case IS_NOT_NULL -> value != null;
+        case EQUALS -> value != null && value.equals(condition.literal().value());
+        case NOT_EQUALS -> value != null && !value.equals(condition.literal().value());
+      };
+      if (!passes) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The group a changed row counts towards
+   */
+  List<Object> key(Map<String, Object> row) {
+    Object[] key = new Object[groupColumns.size()];
+    for (int i = 0; i < key.length; i++) {
+      key[i] = normalize(row.get(groupColumns.get(i)));
+    }
+    return Arrays.asList(key);
+  }
+
+  /**
+   * The group a row of {@link #groupSql()} belongs to, its count is the last column
+   */
+  static List<Object> key(List<Object> groupRow) {
+    Object[] key = new Object[groupRow.size() - 1];
+    for (int i = 0; i < key.length; i++) {
+      key[i] = normalize(groupRow.get(i));
+    }
+    return Arrays.asList(key);
+  }
+
+  /**
+   * Build what the original query would return from the counts of every group: output columns in
+   * SELECT order, sorted by ORDER BY (then by group, so ties always come out the same way) and
+   * cut at the LIMIT
+   */
+  List<List<Object>> result(Map<List<Object>, Long> counts) {
+    List<List<Object>> rows = new ArrayList<>();
+    if (groupColumns.isEmpty()) {
+      rows.add(row(List.of(), counts.getOrDefault(List.of(), 0L)));
+    } else {
+      counts.forEach((key, count) -> {
+        if (count > 0) {
+          rows.add(row(key, count));
+        }
+      });
+    }
+
+    Comparator<List<Object>> comparator = (a, b) -> 0;
+    for (Order order : orders) {
+      Comparator<List<Object>> byColumn = (a, b) ->
+          compareValues(a.get(order.column()), b.get(order.column()));
+      comparator = comparator.thenComparing(order.descending() ? byColumn.reversed() : byColumn);
+    }
+    for (int column : keyColumns()) {
+      comparator = comparator.thenComparing((a, b) -> compareValues(a.get(column), b.get(column)));
+    }
+    rows.sort(comparator);
+    return limit >= 0 && rows.size() > limit ? new ArrayList<>(rows.subList(0, (int) limit)) : rows;
+  }
+
+  private List<Object> row(List<Object> key, long count) {
+    Object[] row = new Object[outputs.length];
+    for (int i = 0; i < outputs.length; i++) {
+      row[i] = outputs[i] < 0 ? count : key.get(outputs[i]);
+    }
+    return Arrays.asList(row);
+  }
+
+  /**
+   * H2's default ordering: NULL before everything else, numbers by value, the rest as text
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static int compareValues(Object a, Object b) {
+    if (a == null || b == null) {
+      return a == null ? (b == null ? 0 : -1) : 1;
+    }
+    if (a instanceof Number x && b instanceof Number y) {
+      return Long.compare(x.longValue(), y.longValue());
+    }
+    if (a.getClass() == b.getClass() && a instanceof Comparable comparable) {
+      return comparable.compareTo(b);
+    }
+    return a.toString().compareTo(b.toString());
+  }
+
+  /**
+   * Make values read from H2 and from a trigger's JSON compare equal: whole numbers as Long,
+   * everything else unchanged
+   */
+  static Object normalize(Object value) {
+    if (value instanceof Number number && !(value instanceof BigDecimal)) {
+      return number.longValue();
+    }
+    return value;
+  }
+
+  /**
+   * Plan for {@code sql}, or empty when it isn't a simple grouped count
+   */
+  static Optional<GroupCountPlan> parse(String sql) {
+    try {
+      return Optional.of(new Parser(tokenize(sql)).parse());
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+
+  private enum Kind { WORD, STRING, NUMBER, BOOLEAN, SYMBOL, END }
+
+  private record Token(Kind kind, String text) {
+
+    /**
+     * The literal's value as it would come out of {@link #normalize}
+     */
+    Object value() {
+      return switch (kind) {
+        case STRING -> text.substring(1, text.length() - 1).replace("''", "'");
+        case NUMBER -> Long.parseLong(text);
+        case BOOLEAN -> Boolean.parseBoolean(text);
+        default -> null;
+      };
+    }
+
+    boolean is(String word) {
+      return (kind == Kind.WORD || kind == Kind.SYMBOL) && text.equals(word);
+    }
+  }
+
+  private static List<Token> tokenize(String sql) {
+    List<Token> tokens = new ArrayList<>();
+    int i = 0;
+    while (i < sql.length()) {
+      char c = sql.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (Character.isLetter(c) || c == '_') {
+        int start = i;
+        while (i < sql.length() && (Character.isLetterOrDigit(sql.charAt(i))
+            || sql.charAt(i) == '_')) {
+          i++;
+        }
+        String word = sql.substring(start, i).toUpperCase();
+        tokens.add(new Token(word.equals("TRUE") || word.equals("FALSE")
+            ? Kind.BOOLEAN : Kind.WORD, word));
+      } else if (Character.isDigit(c) || (c == '-' && i + 1 < sql.length()
+          && Character.isDigit(sql.charAt(i + 1)))) {
+        int start = i++;
+        while (i < sql.length() && Character.isDigit(sql.charAt(i))) {
+          i++;
+        }
+        if (i < sql.length() && (sql.charAt(i) == '.' || Character.isLetter(sql.charAt(i)))) {
+          throw new IllegalArgumentException("Only whole numbers");
+        }
+        String number = sql.substring(start, i);
+        // checked here rather than when a row is matched on the engine thread; H2 accepts wider
+        // literals, those queries are simply re-run
+        Long.parseLong(number);
+        tokens.add(new Token(Kind.NUMBER, number));
+      } else if (c == '\'') {
+        int start = i++;
+        while (true) {
+          if (i >= sql.length()) {
+            throw new IllegalArgumentException("Unterminated string");
+          }
+          if (sql.charAt(i) == '\'') {
+            if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+              i += 2;
+              continue;
+            }
+            break;
+          }
+          i++;
+        }
+        tokens.add(new Token(Kind.STRING, sql.substring(start, ++i)));
+      } else if ((c == '<' || c == '!') && i + 1 < sql.length() && sql.charAt(i + 1) == '>'
+          || c == '!' && i + 1 < sql.length() && sql.charAt(i + 1) == '=') {
+        tokens.add(new Token(Kind.SYMBOL, "<>"));
+        i += 2;
+      } else if ("(),.*=;".indexOf(c) >= 0) {
+        tokens.add(new Token(Kind.SYMBOL, String.valueOf(c)));
+        i++;
+      } else {
+        // quoted names, comments, other operators
+        throw new IllegalArgumentException("Unsupported: " + c);
+      }
+    }
+    tokens.add(new Token(Kind.END, ""));
+    return tokens;
+  }
+
+  private static class Parser {
+
+    private static final Set<String> RESERVED = Set.of("SELECT", "FROM", "WHERE", "GROUP", "BY",
+        "ORDER", "LIMIT", "AND", "OR", "NOT", "IS", "NULL", "AS", "ASC", "DESC", "HAVING", "JOIN",
+        "ON", "COUNT", "DISTINCT", "UNION", "OFFSET", "FETCH", "LEFT", "INNER");
+
+    private final List<Token> tokens;
+    private int position;
+    private String table;
+    private String alias;
+    // table qualifiers used in the SELECT list, checked once FROM has been read
+    private final List<String> qualifiers = new ArrayList<>();
+
+    private Parser(List<Token> tokens) {
+      this.tokens = tokens;
+    }
+
+    private record Item(String column, String label) {
+
+    }
+
+    GroupCountPlan parse() {
+      expect("SELECT");
+      List<Item> items = new ArrayList<>();
+      do {
+        items.add(item());
+      } while (accept(","));
+
+      expect("FROM");
+      table = name();
+      if (accept("AS") || peek().kind() == Kind.WORD && !RESERVED.contains(peek().text())) {
+        alias = name();
+      }
+      for (String qualifier : qualifiers) {
+        if (!qualifier.equals(table) && !qualifier.equals(alias)) {
+          throw new IllegalArgumentException("Unknown table " + qualifier);
+        }
+      }
+
+      List<Condition> conditions = new ArrayList<>();
+      if (accept("WHERE")) {
+        do {
+          conditions.add(condition());
+        } while (accept("AND"));
+      }
+
+      List<String> groupColumns = new ArrayList<>();
+      if (accept("GROUP")) {
+        expect("BY");
+        do {
+          groupColumns.add(column());
+        } while (accept(","));
+      }
+
+      // every plain column selected must be grouped on, and the other way round
+      int counts = 0;
+      int[] outputs = new int[items.size()];
+      List<String> labels = new ArrayList<>();
+      List<String> selected = new ArrayList<>();
+      for (int i = 0; i < items.size(); i++) {
+        Item item = items.get(i);
+        labels.add(item.label());
+        if (item.column() == null) {
+          counts++;
+          outputs[i] = -1;
+        } else {
+          outputs[i] = groupColumns.indexOf(item.column());
+          selected.add(item.column());
+          if (outputs[i] < 0) {
+            throw new IllegalArgumentException("Column not grouped: " + item.column());
+          }
+        }
+      }
+      if (counts != 1 || !selected.containsAll(groupColumns)) {
+        throw new IllegalArgumentException("Needs one COUNT(*) and every grouped column");
+      }
+
+      List<Order> orders = new ArrayList<>();
+      if (accept("ORDER")) {
+        expect("BY");
+        do {
+          int column = orderColumn(items);
+          boolean descending = accept("DESC");
+          if (!descending) {
+            accept("ASC");
+          }
+          orders.add(new Order(column, descending));
+        } while (accept(","));
+      }
+
+      long limit = -1;
+      if (accept("LIMIT")) {
+        Token count = next();
+        if (count.kind() != Kind.NUMBER || count.text().startsWith("-")) {
+          throw new IllegalArgumentException("LIMIT needs a number");
+        }
+        limit = Long.parseLong(count.text());
+      }
+      accept(";");
+      if (peek().kind() != Kind.END) {
+        throw new IllegalArgumentException("Unexpected " + peek().text());
+      }
+      return new GroupCountPlan(table, List.copyOf(groupColumns), List.copyOf(labels), outputs,
+          List.copyOf(conditions), List.copyOf(orders), limit);
+    }
+
+    private Item item() {
+      String column = null;
+      String label;
+      if (accept("COUNT")) {
+        expect("(");
+        expect("*");
+        expect(")");
+        label = COUNT_LABEL;
+      } else {
+        column = qualifiedColumn();
+        label = column;
+      }
+      if (accept("AS") || peek().kind() == Kind.WORD && !RESERVED.contains(peek().text())) {
+        label = name();
+      }
+      return new Item(column, label);
+    }
+
+    private Condition condition() {
+      String column = column();
+      if (accept("IS")) {
+        boolean not = accept("NOT");
+        expect("NULL");
+        return new Condition(column, not ? Op.IS_NOT_NULL : Op.IS_NULL, null);
+      }
+      Op op;
+      if (accept("=")) {
+        op = Op.EQUALS;
+      } else if (accept("<>")) {
+        op = Op.NOT_EQUALS;
+      } else {
+        throw new IllegalArgumentException("Unsupported condition");
+      }
+      Token literal = next();
+      if (literal.kind() != Kind.STRING && literal.kind() != Kind.NUMBER
+          && literal.kind() != Kind.BOOLEAN) {
+        throw new IllegalArgumentException("Conditions compare with a literal");
+      }
+      return new Condition(column, op, literal);
+    }
+
+    /**
+     * ORDER BY an output label, a selected column, COUNT(*) or a 1-based position
+     */
+    private int orderColumn(List<Item> items) {
+      if (peek().kind() == Kind.NUMBER) {
+        int position = Integer.parseInt(next().text());
+        if (position < 1 || position > items.size()) {
+          throw new IllegalArgumentException("ORDER BY position out of range");
+        }
+        return position - 1;
+      }
+      String target;
+      if (accept("COUNT")) {
+        expect("(");
+        expect("*");
+        expect(")");
+        target = COUNT_LABEL;
+      } else {
+        target = qualifiedColumn();
+      }
+      for (int i = 0; i < items.size(); i++) {
+        Item item = items.get(i);
+        if (target.equals(item.label()) || target.equals(item.column())
+            || target.equals(COUNT_LABEL) && item.column() == null) {
+          return i;
+        }
+      }
+      throw new IllegalArgumentException("ORDER BY something not selected");
+    }
+
+    /**
+     * A column name, possibly qualified by a table or alias that isn't known yet
+     */
+    private String qualifiedColumn() {
+      String first = name();
+      if (accept(".")) {
+        String column = name();
+        qualifiers.add(first);
+        return column;
+      }
+      return first;
+    }
+
+    /**
+     * A column after FROM, where any qualifier must be the table or its alias
+     */
+    private String column() {
+      String first = name();
+      if (accept(".")) {
+        if (!first.equals(table) && !first.equals(alias)) {
+          throw new IllegalArgumentException("Unknown table " + first);
+        }
+        return name();
+      }
+      return first;
+    }
+
+    private String name() {
+      Token token = next();
+      if (token.kind() != Kind.WORD || RESERVED.contains(token.text())) {
+        throw new IllegalArgumentException("Expected a name");
+      }
+      return token.text();
+    }
+
+    private Token peek() {
+      return tokens.get(position);
+    }
+
+    private Token next() {
+      Token token = tokens.get(position);
+      if (token.kind() != Kind.END) {
+        position++;
+      }
+      return token;
+    }
+
+    private boolean accept(String word) {
+      if (peek().is(word)) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    private void expect(String word) {
+      if (!accept(word)) {
+        throw new IllegalArgumentException("Expected " + word);
+      }
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package org.academy.pi.sql.data;
+
+/**
+ * Where a live query's updates go, usually a server-sent event stream
+ */
+public interface LiveListener {
+
+  /**
+   * Queue one event, returning false once the listener is gone
+   */
+  boolean send(String event, String data);
+
+  /**
+   * Check the listener is still there, returning false once it is gone
+   */
+  boolean ping();
+
+  void close();
+}
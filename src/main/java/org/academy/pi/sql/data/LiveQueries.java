@@ -0,0 +1,509 @@
+package org.academy.pi.sql.data;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import org.academy.pi.sql.logging.AppLog;
+import org.academy.pi.sql.models.ApiResponse;
+import org.academy.pi.sql.models.ApiResponseType;
+import org.academy.pi.sql.models.SqlLiveDelta;
+import org.academy.pi.sql.models.SqlTableInfo;
+
+/**
+ * Live queries on one database: a dashboard subscribes to a SELECT once and is pushed what
+ * changed instead of polling it.
+ *
+ * <p>Tables a live query reads get a {@link ChangeTrigger} that logs each changed row to
+ * {@code LIVE.CHANGES} as part of the writer's transaction. A single engine thread wakes up shortly
+ * after a change, reads the log in a snapshot transaction and hands each row only to the
+ * subscriptions on that table. Simple {@code COUNT(*) ... GROUP BY} queries (see
+ * {@link GroupCountPlan}) apply the row to their counts and send a delta, anything else is run
+ * again and sent whole. Every subscription is re-read from scratch every
+ * {@code sqllearning.live.reconcileSeconds} to repair anything the log missed, such as a change
+ * made while a table was only just being watched. If a student drops the log, triggers stop
+ * writing to it and the engine creates it again, re-reads every subscription and tells listeners
+ * with a {@code notice} event.
+ *
+ * <p>Subscriptions are shared by everyone watching the same SQL, so a class projecting the same
+ * dashboard costs one query.
+ */
+public class LiveQueries {
+
+  private static final long DEBOUNCE_MS = Long.getLong("sqllearning.live.debounceMs", 100);
+  private static final long RECONCILE_MS =
+      Long.getLong("sqllearning.live.reconcileSeconds", 30) * 1000;
+  private static final long HEARTBEAT_MS = 15_000;
+  // how often to look again for logged changes whose transaction hasn't committed yet, and for
+  // how long before assuming it rolled back
+  private static final long PENDING_POLL_MS = 250;
+  private static final long PENDING_GIVE_UP_MS = 5_000;
+
+  private static final String TRIGGER_CLASS = ChangeTrigger.class.getName();
+  private static final Map<String, LiveQueries> ENGINES = new ConcurrentHashMap<>();
+
+  private final DataRepo dataRepo;
+  private final ObjectMapper objectMapper;
+  // guarded by this
+  private final Map<String, LiveSubscription> subscriptions = new LinkedHashMap<>();
+  private final Map<String, Integer> watchedTables = new ConcurrentHashMap<>();
+  // changes logged by triggers and read back by the engine, the difference is still uncommitted
+  private final AtomicLong logged = new AtomicLong();
+  private long drained;
+  private final AtomicBoolean logLost = new AtomicBoolean();
+  private final Object wakeUp = new Object();
+  private boolean signalled;
+  private volatile boolean closed;
+  private final Thread engine;
+
+  private LiveQueries(DataRepo dataRepo, ObjectMapper objectMapper) throws SQLException {
+    this.dataRepo = dataRepo;
+    this.objectMapper = objectMapper;
+    try (Connection conn = dataRepo.getConnection()) {
+      createLog(conn);
+    }
+    engine = new Thread(this::run, "live-" + dataRepo.getDbName());
+    engine.setDaemon(true);
+    engine.start();
+  }
+
+  private static void createLog(Connection conn) throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE SCHEMA IF NOT EXISTS LIVE");
+      stmt.execute("""
+          CREATE TABLE IF NOT EXISTS LIVE.CHANGES (
+            SEQ BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+            TABLE_NAME VARCHAR(128) NOT NULL,
+            OLD_ROW CHARACTER VARYING,
+            NEW_ROW CHARACTER VARYING
+          )""");
+    }
+  }
+
+  /**
+   * The live queries of {@code dataRepo}, set up the first time they are asked for
+   */
+  public static synchronized LiveQueries of(DataRepo dataRepo, ObjectMapper objectMapper)
+      throws SQLException {
+    String key = dataRepo.getDbName().toUpperCase();
+    LiveQueries live = ENGINES.get(key);
+    if (live == null) {
+      live = new LiveQueries(dataRepo, objectMapper);
+      ENGINES.put(key, live);
+      dataRepo.onClose(live::close);
+    }
+    return live;
+  }
+
+  /**
+   * Live queries of the database H2 reports as {@code dbName}, null when it has none
+   */
+  static LiveQueries find(String dbName) {
+    return ENGINES.get(dbName);
+  }
+
+  /**
+   * Stop every engine and end all streams, for server shutdown
+   */
+  public static void closeAll() {
+    List.copyOf(ENGINES.values()).forEach(LiveQueries::close);
+  }
+
+  boolean isWatching(String table) {
+    return watchedTables.containsKey(table);
+  }
+
+  /**
+   * Called by triggers after logging a change
+   */
+  void signal() {
+    logged.incrementAndGet();
+    synchronized (wakeUp) {
+      signalled = true;
+      wakeUp.notifyAll();
+    }
+  }
+
+  /**
+   * Called by triggers that found the change log missing
+   */
+  void logLost() {
+    logLost.set(true);
+    synchronized (wakeUp) {
+      signalled = true;
+      wakeUp.notifyAll();
+    }
+  }
+
+  /**
+   * Start sending {@code listener} the results of {@code sql}: a {@code snapshot} event with the
+   * whole result straight away, then a {@code delta} or new {@code snapshot} whenever it changes.
+   *
+   * @throws SQLException when {@code sql} isn't a valid SELECT on at least one table, before
+   *     anything is sent to the listener
+   */
+  public void subscribe(String sql, LiveListener listener) throws SQLException {
+    String trimmed = sql.trim();
+    if (!trimmed.toUpperCase().startsWith("SELECT")) {
+      throw new SQLException("Live queries must be a SELECT");
+    }
+    Set<String> tables = referencedTables(trimmed);
+    if (tables.isEmpty()) {
+      throw new SQLException("Live queries must read at least one table");
+    }
+
+    List<String> columns = new ArrayList<>();
+    Optional<GroupCountPlan> plan = GroupCountPlan.parse(trimmed);
+    try (Connection conn = dataRepo.getConnection()) {
+      try (PreparedStatement stmt = conn.prepareStatement(trimmed)) {
+        ResultSetMetaData metaData = stmt.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+          columns.add(metaData.getColumnName(i));
+        }
+      }
+      if (plan.isPresent() && (!tables.contains(plan.get().getTable())
+          || !plan.get().supportedBy(conn))) {
+        plan = Optional.empty();
+      }
+      try (Statement stmt = conn.createStatement()) {
+        // again every time, a student may have dropped and recreated the table
+        for (String table : tables) {
+          stmt.execute("CREATE TRIGGER IF NOT EXISTS %s AFTER INSERT, UPDATE, DELETE ON %s"
+              .formatted(quote("LIVE_" + table), quote(table))
+              + " FOR EACH ROW CALL '" + TRIGGER_CLASS + "'");
+        }
+      }
+    }
+
+    synchronized (this) {
+      LiveSubscription subscription = subscriptions.get(trimmed);
+      if (subscription == null) {
+        subscription = new LiveSubscription(trimmed, plan.orElse(null), tables, columns);
+        subscriptions.put(trimmed, subscription);
+        subscription.getTables().forEach(table -> watchedTables.merge(table, 1, Integer::sum));
+      }
+      subscription.join(listener);
+    }
+    synchronized (wakeUp) {
+      signalled = true;
+      wakeUp.notifyAll();
+    }
+  }
+
+  private static String quote(String table) {
+    return "\"" + table.replace("\"", "\"\"") + "\"";
+  }
+
+  /**
+   * Tables (not views) of the PUBLIC schema named anywhere in {@code sql}
+   */
+  private Set<String> referencedTables(String sql) throws SQLException {
+    String upper = sql.toUpperCase();
+    Set<String> tables = new LinkedHashSet<>();
+    for (SqlTableInfo table : dataRepo.getSchemaCatalog().snapshot().schema().getTables()) {
+      if (!"VIEW".equals(table.getType()) && Pattern.compile(
+          "(?<![A-Z0-9_])" + Pattern.quote(table.getName()) + "(?![A-Z0-9_])").matcher(upper)
+          .find()) {
+        tables.add(table.getName());
+      }
+    }
+    return tables;
+  }
+
+  private void run() {
+    long lastReconcile = System.currentTimeMillis();
+    long lastHeartbeat = lastReconcile;
+    long pendingSince = 0;
+    while (!closed) {
+      try {
+        boolean woken;
+        synchronized (wakeUp) {
+          long timeout = pendingSince > 0 ? PENDING_POLL_MS : HEARTBEAT_MS;
+          if (!signalled) {
+            wakeUp.wait(timeout);
+          }
+          woken = signalled;
+          signalled = false;
+        }
+        if (closed) {
+          break;
+        }
+        if (woken) {
+          // let a burst of inserts land so they go out together
+          Thread.sleep(DEBOUNCE_MS);
+        }
+
+        long now = System.currentTimeMillis();
+        boolean reconcile = now - lastReconcile >= RECONCILE_MS;
+        if (reconcile) {
+          lastReconcile = now;
+        }
+        if (woken || reconcile || pendingSince > 0) {
+          cycle(reconcile);
+        }
+
+        if (logged.get() > drained) {
+          if (pendingSince == 0) {
+            pendingSince = now;
+          } else if (now - pendingSince > PENDING_GIVE_UP_MS) {
+            // those transactions rolled back, their log rows are gone with them
+            drained = logged.get();
+            pendingSince = 0;
+          }
+        } else {
+          pendingSince = 0;
+        }
+
+        if (now - lastHeartbeat >= HEARTBEAT_MS) {
+          lastHeartbeat = now;
+          heartbeat();
+        }
+      } catch (InterruptedException e) {
+        break;
+      } catch (Exception e) {
+        AppLog.error("live", "Live query cycle failed on " + dataRepo.getDbName(), e);
+      }
+    }
+  }
+
+  /**
+   * Read the change log and bring every subscription up to date. Everything is read in one
+   * snapshot transaction, so a subscription loaded here and the changes applied to the others
+   * agree on which writes have happened.
+   */
+  private void cycle(boolean reconcile) throws SQLException {
+    boolean repair = logLost.getAndSet(false);
+    if (repair) {
+      try (Connection conn = dataRepo.getConnection()) {
+        createLog(conn);
+      }
+      // whatever was logged before the drop is gone, start over from the data itself
+      drained = logged.get();
+      reconcile = true;
+      AppLog.info("live", "Recreated the live change log on " + dataRepo.getDbName());
+    }
+    List<LiveSubscription> current;
+    synchronized (this) {
+      current = List.copyOf(subscriptions.values());
+    }
+    Set<LiveSubscription> failed = new HashSet<>();
+    Map<LiveSubscription, String> errors = new LinkedHashMap<>();
+    long read = 0;
+
+    try (Connection conn = dataRepo.getConnection()) {
+      conn.setAutoCommit(false);
+      try (Statement stmt = conn.createStatement()) {
+        stmt.execute("SET SESSION CHARACTERISTICS AS TRANSACTION ISOLATION LEVEL SNAPSHOT");
+      }
+
+      // subscriptions loaded now already see every logged change
+      List<LiveSubscription> following = new ArrayList<>();
+      for (LiveSubscription subscription : current) {
+        if (subscription.isLoaded() && !reconcile) {
+          following.add(subscription);
+          continue;
+        }
+        try {
+          subscription.load(dataRepo, conn);
+        } catch (SQLException e) {
+          errors.put(subscription, e.getMessage());
+        } catch (RuntimeException e) {
+          errors.put(subscription, failure(subscription, e));
+        }
+      }
+
+      List<Long> seqs = new ArrayList<>();
+      try (Statement stmt = conn.createStatement();
+          ResultSet rs = executeLogQuery(stmt)) {
+        if (rs == null) {
+          return;
+        }
+        while (rs.next()) {
+          seqs.add(rs.getLong(1));
+          String table = rs.getString(2);
+          Map<String, Object> oldRow = null;
+          Map<String, Object> newRow = null;
+          boolean parsed = false;
+          for (LiveSubscription subscription : following) {
+            if (!subscription.getTables().contains(table) || errors.containsKey(subscription)) {
+              continue;
+            }
+            if (!parsed) {
+              oldRow = parseRow(rs.getString(3));
+              newRow = parseRow(rs.getString(4));
+              parsed = true;
+            }
+            // one broken subscription mustn't keep the log from draining for the others
+            try {
+              subscription.apply(table, oldRow, newRow);
+            } catch (RuntimeException e) {
+              errors.put(subscription, failure(subscription, e));
+            }
+          }
+        }
+      }
+      read = seqs.size();
+
+      for (LiveSubscription subscription : following) {
+        if (subscription.needsReload() && !errors.containsKey(subscription)) {
+          try {
+            subscription.load(dataRepo, conn);
+          } catch (SQLException e) {
+            errors.put(subscription, e.getMessage());
+          } catch (RuntimeException e) {
+            errors.put(subscription, failure(subscription, e));
+          }
+        }
+      }
+
+      if (!seqs.isEmpty()) {
+        try (PreparedStatement stmt = conn.prepareStatement(
+            "DELETE FROM LIVE.CHANGES WHERE SEQ = ANY(?)")) {
+          stmt.setObject(1, seqs.toArray(new Long[0]));
+          stmt.executeUpdate();
+        }
+      }
+      conn.commit();
+    }
+    drained += read;
+
+    for (Map.Entry<LiveSubscription, String> error : errors.entrySet()) {
+      LiveSubscription subscription = error.getKey();
+      String data = toJson(ApiResponse.error(error.getValue()));
+      subscription.allListeners().forEach(listener -> listener.send("error", data));
+      failed.add(subscription);
+    }
+    String notice = repair ? toJson(ApiResponse.error(
+        "Someone dropped the live change log, results were re-read from scratch")) : null;
+    for (LiveSubscription subscription : current) {
+      if (failed.contains(subscription)) {
+        continue;
+      }
+      if (notice != null) {
+        subscription.publish("notice", notice);
+      }
+      try {
+        Object change = subscription.update();
+        if (change != null) {
+          subscription.publish(change instanceof SqlLiveDelta ? "delta" : "snapshot",
+              toJson(ApiResponse.success(ApiResponseType.LIVE, change)));
+        }
+        if (subscription.hasPending() && subscription.isLoaded()) {
+          subscription.welcome(toJson(ApiResponse.success(ApiResponseType.LIVE,
+              subscription.snapshot())));
+        }
+      } catch (RuntimeException e) {
+        String data = toJson(ApiResponse.error(failure(subscription, e)));
+        subscription.allListeners().forEach(listener -> listener.send("error", data));
+        failed.add(subscription);
+      }
+    }
+    failed.forEach(LiveSubscription::close);
+    removeUnwatched(failed);
+  }
+
+  /**
+   * Log a bug in keeping one subscription up to date and describe it for its listeners, who are
+   * then disconnected
+   */
+  private String failure(LiveSubscription subscription, RuntimeException e) {
+    AppLog.error("live", "Live query failed on " + dataRepo.getDbName() + ": "
+        + subscription.getSql(), e);
+    return "Live query failed: " + e.getMessage();
+  }
+
+  /**
+   * Read the change log, or null when it's gone and has been flagged for repair
+   */
+  private ResultSet executeLogQuery(Statement stmt) throws SQLException {
+    try {
+      return stmt.executeQuery(
+          "SELECT SEQ, TABLE_NAME, OLD_ROW, NEW_ROW FROM LIVE.CHANGES ORDER BY SEQ");
+    } catch (SQLException e) {
+      if (!DataRepo.isMissingTable(e)) {
+        throw e;
+      }
+      logLost();
+      return null;
+    }
+  }
+
+  private Map<String, Object> parseRow(String json) {
+    if (json == null) {
+      return null;
+    }
+    try {
+      return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {
+      });
+    } catch (JsonProcessingException e) {
+      return null;
+    }
+  }
+
+  private String toJson(Object value) {
+    try {
+      return objectMapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Ping every listener so closed streams are noticed even when nothing changes
+   */
+  private void heartbeat() {
+    List<LiveSubscription> current;
+    synchronized (this) {
+      current = List.copyOf(subscriptions.values());
+    }
+    current.forEach(LiveSubscription::ping);
+    removeUnwatched(Set.of());
+  }
+
+  /**
+   * Forget subscriptions nobody listens to any more, and stop logging their tables' changes
+   */
+  private synchronized void removeUnwatched(Set<LiveSubscription> failed) {
+    subscriptions.values().removeIf(subscription -> {
+      if (!failed.contains(subscription) && subscription.hasListeners()) {
+        return false;
+      }
+      subscription.getTables().forEach(table ->
+          watchedTables.computeIfPresent(table, (t, count) -> count == 1 ? null : count - 1));
+      return true;
+    });
+  }
+
+  /**
+   * Stop the engine and end every stream. The triggers stay but log nothing from now on.
+   */
+  public void close() {
+    closed = true;
+    ENGINES.remove(dataRepo.getDbName().toUpperCase(), this);
+    engine.interrupt();
+    List<LiveSubscription> current;
+    synchronized (this) {
+      current = List.copyOf(subscriptions.values());
+      subscriptions.clear();
+      watchedTables.clear();
+    }
+    current.forEach(LiveSubscription::close);
+  }
+}
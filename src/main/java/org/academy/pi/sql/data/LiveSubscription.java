@@ -0,0 +1,224 @@
+package org.academy.pi.sql.data;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.academy.pi.sql.models.SqlLiveDelta;
+import org.academy.pi.sql.models.SqlLiveRow;
+import org.academy.pi.sql.models.SqlLiveSnapshot;
+
+/**
+ * One live query and everyone watching it. A query with a {@link GroupCountPlan} keeps the count
+ * of every group and applies row changes to them; any other query is run again whenever one of
+ * its tables changes. Only the {@link LiveQueries} engine thread touches the results.
+ */
+class LiveSubscription {
+
+  static final int MAX_ROWS = 1000;
+
+  private final String sql;
+  private final GroupCountPlan plan;
+  private final Set<String> tables;
+  private final List<String> columns;
+  private final List<LiveListener> listeners = new CopyOnWriteArrayList<>();
+  // joined since the last cycle and still waiting for a snapshot
+  private final List<LiveListener> pending = new CopyOnWriteArrayList<>();
+
+  private final Map<List<Object>, Long> counts = new HashMap<>();
+  private List<List<Object>> rows = List.of();
+  // what listeners were last sent
+  private List<List<Object>> published;
+  private boolean dirty;
+
+  LiveSubscription(String sql, GroupCountPlan plan, Set<String> tables, List<String> columns) {
+    this.sql = sql;
+    this.plan = plan;
+    this.tables = Set.copyOf(tables);
+    this.columns = List.copyOf(columns);
+  }
+
+  String getSql() {
+    return sql;
+  }
+
+  Set<String> getTables() {
+    return tables;
+  }
+
+  boolean isIncremental() {
+    return plan != null;
+  }
+
+  boolean isLoaded() {
+    return published != null;
+  }
+
+  void join(LiveListener listener) {
+    pending.add(listener);
+  }
+
+  boolean hasPending() {
+    return !pending.isEmpty();
+  }
+
+  boolean hasListeners() {
+    return !listeners.isEmpty() || !pending.isEmpty();
+  }
+
+  List<LiveListener> allListeners() {
+    List<LiveListener> all = new ArrayList<>(listeners);
+    all.addAll(pending);
+    return all;
+  }
+
+  /**
+   * (Re)read the whole result inside the engine's snapshot transaction
+   */
+  void load(DataRepo dataRepo, Connection conn) throws SQLException {
+    if (plan != null) {
+      counts.clear();
+      for (List<Object> row : dataRepo.runQuery(conn, plan.groupSql(), 0).getRows()) {
+        counts.put(GroupCountPlan.key(row), ((Number) row.get(row.size() - 1)).longValue());
+      }
+    } else {
+      rows = dataRepo.runQuery(conn, sql, MAX_ROWS).getRows();
+    }
+    dirty = true;
+  }
+
+  /**
+   * Account for one changed row of {@code table}, either side is null for inserts and deletes
+   */
+  void apply(String table, Map<String, Object> oldRow, Map<String, Object> newRow) {
+    if (!tables.contains(table)) {
+      return;
+    }
+    if (plan == null) {
+      // re-run once the whole batch of changes is in
+      dirty = true;
+      return;
+    }
+    if (oldRow != null && plan.matches(oldRow)) {
+      counts.merge(plan.key(oldRow), -1L, LiveSubscription::addCount);
+      dirty = true;
+    }
+    if (newRow != null && plan.matches(newRow)) {
+      counts.merge(plan.key(newRow), 1L, LiveSubscription::addCount);
+      dirty = true;
+    }
+  }
+
+  // groups that drop to zero are forgotten rather than kept as empty
+  private static Long addCount(Long count, Long change) {
+    long sum = count + change;
+    return sum == 0 ? null : sum;
+  }
+
+  /**
+   * Whether a non-incremental query needs running again after {@link #apply}
+   */
+  boolean needsReload() {
+    return plan == null && dirty && published != null;
+  }
+
+  private List<List<Object>> current() {
+    return plan != null ? plan.result(counts) : rows;
+  }
+
+  SqlLiveSnapshot snapshot() {
+    return SqlLiveSnapshot.builder()
+        .columns(columns)
+        .rows(published)
+        .keyColumns(plan != null ? plan.keyColumns() : List.of())
+        .incremental(plan != null)
+        .build();
+  }
+
+  /**
+   * Bring {@link #published} up to date and describe what changed since it was last sent, null
+   * when nothing did. The first call and non-incremental queries send a whole new snapshot.
+   */
+  Object update() {
+    if (!dirty) {
+      return null;
+    }
+    dirty = false;
+    List<List<Object>> next = current();
+    List<List<Object>> previous = published;
+    published = next;
+    if (previous == null || plan == null) {
+      return previous != null && previous.equals(next) ? null : snapshot();
+    }
+
+    // rows that didn't change keep their relative order because results are sorted on the whole
+    // row, so only new and changed rows need to say where they go
+    List<Integer> keyColumns = plan.keyColumns();
+    Set<List<Object>> before = new HashSet<>(previous);
+    Set<List<Object>> afterKeys = new HashSet<>();
+    List<SqlLiveRow> upserted = new ArrayList<>();
+    for (int i = 0; i < next.size(); i++) {
+      List<Object> row = next.get(i);
+      afterKeys.add(keyOf(row, keyColumns));
+      if (!before.contains(row)) {
+        upserted.add(SqlLiveRow.builder().index(i).row(row).build());
+      }
+    }
+    List<List<Object>> removed = new ArrayList<>();
+    for (List<Object> row : previous) {
+      List<Object> key = keyOf(row, keyColumns);
+      if (!afterKeys.contains(key)) {
+        removed.add(key);
+      }
+    }
+    if (removed.isEmpty() && upserted.isEmpty()) {
+      return null;
+    }
+    return SqlLiveDelta.builder().removed(removed).upserted(upserted).build();
+  }
+
+  private static List<Object> keyOf(List<Object> row, List<Integer> keyColumns) {
+    List<Object> key = new ArrayList<>(keyColumns.size());
+    for (int column : keyColumns) {
+      key.add(row.get(column));
+    }
+    return key;
+  }
+
+  /**
+   * Send {@code event} to everyone already following along, dropping listeners that have gone
+   */
+  void publish(String event, String data) {
+    listeners.removeIf(listener -> !listener.send(event, data));
+  }
+
+  /**
+   * Give listeners that just joined the current snapshot and start sending them changes
+   */
+  void welcome(String data) {
+    for (LiveListener listener : pending) {
+      pending.remove(listener);
+      if (listener.send("snapshot", data)) {
+        listeners.add(listener);
+      }
+    }
+  }
+
+  /**
+   * Drop listeners that no longer answer
+   */
+  void ping() {
+    listeners.removeIf(listener -> !listener.ping());
+  }
+
+  void close() {
+    allListeners().forEach(LiveListener::close);
+    listeners.clear();
+    pending.clear();
+  }
+}
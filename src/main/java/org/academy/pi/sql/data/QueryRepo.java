@@ -385,10 +385,6 @@ public class QueryRepo {
           .build()
   );
 
-  public static List<String> getTableNames() {
-    return List.of("favorites", "students");
-  }
-
   public static List<SqlNamedQuery> getSampleQueries() {
     return SAMPLE_QUERIES;
   }
@@ -0,0 +1,12 @@
+package org.academy.pi.sql.data;
+
+/**
+ * A database handed out for one request, closed when the request is done
+ */
+public interface RepoLease extends AutoCloseable {
+
+  DataRepo getDataRepo();
+
+  @Override
+  void close();
+}
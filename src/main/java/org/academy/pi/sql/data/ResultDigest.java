@@ -0,0 +1,229 @@
+package org.academy.pi.sql.data;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Fingerprint of a query result, built in one pass over a {@link ResultSet} without keeping any
+ * rows. Every value is hashed by kind: numbers by their numeric value whatever the SQL type (so
+ * INTEGER {@code 3}, BIGINT {@code 3}, {@code 3.0} and DECIMAL {@code 3.00} all match, as do DOUBLE
+ * {@code 2.5} and DECIMAL {@code 2.50}), while text and numbers are told apart ({@code '3'} is not
+ * {@code 3}). Values are folded into a row hash, and row hashes into
+ * <ul>
+ *   <li>an order-sensitive rolling hash, for answers where ORDER BY matters</li>
+ *   <li>an order-insensitive sum, for answers where it doesn't</li>
+ *   <li>per-column sums, to point at the column that is wrong</li>
+ * </ul>
+ * plus the hashes of the first {@link #MAX_ROW_HASHES} rows to point at the first wrong row.
+ */
+public final class ResultDigest {
+
+  public static final int MAX_ROW_HASHES = 10_000;
+
+  private static final long NULL_HASH = 0x9E3779B97F4A7C15L;
+  private static final long NUMBER_TAG = 0x1L;
+  private static final long STRING_TAG = 0x2L;
+  private static final long BOOLEAN_TAG = 0x3L;
+  private static final long BYTES_TAG = 0x4L;
+  private static final long OTHER_TAG = 0x5L;
+  private static final long PRIME = 0x100000001B3L;
+
+  private final int columnCount;
+  private final long rowCount;
+  private final long orderedHash;
+  private final long unorderedHash;
+  private final long[] columnSums;
+  private final long[] rowHashes;
+
+  private ResultDigest(int columnCount, long rowCount, long orderedHash, long unorderedHash,
+      long[] columnSums, long[] rowHashes) {
+    this.columnCount = columnCount;
+    this.rowCount = rowCount;
+    this.orderedHash = orderedHash;
+    this.unorderedHash = unorderedHash;
+    this.columnSums = columnSums;
+    this.rowHashes = rowHashes;
+  }
+
+  /**
+   * Digest the remaining rows of {@code rs}, reading each cell through its {@link ColumnCodec}
+   */
+  public static ResultDigest of(ResultSet rs) throws SQLException {
+    ResultSetMetaData metaData = rs.getMetaData();
+    int columnCount = metaData.getColumnCount();
+    ColumnCodec[] codecs = ColumnCodec.forColumns(metaData);
+
+    long rowCount = 0;
+    long orderedHash = 0;
+    long unorderedHash = 0;
+    long[] columnSums = new long[columnCount];
+    long[] rowHashes = new long[64];
+    while (rs.next()) {
+      long rowHash = columnCount;
+      for (int i = 0; i < columnCount; i++) {
+        long valueHash = hashValue(codecs[i].read(rs, i + 1));
+        columnSums[i] += mix(valueHash + i);
+        rowHash = mix(rowHash * PRIME + valueHash);
+      }
+      orderedHash = mix(orderedHash * PRIME + rowHash);
+      unorderedHash += rowHash;
+      if (rowCount < MAX_ROW_HASHES) {
+        if (rowCount == rowHashes.length) {
+          rowHashes = Arrays.copyOf(rowHashes, Math.min(rowHashes.length * 2, MAX_ROW_HASHES));
+        }
+        rowHashes[(int) rowCount] = rowHash;
+      }
+      rowCount++;
+    }
+    return new ResultDigest(columnCount, rowCount, orderedHash, unorderedHash, columnSums,
+        Arrays.copyOf(rowHashes, (int) Math.min(rowCount, MAX_ROW_HASHES)));
+  }
+
+  public int getColumnCount() {
+    return columnCount;
+  }
+
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Same rows, and in the same order when {@code ordered}
+   */
+  public boolean matches(ResultDigest other, boolean ordered) {
+    return columnCount == other.columnCount && rowCount == other.rowCount
+        && (ordered ? orderedHash == other.orderedHash : unorderedHash == other.unorderedHash);
+  }
+
+  /**
+   * Index of the first column whose values differ from {@code expected}, or -1
+   */
+  public int firstDifferentColumn(ResultDigest expected) {
+    for (int i = 0; i < Math.min(columnCount, expected.columnCount); i++) {
+      if (columnSums[i] != expected.columnSums[i]) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Index of the first row that differs from the row at the same position in {@code expected},
+   * or -1 when none of the rows both digests kept differ
+   */
+  public int firstDifferentRow(ResultDigest expected) {
+    int rows = Math.min(rowHashes.length, expected.rowHashes.length);
+    for (int i = 0; i < rows; i++) {
+      if (rowHashes[i] != expected.rowHashes[i]) {
+        return i;
+      }
+    }
+    return rowHashes.length != expected.rowHashes.length && rows < MAX_ROW_HASHES ? rows : -1;
+  }
+
+  /**
+   * Index of the first row that doesn't appear anywhere in {@code expected}, or -1. Only
+   * meaningful when {@code expected} kept all of its row hashes.
+   */
+  public int firstRowNotIn(ResultDigest expected) {
+    if (expected.rowCount > MAX_ROW_HASHES) {
+      return -1;
+    }
+    long[] sorted = expected.rowHashes.clone();
+    Arrays.sort(sorted);
+    for (int i = 0; i < rowHashes.length; i++) {
+      if (Arrays.binarySearch(sorted, rowHashes[i]) < 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static long hashValue(Object value) {
+    if (value == null) {
+      return NULL_HASH;
+    }
+    if (value instanceof Long || value instanceof Integer || value instanceof Short
+        || value instanceof Byte) {
+      return mix(((Number) value).longValue() * PRIME + NUMBER_TAG);
+    }
+    if (value instanceof Double || value instanceof Float) {
+      double d = ((Number) value).doubleValue();
+      if (d == Math.rint(d) && Math.abs(d) < 0x1p63) {
+        return mix((long) d * PRIME + NUMBER_TAG);
+      }
+      if (Double.isNaN(d) || Double.isInfinite(d)) {
+        return mix(Double.doubleToLongBits(d) * PRIME + NUMBER_TAG);
+      }
+      // the shortest decimal that reads back as the same value, so DOUBLE 2.5 is DECIMAL 2.50
+      return hashDecimal(value instanceof Float f
+          ? new BigDecimal(Float.toString(f)) : BigDecimal.valueOf(d));
+    }
+    if (value instanceof BigDecimal decimal) {
+      return hashDecimal(decimal);
+    }
+    if (value instanceof BigInteger integer) {
+      return hashDecimal(new BigDecimal(integer));
+    }
+    if (value instanceof String string) {
+      return mix(hashChars(string) + STRING_TAG);
+    }
+    if (value instanceof Boolean bool) {
+      return mix((bool ? 1 : 2) * PRIME + BOOLEAN_TAG);
+    }
+    if (value instanceof byte[] bytes) {
+      long h = BYTES_TAG;
+      for (byte b : bytes) {
+        h = (h ^ b) * PRIME;
+      }
+      return mix(h);
+    }
+    if (value instanceof Object[] array) {
+      long h = OTHER_TAG;
+      for (Object element : array) {
+        h = mix(h * PRIME + hashValue(element));
+      }
+      return h;
+    }
+    return mix(hashChars(value.toString()) + OTHER_TAG);
+  }
+
+  /**
+   * Whole numbers that fit a long hash like one, everything else by its plain digits without
+   * trailing zeros
+   */
+  private static long hashDecimal(BigDecimal decimal) {
+    BigDecimal stripped = decimal.stripTrailingZeros();
+    if (stripped.scale() <= 0 && stripped.precision() - stripped.scale() <= 19) {
+      BigInteger integer = stripped.toBigIntegerExact();
+      if (integer.bitLength() < 64) {
+        return mix(integer.longValue() * PRIME + NUMBER_TAG);
+      }
+    }
+    return mix(hashChars(stripped.toPlainString()) + NUMBER_TAG);
+  }
+
+  /**
+   * 64-bit FNV-1a over UTF-16 code units
+   */
+  private static long hashChars(String s) {
+    long h = 0xCBF29CE484222325L;
+    for (int i = 0; i < s.length(); i++) {
+      h = (h ^ s.charAt(i)) * PRIME;
+    }
+    return h;
+  }
+
+  /**
+   * splitmix64 finalizer, spreads every input bit over the whole hash
+   */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
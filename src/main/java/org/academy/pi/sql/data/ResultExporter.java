@@ -0,0 +1,206 @@
+package org.academy.pi.sql.data;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.academy.pi.sql.models.ExportFormat;
+
+/**
+ * Streams a SELECT straight from the {@link ResultSet} to an output stream. The query runs with
+ * H2's lazy execution on a forward-only cursor, so rows are produced as they are written and
+ * memory use stays flat no matter how large the result is.
+ */
+public class ResultExporter {
+
+  private static final int FETCH_SIZE = 1_000;
+  private static final int WRITE_BUFFER_SIZE = 16 * 1024;
+
+  private final DataRepo dataRepo;
+  private final ObjectWriter valueWriter;
+
+  public ResultExporter(DataRepo dataRepo, ObjectMapper objectMapper) {
+    this.dataRepo = dataRepo;
+    this.valueWriter = objectMapper.writer()
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  /**
+   * Run the query and keep its cursor open. Query errors surface here, before anything has been
+   * written, so callers can still answer with a normal error response.
+   */
+  public Export open(String sql) throws SQLException {
+    // the same queries /sql/query runs as reads, except EXPLAIN whose plan isn't worth a download
+    String keyword = sql.trim().toUpperCase();
+    if (!DataRepo.isQuery(keyword) || keyword.startsWith("EXPLAIN")) {
+      throw new SQLException("Only SELECT, WITH and VALUES queries can be exported");
+    }
+
+    Connection conn = dataRepo.getConnection();
+    try {
+      try (Statement settings = conn.createStatement()) {
+        settings.execute("SET LAZY_QUERY_EXECUTION TRUE");
+      }
+      Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY,
+          ResultSet.CONCUR_READ_ONLY);
+      stmt.setFetchSize(FETCH_SIZE);
+      return new Export(conn, stmt, stmt.executeQuery(sql));
+    } catch (SQLException e) {
+      conn.close();
+      throw e;
+    }
+  }
+
+  public class Export implements AutoCloseable {
+
+    private final Connection conn;
+    private final Statement stmt;
+    private final ResultSet rs;
+
+    private Export(Connection conn, Statement stmt, ResultSet rs) {
+      this.conn = conn;
+      this.stmt = stmt;
+      this.rs = rs;
+    }
+
+    /**
+     * Write every remaining row in {@code format}
+     *
+     * @return the number of rows written
+     */
+    public long writeTo(OutputStream out, ExportFormat format) throws SQLException, IOException {
+      return switch (format) {
+        case CSV -> writeCsv(out);
+        case NDJSON -> writeNdjson(out);
+      };
+    }
+
+    private long writeCsv(OutputStream out) throws SQLException, IOException {
+      ResultSetMetaData metaData = rs.getMetaData();
+      int columnCount = metaData.getColumnCount();
+      Writer writer = new BufferedWriter(
+          new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+
+      for (int i = 1; i <= columnCount; i++) {
+        if (i > 1) {
+          writer.write(',');
+        }
+        writeCsvField(writer, metaData.getColumnLabel(i));
+      }
+      writer.write("\r\n");
+
+      ColumnCodec[] codecs = ColumnCodec.forColumns(metaData);
+      long rows = 0;
+      while (rs.next()) {
+        for (int i = 0; i < columnCount; i++) {
+          if (i > 0) {
+            writer.write(',');
+          }
+          Object value = codecs[i].read(rs, i + 1);
+          if (value != null) {
+            writeCsvField(writer, csvText(value));
+          }
+        }
+        writer.write("\r\n");
+        rows++;
+      }
+      writer.flush();
+      return rows;
+    }
+
+    private long writeNdjson(OutputStream out) throws SQLException, IOException {
+      ResultSetMetaData metaData = rs.getMetaData();
+      int columnCount = metaData.getColumnCount();
+      ColumnCodec[] codecs = ColumnCodec.forColumns(metaData);
+      String[] labels = new String[columnCount];
+      for (int i = 0; i < columnCount; i++) {
+        labels[i] = metaData.getColumnLabel(i + 1);
+      }
+
+      long rows = 0;
+      try (JsonGenerator gen = valueWriter.getFactory().createGenerator(out)) {
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.setRootValueSeparator(null);
+        while (rs.next()) {
+          gen.writeStartObject();
+          for (int i = 0; i < columnCount; i++) {
+            gen.writeFieldName(labels[i]);
+            writeJsonValue(gen, codecs[i].read(rs, i + 1));
+          }
+          gen.writeEndObject();
+          gen.writeRaw('\n');
+          rows++;
+        }
+      }
+      return rows;
+    }
+
+    private void writeJsonValue(JsonGenerator gen, Object value) throws IOException {
+      if (value == null) {
+        gen.writeNull();
+      } else if (value instanceof String text) {
+        gen.writeString(text);
+      } else if (value instanceof Integer number) {
+        gen.writeNumber(number);
+      } else if (value instanceof Long number) {
+        gen.writeNumber(number);
+      } else if (value instanceof BigDecimal number) {
+        gen.writeNumber(number);
+      } else if (value instanceof Boolean bool) {
+        gen.writeBoolean(bool);
+      } else {
+        valueWriter.writeValue(gen, value);
+      }
+    }
+
+    @Override
+    public void close() throws SQLException {
+      try (conn; stmt; rs) {
+        // closes the cursor, statement and connection in reverse order
+      }
+    }
+  }
+
+  private static String csvText(Object value) {
+    if (value instanceof byte[] bytes) {
+      return HexFormat.of().formatHex(bytes);
+    }
+    if (value instanceof Object[] array) {
+      return Arrays.deepToString(array);
+    }
+    return value.toString();
+  }
+
+  /**
+   * Write a non-null value, quoted when needed. Empty strings are always quoted so they read back
+   * as empty rather than as the bare empty field that stands for NULL.
+   */
+  private static void writeCsvField(Writer writer, String value) throws IOException {
+    boolean needsQuotes = value.isEmpty();
+    for (int i = 0; i < value.length() && !needsQuotes; i++) {
+      char c = value.charAt(i);
+      needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!needsQuotes) {
+      writer.write(value);
+      return;
+    }
+    writer.write('"');
+    writer.write(value.replace("\"", "\"\""));
+    writer.write('"');
+  }
+}
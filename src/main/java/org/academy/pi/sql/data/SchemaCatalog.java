@@ -0,0 +1,176 @@
+package org.academy.pi.sql.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.academy.pi.sql.models.SqlColumnInfo;
+import org.academy.pi.sql.models.SqlSchema;
+import org.academy.pi.sql.models.SqlTableInfo;
+
+/**
+ * In-memory snapshot of the tables and columns in one database, so the editor can autocomplete
+ * names without a metadata query per keystroke.
+ *
+ * <p>Refreshing is incremental: a single cheap query over {@code INFORMATION_SCHEMA.TABLES} finds
+ * tables that were added, dropped or changed (H2 bumps {@code LAST_MODIFICATION} on every change)
+ * and only those tables get their columns and keys read again. {@link DataRepo} refreshes right
+ * after DDL, and readers refresh a snapshot that is a few seconds old so row counts and changes
+ * made elsewhere (the H2 console, imports) still show up.
+ */
+public class SchemaCatalog {
+
+  private static final long MAX_AGE_MS = 2_000;
+
+  private static final String TABLES_SQL = """
+      SELECT TABLE_NAME, TABLE_TYPE, LAST_MODIFICATION, ROW_COUNT_ESTIMATE
+      FROM INFORMATION_SCHEMA.TABLES
+      WHERE TABLE_SCHEMA = 'PUBLIC'
+      ORDER BY TABLE_NAME
+      """;
+  private static final String COLUMNS_SQL = """
+      SELECT COLUMN_NAME, DATA_TYPE, IS_NULLABLE
+      FROM INFORMATION_SCHEMA.COLUMNS
+      WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ?
+      ORDER BY ORDINAL_POSITION
+      """;
+  private static final String KEYS_SQL = """
+      SELECT k.COLUMN_NAME, t.CONSTRAINT_TYPE, u.TABLE_NAME, u.COLUMN_NAME
+      FROM INFORMATION_SCHEMA.KEY_COLUMN_USAGE k
+      JOIN INFORMATION_SCHEMA.TABLE_CONSTRAINTS t
+        ON t.CONSTRAINT_SCHEMA = k.CONSTRAINT_SCHEMA AND t.CONSTRAINT_NAME = k.CONSTRAINT_NAME
+      LEFT JOIN INFORMATION_SCHEMA.REFERENTIAL_CONSTRAINTS r
+        ON r.CONSTRAINT_SCHEMA = k.CONSTRAINT_SCHEMA AND r.CONSTRAINT_NAME = k.CONSTRAINT_NAME
+      LEFT JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE u
+        ON u.CONSTRAINT_SCHEMA = r.UNIQUE_CONSTRAINT_SCHEMA
+        AND u.CONSTRAINT_NAME = r.UNIQUE_CONSTRAINT_NAME
+        AND u.ORDINAL_POSITION = k.POSITION_IN_UNIQUE_CONSTRAINT
+      WHERE k.TABLE_SCHEMA = 'PUBLIC' AND k.TABLE_NAME = ?
+        AND t.CONSTRAINT_TYPE IN ('PRIMARY KEY', 'FOREIGN KEY')
+      """;
+
+  /**
+   * One immutable version of the catalog, {@code etag} changes whenever anything in it does
+   */
+  public record Snapshot(SqlSchema schema, String etag) {
+
+  }
+
+  private final DataRepo dataRepo;
+  private final Map<String, Long> lastModified = new HashMap<>();
+  private volatile Snapshot snapshot;
+  private volatile long refreshedAt;
+
+  public SchemaCatalog(DataRepo dataRepo) {
+    this.dataRepo = dataRepo;
+  }
+
+  /**
+   * Current snapshot, refreshed first if it is more than a couple of seconds old
+   */
+  public Snapshot snapshot() throws SQLException {
+    if (snapshot == null || System.currentTimeMillis() - refreshedAt > MAX_AGE_MS) {
+      refresh();
+    }
+    return snapshot;
+  }
+
+  public List<String> getTableNames() {
+    try {
+      return snapshot().schema().getTables().stream().map(SqlTableInfo::getName).toList();
+    } catch (SQLException e) {
+      return List.of();
+    }
+  }
+
+  /**
+   * Bring the snapshot up to date, re-reading columns only for tables that changed
+   */
+  public synchronized void refresh() throws SQLException {
+    Map<String, SqlTableInfo> previous = new HashMap<>();
+    if (snapshot != null) {
+      snapshot.schema().getTables().forEach(table -> previous.put(table.getName(), table));
+    }
+
+    Map<String, SqlTableInfo> tables = new LinkedHashMap<>();
+    Map<String, Long> modified = new HashMap<>();
+    try (Connection conn = dataRepo.getConnection()) {
+      try (Statement stmt = conn.createStatement();
+          ResultSet rs = stmt.executeQuery(TABLES_SQL)) {
+        while (rs.next()) {
+          String name = rs.getString(1);
+          long modification = rs.getLong(3);
+          modified.put(name, modification);
+
+          SqlTableInfo known = previous.get(name);
+          List<SqlColumnInfo> columns = known != null
+              && lastModified.getOrDefault(name, -1L) == modification
+              ? known.getColumns() : null;
+          tables.put(name, SqlTableInfo.builder()
+              .name(name)
+              .type(rs.getString(2))
+              .rowCountEstimate(rs.getLong(4))
+              .columns(columns)
+              .build());
+        }
+      }
+      for (SqlTableInfo table : tables.values()) {
+        if (table.getColumns() == null) {
+          table.setColumns(readColumns(conn, table.getName()));
+        }
+      }
+    }
+
+    List<SqlTableInfo> tableList = List.copyOf(tables.values());
+    lastModified.clear();
+    lastModified.putAll(modified);
+    if (snapshot == null || !snapshot.schema().getTables().equals(tableList)) {
+      SqlSchema schema = SqlSchema.builder()
+          .database(dataRepo.getDbName())
+          .tables(tableList)
+          .build();
+      snapshot = new Snapshot(schema, "\"%s-%08x\"".formatted(dataRepo.getDbName(),
+          tableList.hashCode()));
+    }
+    refreshedAt = System.currentTimeMillis();
+  }
+
+  private List<SqlColumnInfo> readColumns(Connection conn, String table) throws SQLException {
+    Map<String, SqlColumnInfo> columns = new LinkedHashMap<>();
+    try (PreparedStatement stmt = conn.prepareStatement(COLUMNS_SQL)) {
+      stmt.setString(1, table);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          columns.put(rs.getString(1), SqlColumnInfo.builder()
+              .name(rs.getString(1))
+              .dataType(rs.getString(2))
+              .nullable("YES".equals(rs.getString(3)))
+              .build());
+        }
+      }
+    }
+    try (PreparedStatement stmt = conn.prepareStatement(KEYS_SQL)) {
+      stmt.setString(1, table);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          SqlColumnInfo column = columns.get(rs.getString(1));
+          if (column == null) {
+            continue;
+          }
+          if ("PRIMARY KEY".equals(rs.getString(2))) {
+            column.setPrimaryKey(true);
+          } else if (rs.getString(3) != null) {
+            column.setReferences(rs.getString(3) + "." + rs.getString(4));
+          }
+        }
+      }
+    }
+    return new ArrayList<>(columns.values());
+  }
+}
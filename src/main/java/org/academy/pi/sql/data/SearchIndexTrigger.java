@@ -0,0 +1,88 @@
+package org.academy.pi.sql.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.h2.api.Trigger;
+
+/**
+ * Row trigger on STUDENTS that queues changes to the searchable columns in
+ * {@code SEARCH.CHANGES} for {@link StudentSearchIndex}. The queue is written in the writer's own
+ * transaction, so the index only ever applies committed changes. Updates that leave the ID and
+ * every searchable column alone aren't queued. When the queue has been dropped the change is
+ * skipped and the index marked stale instead.
+ */
+public class SearchIndexTrigger implements Trigger {
+
+  private String dbName;
+  private int idColumn = -1;
+  private final int[] textColumns = new int[StudentSearchIndex.COLUMNS.size()];
+
+  @Override
+  public void init(Connection conn, String schemaName, String triggerName, String tableName,
+      boolean before, int type) throws SQLException {
+    try (Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT DATABASE()")) {
+      rs.next();
+      dbName = rs.getString(1);
+    }
+    List<String> columns = new ArrayList<>();
+    try (ResultSet rs = conn.getMetaData().getColumns(null, schemaName, tableName, null)) {
+      while (rs.next()) {
+        columns.add(rs.getString("COLUMN_NAME"));
+      }
+    }
+    idColumn = columns.indexOf("ID");
+    for (int i = 0; i < textColumns.length; i++) {
+      textColumns[i] = columns.indexOf(StudentSearchIndex.COLUMNS.get(i));
+    }
+  }
+
+  @Override
+  public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+    StudentSearchIndex index = StudentSearchIndex.find(dbName);
+    if (index == null || idColumn < 0) {
+      return;
+    }
+    if (oldRow != null && newRow != null && !changed(oldRow, newRow)) {
+      return;
+    }
+    try (PreparedStatement stmt = conn.prepareStatement("""
+        INSERT INTO SEARCH.CHANGES (OLD_ID, NEW_ID, FIRST_NAME, LAST_NAME, EMAIL, CATCH_PHRASE)
+        VALUES (?, ?, ?, ?, ?, ?)""")) {
+      stmt.setString(1, oldRow == null ? null : Objects.toString(oldRow[idColumn], null));
+      stmt.setString(2, newRow == null ? null : Objects.toString(newRow[idColumn], null));
+      for (int i = 0; i < textColumns.length; i++) {
+        stmt.setString(3 + i, newRow == null || textColumns[i] < 0
+            ? null : Objects.toString(newRow[textColumns[i]], null));
+      }
+      stmt.executeUpdate();
+    } catch (SQLException e) {
+      if (!DataRepo.isMissingTable(e)) {
+        throw e;
+      }
+      // a student dropped the queue, never fail their statement over it: the next search builds
+      // the index and the queue again
+      index.markStale();
+      return;
+    }
+    index.noteChange();
+  }
+
+  private boolean changed(Object[] oldRow, Object[] newRow) {
+    if (!Objects.equals(oldRow[idColumn], newRow[idColumn])) {
+      return true;
+    }
+    for (int column : textColumns) {
+      if (column >= 0 && !Objects.equals(oldRow[column], newRow[column])) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,259 @@
+package org.academy.pi.sql.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.academy.pi.sql.models.SqlShardStats;
+
+/**
+ * Spreads sessions over several identical H2 databases so students practising UPDATE/DELETE do
+ * not all queue on the same table locks.
+ *
+ * <p>A session (one browser, or a whole class sharing a class id) is assigned to the shard with
+ * the fewest sessions the first time it is seen and keeps that shard for every request. Sessions
+ * that have only read are still looking at the template data, so when sessions join or leave they
+ * can be moved to even out the load. Once a session writes it is pinned to its shard, otherwise
+ * its changes would seem to disappear.
+ */
+public class ShardRouter {
+
+  private static final long SESSION_TIMEOUT_MS =
+      TimeUnit.MINUTES.toMillis(Long.getLong("sqllearning.shards.sessionTimeoutMinutes", 30));
+  private static final long EXPIRY_CHECK_INTERVAL_MS = 10_000;
+
+  private final List<Shard> shards;
+  private final Map<String, Session> sessions = new HashMap<>();
+  private long lastExpiryCheck = System.currentTimeMillis();
+
+  /**
+   * @param root the existing database, used as shard 0
+   * @param shardCount total number of shards, the extra ones are created in parallel
+   */
+  public ShardRouter(DataRepo root, int shardCount) {
+    List<Shard> created = new ArrayList<>();
+    created.add(new Shard(0, root));
+    if (shardCount > 1) {
+      long startTime = System.currentTimeMillis();
+      ExecutorService pool = Executors.newFixedThreadPool(
+          Math.min(shardCount - 1, Runtime.getRuntime().availableProcessors()));
+      try {
+        List<Future<DataRepo>> repos = new ArrayList<>();
+        for (int i = 1; i < shardCount; i++) {
+          String dbName = DataRepo.ROOT_DB_NAME + "_shard" + i;
+          repos.add(pool.submit(() -> new DataRepo(dbName)));
+        }
+        for (int i = 0; i < repos.size(); i++) {
+          created.add(new Shard(i + 1, repos.get(i).get()));
+        }
+      } catch (Exception e) {
+        System.err.println("ShardRouter Error! " + e.getMessage());
+        throw new RuntimeException(e);
+      } finally {
+        pool.shutdown();
+      }
+      System.out.printf("✓ %d database shards ready in %,d ms%n", shardCount,
+          System.currentTimeMillis() - startTime);
+    }
+    this.shards = List.copyOf(created);
+  }
+
+  public int getShardCount() {
+    return shards.size();
+  }
+
+  /**
+   * Route one request. Close the returned lease when the request is done so its latency is
+   * recorded and the session can be rebalanced again.
+   *
+   * @param sessionKey the session or class the request belongs to
+   * @param write true when the request may change data, which pins the session to its shard
+   */
+  public synchronized Lease acquire(String sessionKey, boolean write) {
+    long now = System.currentTimeMillis();
+    expireIdleSessions(now);
+
+    Session session = sessions.get(sessionKey);
+    if (session == null) {
+      session = new Session(leastLoadedShard());
+      session.shard.sessions++;
+      sessions.put(sessionKey, session);
+    }
+    session.lastSeen = now;
+    session.inFlight++;
+    if (write && !session.pinned) {
+      session.pinned = true;
+      session.shard.pinnedSessions++;
+    }
+    return new Lease(session, write);
+  }
+
+  public List<SqlShardStats> stats() {
+    List<SqlShardStats> stats = new ArrayList<>();
+    synchronized (this) {
+      for (Shard shard : shards) {
+        long requests = shard.requests.sum();
+        stats.add(SqlShardStats.builder()
+            .shard(shard.index)
+            .database(shard.repo.getDbName())
+            .sessions(shard.sessions)
+            .pinnedSessions(shard.pinnedSessions)
+            .inFlight(shard.inFlight.get())
+            .requests(requests)
+            .writes(shard.writes.sum())
+            .avgLatencyMs(requests == 0 ? 0 : shard.latencyNanos.sum() / 1e6 / requests)
+            .maxLatencyMs(shard.maxLatencyNanos.get() / 1e6)
+            .build());
+      }
+    }
+    return stats;
+  }
+
+  private synchronized void release(Session session) {
+    session.inFlight--;
+    session.lastSeen = System.currentTimeMillis();
+  }
+
+  /**
+   * Forget sessions that have been quiet for a while (a class left) and rebalance what is left
+   */
+  private void expireIdleSessions(long now) {
+    if (now - lastExpiryCheck < EXPIRY_CHECK_INTERVAL_MS) {
+      return;
+    }
+    lastExpiryCheck = now;
+    boolean removed = sessions.values().removeIf(session -> {
+      if (session.inFlight > 0 || now - session.lastSeen < SESSION_TIMEOUT_MS) {
+        return false;
+      }
+      session.shard.sessions--;
+      if (session.pinned) {
+        session.shard.pinnedSessions--;
+      }
+      return true;
+    });
+    if (removed) {
+      rebalance();
+    }
+  }
+
+  /**
+   * Move unpinned, idle sessions from the busiest shard to the quietest until they differ by at
+   * most one session
+   */
+  private void rebalance() {
+    while (true) {
+      Shard busiest = shards.get(0);
+      for (Shard shard : shards) {
+        if (shard.sessions > busiest.sessions) {
+          busiest = shard;
+        }
+      }
+      Shard quietest = leastLoadedShard();
+      if (busiest.sessions - quietest.sessions <= 1) {
+        return;
+      }
+      Session movable = null;
+      for (Session session : sessions.values()) {
+        if (session.shard == busiest && !session.pinned && session.inFlight == 0) {
+          movable = session;
+          break;
+        }
+      }
+      if (movable == null) {
+        return;
+      }
+      busiest.sessions--;
+      quietest.sessions++;
+      movable.shard = quietest;
+    }
+  }
+
+  private Shard leastLoadedShard() {
+    Shard quietest = shards.get(0);
+    for (Shard shard : shards) {
+      if (shard.sessions < quietest.sessions) {
+        quietest = shard;
+      }
+    }
+    return quietest;
+  }
+
+  private static class Shard {
+
+    private final int index;
+    private final DataRepo repo;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    // guarded by the router
+    private int sessions;
+    private int pinnedSessions;
+
+    private Shard(int index, DataRepo repo) {
+      this.index = index;
+      this.repo = repo;
+    }
+  }
+
+  private static class Session {
+
+    private Shard shard;
+    private boolean pinned;
+    private int inFlight;
+    private long lastSeen;
+
+    private Session(Shard shard) {
+      this.shard = shard;
+    }
+  }
+
+  /**
+   * One routed request
+   */
+  public class Lease implements RepoLease {
+
+    private final Session session;
+    private final Shard shard;
+    private final boolean write;
+    private final long startNanos = System.nanoTime();
+
+    private Lease(Session session, boolean write) {
+      this.session = session;
+      this.shard = session.shard;
+      this.write = write;
+      shard.inFlight.incrementAndGet();
+    }
+
+    @Override
+    public DataRepo getDataRepo() {
+      return shard.repo;
+    }
+
+    public int getShard() {
+      return shard.index;
+    }
+
+    @Override
+    public void close() {
+      long elapsed = System.nanoTime() - startNanos;
+      shard.inFlight.decrementAndGet();
+      shard.requests.increment();
+      if (write) {
+        shard.writes.increment();
+      }
+      shard.latencyNanos.add(elapsed);
+      shard.maxLatencyNanos.accumulateAndGet(elapsed, Math::max);
+      release(session);
+    }
+  }
+}
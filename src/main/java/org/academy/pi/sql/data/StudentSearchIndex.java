@@ -0,0 +1,657 @@
+package org.academy.pi.sql.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import org.academy.pi.sql.logging.AppLog;
+import org.academy.pi.sql.models.SearchMode;
+import org.academy.pi.sql.models.SqlSearchResult;
+import org.h2.tools.SimpleResultSet;
+
+/**
+ * In-memory inverted index over the free-text columns of STUDENTS, so searching names, emails and
+ * catch phrases doesn't scan the table the way {@code LIKE '%text%'} has to.
+ *
+ * <p>Text is split into lower-case words of letters and digits. A sorted dictionary maps each word
+ * to the students (and which column) it appears in, so a whole word is one lookup, a prefix is one
+ * range of the dictionary and a substring is a scan of the distinct words only, which stays small
+ * next to the table. A search with several words finds students matching all of them.
+ *
+ * <p>The index is built when the students database is created. A {@link SearchIndexTrigger} queues
+ * every later change in {@code SEARCH.CHANGES} and each search applies the committed ones first, so
+ * results reflect committed data. A transaction that stays open more than a few seconds after its
+ * last change shows up with the next change instead. When a student's DDL takes away the queue,
+ * the trigger or the function, or truncates STUDENTS (which fires no triggers), the index is built
+ * again on the next search. Students can search from SQL too:
+ * <pre>
+ *   SELECT S.* FROM STUDENTS S JOIN SEARCH_STUDENTS('synerg') R ON R.ID = S.ID
+ * </pre>
+ * Disable with {@code -Dsqllearning.search=false}.
+ */
+public class StudentSearchIndex {
+
+  static final List<String> COLUMNS = List.of("FIRST_NAME", "LAST_NAME", "EMAIL", "CATCH_PHRASE");
+
+  private static final boolean ENABLED =
+      Boolean.parseBoolean(System.getProperty("sqllearning.search", "true"));
+  private static final Map<String, StudentSearchIndex> INDEXES = new ConcurrentHashMap<>();
+  // postings hold the document number shifted left by this, with the column in the low bits
+  private static final int COLUMN_BITS = 2;
+  private static final int COLUMN_MASK = (1 << COLUMN_BITS) - 1;
+  private static final int MIN_DEAD_TO_COMPACT = 1024;
+  // how long after the last queued change to keep looking for it, in case its transaction is still
+  // open; rolled-back changes never arrive
+  private static final long PENDING_GIVE_UP_MS = 5_000;
+  private static final String INSTALLED_SQL = """
+      SELECT
+        (SELECT COUNT(*) FROM INFORMATION_SCHEMA.TRIGGERS WHERE TRIGGER_SCHEMA = 'PUBLIC'
+          AND TRIGGER_NAME = 'SEARCH_INDEX_STUDENTS' AND EVENT_OBJECT_TABLE = 'STUDENTS'),
+        (SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'SEARCH'
+          AND TABLE_NAME = 'CHANGES'),
+        (SELECT COUNT(*) FROM INFORMATION_SCHEMA.ROUTINES WHERE ROUTINE_SCHEMA = 'PUBLIC'
+          AND ROUTINE_NAME = 'SEARCH_STUDENTS')
+      """;
+  private static final Pattern STUDENTS_TABLE =
+      Pattern.compile("(?<![A-Z0-9_])STUDENTS(?![A-Z0-9_])");
+
+  private final DataRepo dataRepo;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  // guarded by lock
+  private final TreeMap<String, Postings> terms = new TreeMap<>();
+  private final Map<String, Integer> docs = new HashMap<>();
+  private final BitSet deleted = new BitSet();
+  private String[] ids = new String[1024];
+  private int docCount;
+  private final Object refreshLock = new Object();
+  // when the trigger last queued a change (0 for never) and when a search last started reading
+  // the queue
+  private final AtomicLong lastChange = new AtomicLong();
+  private volatile long lastRefresh;
+  // set when the index can't be kept up to date from the queue and has to be built again
+  private volatile boolean stale;
+
+  private StudentSearchIndex(DataRepo dataRepo) {
+    this.dataRepo = dataRepo;
+  }
+
+  /**
+   * Index the students in {@code dataRepo} and keep the index in sync from now on, null when
+   * search is disabled
+   */
+  static StudentSearchIndex create(DataRepo dataRepo) {
+    if (!ENABLED) {
+      return null;
+    }
+    long startTime = System.currentTimeMillis();
+    StudentSearchIndex index = new StudentSearchIndex(dataRepo);
+    try {
+      index.build();
+    } catch (SQLException e) {
+      throw new IllegalStateException("Could not build the search index", e);
+    }
+    // the trigger only queues changes once the index is registered, and nothing writes to the
+    // database before it starts serving
+    String key = dataRepo.getDbName().toUpperCase();
+    INDEXES.put(key, index);
+    dataRepo.onClose(() -> INDEXES.remove(key, index));
+    System.out.printf("✓ Indexed %,d students (%,d distinct words) for search in %,d ms%n",
+        index.docs.size(), index.terms.size(), System.currentTimeMillis() - startTime);
+    return index;
+  }
+
+  /**
+   * (Re)create the queue, the function and the trigger, then index every student. The students
+   * are read in the same snapshot as the queue entries that are thrown away, so changes committed
+   * while building are neither lost nor applied twice.
+   */
+  private void build() throws SQLException {
+    // cleared first, so DDL landing while building marks it stale again
+    stale = false;
+    try (Connection conn = dataRepo.getConnection()) {
+      try (Statement stmt = conn.createStatement()) {
+        stmt.execute("CREATE SCHEMA IF NOT EXISTS SEARCH");
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS SEARCH.CHANGES (
+              SEQ BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+              OLD_ID VARCHAR(40),
+              NEW_ID VARCHAR(40),
+              FIRST_NAME VARCHAR(50),
+              LAST_NAME VARCHAR(50),
+              EMAIL VARCHAR(50),
+              CATCH_PHRASE VARCHAR(200)
+            )""");
+        stmt.execute("CREATE ALIAS IF NOT EXISTS SEARCH_STUDENTS FOR '"
+            + StudentSearchIndex.class.getName() + ".searchStudents'");
+        stmt.execute("CREATE TRIGGER IF NOT EXISTS SEARCH_INDEX_STUDENTS"
+            + " AFTER INSERT, UPDATE, DELETE ON STUDENTS FOR EACH ROW CALL '"
+            + SearchIndexTrigger.class.getName() + "'");
+      }
+
+      conn.setAutoCommit(false);
+      try (Statement stmt = conn.createStatement()) {
+        stmt.execute("SET SESSION CHARACTERISTICS AS TRANSACTION ISOLATION LEVEL SNAPSHOT");
+      }
+      List<Long> seqs = new ArrayList<>();
+      lock.writeLock().lock();
+      try (Statement stmt = conn.createStatement()) {
+        try (ResultSet rs = stmt.executeQuery("SELECT SEQ FROM SEARCH.CHANGES ORDER BY SEQ")) {
+          while (rs.next()) {
+            seqs.add(rs.getLong(1));
+          }
+        }
+        terms.clear();
+        docs.clear();
+        deleted.clear();
+        ids = new String[1024];
+        docCount = 0;
+        try (ResultSet rs = stmt.executeQuery(
+            "SELECT ID, " + String.join(", ", COLUMNS) + " FROM STUDENTS")) {
+          while (rs.next()) {
+            add(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                rs.getString(5));
+          }
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+      deleteQueued(conn, seqs);
+      conn.commit();
+    } catch (SQLException e) {
+      stale = true;
+      throw e;
+    }
+  }
+
+  /**
+   * Called by DataRepo after every DDL statement, flags the index for rebuilding when the
+   * statement took away what keeps it in sync or emptied STUDENTS behind the trigger's back
+   */
+  void afterDdl(String keyword) {
+    if (keyword.startsWith("TRUNCATE") && STUDENTS_TABLE.matcher(keyword).find()) {
+      stale = true;
+      return;
+    }
+    try (Connection conn = dataRepo.getConnection();
+        Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery(INSTALLED_SQL)) {
+      rs.next();
+      if (rs.getInt(1) == 0 || rs.getInt(2) == 0 || rs.getInt(3) == 0) {
+        stale = true;
+      }
+    } catch (SQLException e) {
+      stale = true;
+    }
+  }
+
+  /**
+   * Called by the trigger when the queue is gone
+   */
+  void markStale() {
+    stale = true;
+  }
+
+  /**
+   * Index of the database H2 reports as {@code dbName}, null when it has none
+   */
+  static StudentSearchIndex find(String dbName) {
+    return INDEXES.get(dbName);
+  }
+
+  /**
+   * Called by the trigger after queueing a change
+   */
+  void noteChange() {
+    lastChange.set(System.currentTimeMillis());
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return docs.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Search and return up to {@code limit} matching students in table order, with the total number
+   * of matches
+   *
+   * @param column one of the indexed columns to search only that one, or null for all of them
+   * @throws SQLException when the query has no words or the column isn't indexed
+   */
+  public SqlSearchResult search(String query, SearchMode mode, String column, int limit)
+      throws SQLException {
+    long startTime = System.currentTimeMillis();
+    List<String> words = words(query);
+    int columnIndex = columnIndex(column);
+    List<String> matches = List.of();
+    List<List<Object>> rows = List.of();
+    for (int attempt = 0; attempt < 3; attempt++) {
+      // students that are gone are either a change that just committed, or missed by the trigger
+      // altogether (TRUNCATE), so first read the queue again and then build the index again
+      if (attempt == 2) {
+        stale = true;
+      }
+      refresh(attempt > 0);
+      matches = lookup(words, mode, columnIndex);
+      List<String> page = matches.subList(0, Math.min(limit, matches.size()));
+      rows = fetch(page);
+      if (rows.size() == page.size()) {
+        break;
+      }
+    }
+
+    List<String> columns = new ArrayList<>();
+    columns.add("ID");
+    columns.addAll(COLUMNS);
+    return SqlSearchResult.builder()
+        .query(query)
+        .mode(mode)
+        .total(matches.size())
+        .columns(columns)
+        .rows(rows)
+        .execTimeMs(System.currentTimeMillis() - startTime)
+        .build();
+  }
+
+  /**
+   * The students with these IDs in the same order, skipping any that no longer exist
+   */
+  private List<List<Object>> fetch(List<String> page) throws SQLException {
+    Map<String, List<Object>> found = new HashMap<>();
+    try (Connection conn = dataRepo.getConnection();
+        PreparedStatement stmt = conn.prepareStatement(
+            "SELECT ID, " + String.join(", ", COLUMNS) + " FROM STUDENTS WHERE ID = ANY(?)")) {
+      stmt.setObject(1, page.toArray(new String[0]));
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          Object[] row = new Object[COLUMNS.size() + 1];
+          for (int i = 0; i < row.length; i++) {
+            row[i] = rs.getString(i + 1);
+          }
+          found.put(rs.getString(1), Arrays.asList(row));
+        }
+      }
+    }
+    List<List<Object>> rows = new ArrayList<>();
+    for (String id : page) {
+      List<Object> row = found.get(id);
+      if (row != null) {
+        rows.add(row);
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * IDs of every student matching all words of {@code query}, in table order
+   */
+  public List<String> matchingIds(String query, SearchMode mode, String column)
+      throws SQLException {
+    List<String> words = words(query);
+    int columnIndex = columnIndex(column);
+    refresh(false);
+    return lookup(words, mode, columnIndex);
+  }
+
+  private static List<String> words(String query) throws SQLException {
+    List<String> words = tokenize(query);
+    if (words.isEmpty()) {
+      throw new SQLException("Search for at least one letter or digit");
+    }
+    return words;
+  }
+
+  private static int columnIndex(String column) throws SQLException {
+    if (column == null || column.isBlank()) {
+      return -1;
+    }
+    int columnIndex = COLUMNS.indexOf(column.trim().toUpperCase());
+    if (columnIndex < 0) {
+      throw new SQLException("Search covers " + String.join(", ", COLUMNS) + " only");
+    }
+    return columnIndex;
+  }
+
+  private List<String> lookup(List<String> words, SearchMode mode, int columnIndex) {
+    lock.readLock().lock();
+    try {
+      BitSet result = null;
+      for (String word : words) {
+        BitSet hits = new BitSet(docCount);
+        for (Postings postings : postingsFor(word, mode)) {
+          postings.collect(hits, columnIndex);
+        }
+        if (result == null) {
+          result = hits;
+        } else {
+          result.and(hits);
+        }
+      }
+      result.andNot(deleted);
+      List<String> matches = new ArrayList<>(result.cardinality());
+      for (int doc = result.nextSetBit(0); doc >= 0; doc = result.nextSetBit(doc + 1)) {
+        matches.add(ids[doc]);
+      }
+      return matches;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private List<Postings> postingsFor(String word, SearchMode mode) {
+    List<Postings> matches = new ArrayList<>();
+    switch (mode) {
+      case WORD -> {
+        Postings postings = terms.get(word);
+        if (postings != null) {
+          matches.add(postings);
+        }
+      }
+      case PREFIX -> {
+        for (Map.Entry<String, Postings> entry : terms.tailMap(word).entrySet()) {
+          if (!entry.getKey().startsWith(word)) {
+            break;
+          }
+          matches.add(entry.getValue());
+        }
+      }
+      case SUBSTRING -> terms.forEach((term, postings) -> {
+        if (term.contains(word)) {
+          matches.add(postings);
+        }
+      });
+    }
+    return matches;
+  }
+
+  /**
+   * Apply the committed changes the trigger queued since the last search, or build the index
+   * again when it is stale. The queue is read again while a recent change may still be waiting
+   * for its transaction to commit (or always with {@code force}), and the index is only locked
+   * for writing when there is something to apply.
+   */
+  private void refresh(boolean force) throws SQLException {
+    long changed = lastChange.get();
+    if (!force && !stale && (changed == 0 || changed < lastRefresh
+        && System.currentTimeMillis() - changed > PENDING_GIVE_UP_MS)) {
+      return;
+    }
+    synchronized (refreshLock) {
+      if (stale) {
+        long startTime = System.currentTimeMillis();
+        build();
+        AppLog.info("search", "Rebuilt the search index of %s (%,d students) in %,d ms"
+            .formatted(dataRepo.getDbName(), size(), System.currentTimeMillis() - startTime));
+        return;
+      }
+      lastRefresh = System.currentTimeMillis();
+      try (Connection conn = dataRepo.getConnection()) {
+        conn.setAutoCommit(false);
+        List<Long> seqs = new ArrayList<>();
+        List<String[]> changes = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+            ResultSet rs = queryQueue(stmt)) {
+          if (rs == null) {
+            return;
+          }
+          while (rs.next()) {
+            seqs.add(rs.getLong(1));
+            changes.add(new String[] {rs.getString(2), rs.getString(3), rs.getString(4),
+                rs.getString(5), rs.getString(6), rs.getString(7)});
+          }
+        }
+        if (changes.isEmpty()) {
+          return;
+        }
+        apply(changes);
+        deleteQueued(conn, seqs);
+        conn.commit();
+      }
+    }
+  }
+
+  /**
+   * Read the queue, or null when a student dropped it and the index is now stale
+   */
+  private ResultSet queryQueue(Statement stmt) throws SQLException {
+    try {
+      return stmt.executeQuery("""
+          SELECT SEQ, OLD_ID, NEW_ID, FIRST_NAME, LAST_NAME, EMAIL, CATCH_PHRASE
+          FROM SEARCH.CHANGES ORDER BY SEQ""");
+    } catch (SQLException e) {
+      if (!DataRepo.isMissingTable(e)) {
+        throw e;
+      }
+      stale = true;
+      return null;
+    }
+  }
+
+  private static void deleteQueued(Connection conn, List<Long> seqs) throws SQLException {
+    // delete runs of consecutive numbers by range, a long ANY(?) list is slow to match; gaps are
+    // changes of transactions still open
+    try (PreparedStatement stmt = conn.prepareStatement(
+        "DELETE FROM SEARCH.CHANGES WHERE SEQ BETWEEN ? AND ?")) {
+      for (int start = 0, end; start < seqs.size(); start = end) {
+        end = start + 1;
+        while (end < seqs.size() && seqs.get(end) == seqs.get(end - 1) + 1) {
+          end++;
+        }
+        stmt.setLong(1, seqs.get(start));
+        stmt.setLong(2, seqs.get(end - 1));
+        stmt.addBatch();
+      }
+      stmt.executeBatch();
+    }
+  }
+
+  /**
+   * Apply queued {@code OLD_ID, NEW_ID, texts...} changes in order
+   */
+  private void apply(List<String[]> changes) {
+    lock.writeLock().lock();
+    try {
+      for (String[] change : changes) {
+        if (change[0] != null) {
+          remove(change[0]);
+        }
+        if (change[1] != null) {
+          add(change[1], Arrays.copyOfRange(change, 2, change.length));
+        }
+      }
+      if (deleted.cardinality() > Math.max(MIN_DEAD_TO_COMPACT, docs.size() / 4)) {
+        compact();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void add(String id, String... texts) {
+    remove(id);
+    int doc = docCount++;
+    if (doc == ids.length) {
+      ids = Arrays.copyOf(ids, ids.length * 2);
+    }
+    ids[doc] = id;
+    docs.put(id, doc);
+    for (int column = 0; column < texts.length; column++) {
+      for (String word : tokenize(texts[column])) {
+        terms.computeIfAbsent(word, w -> new Postings()).add(doc << COLUMN_BITS | column);
+      }
+    }
+  }
+
+  private void remove(String id) {
+    Integer doc = docs.remove(id);
+    if (doc != null) {
+      deleted.set(doc);
+      ids[doc] = null;
+    }
+  }
+
+  /**
+   * Renumber the live documents and drop postings of removed ones
+   */
+  private void compact() {
+    int[] renumbered = new int[docCount];
+    int live = 0;
+    String[] liveIds = new String[Math.max(1024, docs.size() * 2)];
+    for (int doc = 0; doc < docCount; doc++) {
+      if (deleted.get(doc)) {
+        renumbered[doc] = -1;
+      } else {
+        renumbered[doc] = live;
+        liveIds[live] = ids[doc];
+        docs.put(ids[doc], live);
+        live++;
+      }
+    }
+    terms.values().removeIf(postings -> postings.renumber(renumbered) == 0);
+    ids = liveIds;
+    docCount = live;
+    deleted.clear();
+  }
+
+  /**
+   * Lower-case words of letters and digits in {@code text}
+   */
+  static List<String> tokenize(String text) {
+    List<String> words = new ArrayList<>();
+    if (text == null) {
+      return words;
+    }
+    String lower = text.toLowerCase(Locale.ROOT);
+    int start = -1;
+    for (int i = 0; i <= lower.length(); i++) {
+      boolean inWord = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+      if (inWord && start < 0) {
+        start = i;
+      } else if (!inWord && start >= 0) {
+        words.add(lower.substring(start, i));
+        start = -1;
+      }
+    }
+    return words;
+  }
+
+  /**
+   * {@code SEARCH_STUDENTS(query)}: IDs of students matching every word of {@code query} as a
+   * substring
+   */
+  public static ResultSet searchStudents(Connection conn, String query) throws SQLException {
+    return searchStudents(conn, query, SearchMode.SUBSTRING.name(), null);
+  }
+
+  /**
+   * {@code SEARCH_STUDENTS(query, mode)} with mode {@code 'word'}, {@code 'prefix'} or
+   * {@code 'substring'}
+   */
+  public static ResultSet searchStudents(Connection conn, String query, String mode)
+      throws SQLException {
+    return searchStudents(conn, query, mode, null);
+  }
+
+  /**
+   * {@code SEARCH_STUDENTS(query, mode, column)} searching only one of the indexed columns
+   */
+  public static ResultSet searchStudents(Connection conn, String query, String mode,
+      String column) throws SQLException {
+    SimpleResultSet result = new SimpleResultSet();
+    result.addColumn("ID", Types.VARCHAR, 40, 0);
+    if (conn.getMetaData().getURL().equals("jdbc:columnlist:connection")) {
+      // H2 only wants to know the columns
+      return result;
+    }
+
+    String dbName;
+    try (Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT DATABASE()")) {
+      rs.next();
+      dbName = rs.getString(1);
+    }
+    StudentSearchIndex index = find(dbName);
+    if (index == null) {
+      throw new SQLException("Search isn't available in this database");
+    }
+    for (String id : index.matchingIds(query == null ? "" : query, parseMode(mode), column)) {
+      result.addRow(id);
+    }
+    return result;
+  }
+
+  /**
+   * @throws SQLException when {@code mode} isn't one of the {@link SearchMode}s
+   */
+  public static SearchMode parseMode(String mode) throws SQLException {
+    try {
+      return SearchMode.valueOf(mode.trim().toUpperCase());
+    } catch (IllegalArgumentException | NullPointerException e) {
+      throw new SQLException("Search mode must be word, prefix or substring");
+    }
+  }
+
+  /**
+   * Growable sorted list of {@code document << COLUMN_BITS | column} entries
+   */
+  private static class Postings {
+
+    private int[] entries = new int[2];
+    private int size;
+
+    private void add(int entry) {
+      // a word repeated in the same column of the same student is only listed once
+      if (size > 0 && entries[size - 1] == entry) {
+        return;
+      }
+      if (size == entries.length) {
+        entries = Arrays.copyOf(entries, size * 2);
+      }
+      entries[size++] = entry;
+    }
+
+    private void collect(BitSet hits, int column) {
+      for (int i = 0; i < size; i++) {
+        int entry = entries[i];
+        if (column < 0 || (entry & COLUMN_MASK) == column) {
+          hits.set(entry >>> COLUMN_BITS);
+        }
+      }
+    }
+
+    /**
+     * Map documents through {@code renumbered}, dropping removed ones, and return what's left
+     */
+    private int renumber(int[] renumbered) {
+      int kept = 0;
+      for (int i = 0; i < size; i++) {
+        int doc = renumbered[entries[i] >>> COLUMN_BITS];
+        if (doc >= 0) {
+          entries[kept++] = doc << COLUMN_BITS | entries[i] & COLUMN_MASK;
+        }
+      }
+      size = kept;
+      if (entries.length > Math.max(2, size * 2)) {
+        entries = Arrays.copyOf(entries, Math.max(2, size));
+      }
+      return size;
+    }
+  }
+}
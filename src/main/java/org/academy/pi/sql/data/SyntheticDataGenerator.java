@@ -0,0 +1,265 @@
+package org.academy.pi.sql.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates synthetic STUDENTS and FAVORITES rows on top of the seed data so the app can be tried
+ * at realistic (and silly) data sizes. Value pools are sampled from the seeded tables and the
+ * categorical columns follow the distributions of the original mockaroo export. Every batch draws
+ * from its own random stream derived from the seed, so the output does not depend on how the
+ * batches are scheduled across threads.
+ */
+public class SyntheticDataGenerator {
+
+  private static final int BATCH_SIZE = 5_000;
+
+  private static final String[] GENDERS = {null, "Female", "Male", "Non-binary", "Genderfluid",
+      "Bigender", "Genderqueer", "Agender", "Polygender"};
+  private static final int[] GENDER_WEIGHTS = {115, 410, 387, 19, 17, 15, 13, 12, 12};
+
+  private static final String[] IS_GOOD = {"Yearly", "Weekly", "Seldom", "Often", "Daily", "Once",
+      "Monthly", "Never"};
+  private static final int[] IS_GOOD_WEIGHTS = {142, 142, 135, 124, 119, 115, 112, 111};
+
+  private static final String[] SHIRT_SIZES = {null, "L", "S", "3XL", "XL", "XS", "M", "2XL"};
+  private static final int[] SHIRT_SIZE_WEIGHTS = {449, 94, 86, 81, 78, 72, 72, 68};
+
+  private static final String[] CATEGORIES = {"COLOR", "BUZZWORD", "MOBILE_PHONE", "ANIMAL",
+      "PLANT"};
+
+  private static final double NULL_USERNAME_RATE = 0.058;
+  private static final double NULL_EMAIL_RATE = 0.025;
+  private static final double NULL_IP_ADDRESS_RATE = 0.252;
+  private static final double HAS_FAVORITES_RATE = 0.42;
+  private static final double MISSING_ONE_FAVORITE_RATE = 0.026;
+
+  private static final long FIRST_TIMESTAMP = Timestamp.valueOf("2024-06-06 00:00:00").getTime();
+  private static final long LAST_TIMESTAMP = Timestamp.valueOf("2025-06-06 00:00:00").getTime();
+
+  private static final String INSERT_STUDENT = """
+      INSERT INTO STUDENTS (ID, USERNAME, FIRST_NAME, LAST_NAME, EMAIL, GENDER, IP_ADDRESS,
+        IS_GOOD, ENCRYPTED_PASSWORD, OPT_OUT, TEAM_COLOR, CATCH_PHRASE, SHIRT_SIZE,
+        UPDATED_TIMESTAMP)
+      VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+      """;
+  private static final String INSERT_FAVORITE =
+      "INSERT INTO FAVORITES (STUDENT_ID, CATEGORY, FAVORITE) VALUES (?, ?, ?)";
+
+  private final DataRepo dataRepo;
+  private final long seed;
+  private final int threads;
+
+  private List<String> firstNames;
+  private List<String> lastNames;
+  private List<String> emailDomains;
+  private List<String> phraseStarts;
+  private List<String> phraseMiddles;
+  private List<String> phraseEnds;
+  private List<List<String>> favorites;
+
+  public SyntheticDataGenerator(DataRepo dataRepo, long seed) {
+    this(dataRepo, seed, Runtime.getRuntime().availableProcessors());
+  }
+
+  public SyntheticDataGenerator(DataRepo dataRepo, long seed, int threads) {
+    this.dataRepo = dataRepo;
+    this.seed = seed;
+    this.threads = Math.max(1, threads);
+  }
+
+  /**
+   * Insert {@code studentCount} synthetic students (and their favorites) in parallel batches.
+   *
+   * @return the number of FAVORITES rows inserted alongside the students
+   */
+  public long generate(long studentCount) throws SQLException {
+    loadValuePools();
+
+    long batchCount = (studentCount + BATCH_SIZE - 1) / BATCH_SIZE;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Long>> batches = new ArrayList<>();
+      for (long batch = 0; batch < batchCount; batch++) {
+        long firstRow = batch * BATCH_SIZE;
+        int rows = (int) Math.min(BATCH_SIZE, studentCount - firstRow);
+        long batchIndex = batch;
+        batches.add(executor.submit(() -> insertBatch(batchIndex, firstRow, rows)));
+      }
+
+      long favoriteCount = 0;
+      for (Future<Long> batch : batches) {
+        favoriteCount += batch.get();
+      }
+      return favoriteCount;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Synthetic data generation interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof SQLException sqlException) {
+        throw sqlException;
+      }
+      throw new SQLException("Synthetic data generation failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private long insertBatch(long batchIndex, long firstRow, int rows) throws SQLException {
+    SplittableRandom random = new SplittableRandom(mix(seed + batchIndex * 0x9E3779B97F4A7C15L));
+    long favoriteCount = 0;
+
+    try (Connection conn = dataRepo.getConnection();
+        PreparedStatement students = conn.prepareStatement(INSERT_STUDENT);
+        PreparedStatement favoriteRows = conn.prepareStatement(INSERT_FAVORITE)) {
+      conn.setAutoCommit(false);
+
+      for (int i = 0; i < rows; i++) {
+        String id = new UUID(random.nextLong() & ~0xF000L | 0x4000L,
+            random.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L).toString();
+        String firstName = pick(random, firstNames);
+        String lastName = pick(random, lastNames);
+        String username = (firstName.charAt(0) + lastName).toLowerCase() + (firstRow + i);
+
+        students.setString(1, id);
+        students.setString(2, random.nextDouble() < NULL_USERNAME_RATE ? null : username);
+        students.setString(3, firstName);
+        students.setString(4, lastName);
+        students.setString(5, random.nextDouble() < NULL_EMAIL_RATE
+            ? null : username + "@" + pick(random, emailDomains));
+        students.setString(6, pick(random, GENDERS, GENDER_WEIGHTS));
+        students.setString(7, random.nextDouble() < NULL_IP_ADDRESS_RATE ? null
+            : random.nextInt(1, 256) + "." + random.nextInt(256) + "."
+                + random.nextInt(256) + "." + random.nextInt(256));
+        students.setString(8, pick(random, IS_GOOD, IS_GOOD_WEIGHTS));
+        students.setString(9, "%016x%016x%08x".formatted(
+            random.nextLong(), random.nextLong(), random.nextInt()));
+        students.setBoolean(10, random.nextBoolean());
+        students.setString(11, "#%06x".formatted(random.nextInt(0x1000000)));
+        students.setString(12, catchPhrase(random));
+        students.setString(13, pick(random, SHIRT_SIZES, SHIRT_SIZE_WEIGHTS));
+        students.setTimestamp(14,
+            new Timestamp(random.nextLong(FIRST_TIMESTAMP, LAST_TIMESTAMP) / 1000 * 1000));
+        students.addBatch();
+
+        if (random.nextDouble() < HAS_FAVORITES_RATE) {
+          int skipped = random.nextDouble() < MISSING_ONE_FAVORITE_RATE
+              ? random.nextInt(CATEGORIES.length) : -1;
+          for (int c = 0; c < CATEGORIES.length; c++) {
+            if (c == skipped) {
+              continue;
+            }
+            favoriteRows.setString(1, id);
+            favoriteRows.setString(2, CATEGORIES[c]);
+            favoriteRows.setString(3, pick(random, favorites.get(c)));
+            favoriteRows.addBatch();
+            favoriteCount++;
+          }
+        }
+      }
+
+      students.executeBatch();
+      favoriteRows.executeBatch();
+      conn.commit();
+    }
+    return favoriteCount;
+  }
+
+  private String catchPhrase(SplittableRandom random) {
+    return pick(random, phraseStarts) + " " + pick(random, phraseMiddles) + " "
+        + pick(random, phraseEnds);
+  }
+
+  /**
+   * Sample the free-text pools from the seed tables. Duplicates are kept on purpose so that common
+   * values stay common in the generated data.
+   */
+  private void loadValuePools() throws SQLException {
+    try (Connection conn = dataRepo.getConnection();
+        Statement stmt = conn.createStatement()) {
+      firstNames = column(stmt, "SELECT FIRST_NAME FROM STUDENTS ORDER BY ID");
+      lastNames = column(stmt, "SELECT LAST_NAME FROM STUDENTS ORDER BY ID");
+      emailDomains = column(stmt, """
+          SELECT SUBSTRING(EMAIL, LOCATE('@', EMAIL) + 1) FROM STUDENTS
+          WHERE EMAIL IS NOT NULL ORDER BY ID
+          """);
+
+      phraseStarts = new ArrayList<>();
+      phraseMiddles = new ArrayList<>();
+      phraseEnds = new ArrayList<>();
+      for (String phrase : column(stmt,
+          "SELECT CATCH_PHRASE FROM STUDENTS WHERE CATCH_PHRASE IS NOT NULL ORDER BY ID")) {
+        String[] words = phrase.split(" ");
+        if (words.length < 3) {
+          continue;
+        }
+        phraseStarts.add(words[0]);
+        phraseMiddles.add(words[1]);
+        phraseEnds.add(String.join(" ", List.of(words).subList(2, words.length)));
+      }
+
+      favorites = new ArrayList<>();
+      for (String category : CATEGORIES) {
+        favorites.add(column(stmt,
+            "SELECT FAVORITE FROM FAVORITES WHERE CATEGORY = '%s' ORDER BY STUDENT_ID"
+                .formatted(category)));
+      }
+    }
+
+    if (firstNames.isEmpty() || phraseStarts.isEmpty()
+        || favorites.stream().anyMatch(List::isEmpty)) {
+      throw new SQLException("Seed data is missing, cannot sample synthetic values");
+    }
+  }
+
+  /**
+   * Scramble the per-batch seed, SplittableRandom streams from seeds a multiple of its gamma apart
+   * would otherwise overlap and repeat each other's IDs
+   */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  private static List<String> column(Statement stmt, String sql) throws SQLException {
+    List<String> values = new ArrayList<>();
+    try (ResultSet rs = stmt.executeQuery(sql)) {
+      while (rs.next()) {
+        values.add(rs.getString(1));
+      }
+    }
+    return values;
+  }
+
+  private static String pick(SplittableRandom random, List<String> values) {
+    return values.get(random.nextInt(values.size()));
+  }
+
+  private static String pick(SplittableRandom random, String[] values, int[] weights) {
+    int total = 0;
+    for (int weight : weights) {
+      total += weight;
+    }
+    int roll = random.nextInt(total);
+    for (int i = 0; i < values.length; i++) {
+      roll -= weights[i];
+      if (roll < 0) {
+        return values[i];
+      }
+    }
+    return values[values.length - 1];
+  }
+}
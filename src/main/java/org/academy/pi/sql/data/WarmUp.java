@@ -0,0 +1,132 @@
+package org.academy.pi.sql.data;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import org.academy.pi.sql.logging.AppLog;
+import org.academy.pi.sql.models.ApiResponse;
+import org.academy.pi.sql.models.ApiResponseType;
+import org.academy.pi.sql.models.SqlNamedQuery;
+import org.academy.pi.sql.models.SqlQueryResult;
+
+/**
+ * Replays the sample queries in the background right after startup so the first students to
+ * click one don't pay for a cold JIT and H2 parsing each query shape for the first time.
+ *
+ * <p>Each round runs every sample SELECT, every sample INSERT/UPDATE/DELETE inside a transaction
+ * that is rolled back, and serializes each result to JSON the way the API does. Rounds repeat
+ * until the last few take about the same time or the time budget runs out. DDL samples are skipped
+ * because H2 commits them straight away. Enable with {@code -Dsqllearning.warmup=true}.
+ */
+public class WarmUp {
+
+  private static final boolean ENABLED = Boolean.getBoolean("sqllearning.warmup");
+  private static final long BUDGET_MS = Long.getLong("sqllearning.warmup.budgetMs", 15_000);
+  private static final int MIN_ROUNDS = 5;
+  private static final int STABLE_ROUNDS = 3;
+  // the last STABLE_ROUNDS rounds may differ by at most this much
+  private static final double STABLE_SPREAD = 0.10;
+
+  private final DataRepo dataRepo;
+  private final ObjectMapper objectMapper;
+  private volatile boolean warming;
+  private Thread thread;
+
+  public WarmUp(DataRepo dataRepo, ObjectMapper objectMapper) {
+    this.dataRepo = dataRepo;
+    this.objectMapper = objectMapper;
+  }
+
+  public boolean isWarming() {
+    return warming;
+  }
+
+  /**
+   * Start warming up in a low-priority background thread, does nothing unless enabled
+   */
+  public synchronized void start() {
+    if (!ENABLED || thread != null) {
+      return;
+    }
+    warming = true;
+    thread = new Thread(this::run, "warm-up");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    thread.start();
+  }
+
+  public synchronized void stop() {
+    if (thread != null) {
+      thread.interrupt();
+    }
+  }
+
+  private void run() {
+    List<SqlNamedQuery> queries = dataRepo.getDataset().sampleQueries();
+    long startNanos = System.nanoTime();
+    long deadline = startNanos + BUDGET_MS * 1_000_000;
+    Deque<Long> recent = new ArrayDeque<>();
+    long firstRound = 0;
+    int rounds = 0;
+    boolean stable = false;
+    try {
+      while (!stable && System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+        long roundNanos = runRound(queries);
+        if (rounds++ == 0) {
+          firstRound = roundNanos;
+        }
+        recent.addLast(roundNanos);
+        if (recent.size() > STABLE_ROUNDS) {
+          recent.removeFirst();
+        }
+        stable = rounds >= MIN_ROUNDS && recent.size() == STABLE_ROUNDS
+            && Collections.max(recent) <= Collections.min(recent) * (1 + STABLE_SPREAD);
+      }
+      System.out.printf("✓ Warm-up %s after %d rounds in %,d ms"
+              + " (first round %.1f ms, last %.1f ms)%n", stable ? "settled" : "stopped", rounds,
+          (System.nanoTime() - startNanos) / 1_000_000, firstRound / 1e6,
+          recent.isEmpty() ? 0 : recent.getLast() / 1e6);
+    } catch (Exception e) {
+      AppLog.error("warmup", "Warm-up failed", e);
+    } finally {
+      warming = false;
+    }
+  }
+
+  /**
+   * Run every sample query once, returning how long the whole round took
+   */
+  private long runRound(List<SqlNamedQuery> queries) throws IOException {
+    long startNanos = System.nanoTime();
+    for (SqlNamedQuery query : queries) {
+      String sql = query.getQuery();
+      String keyword = sql.trim().toUpperCase();
+      boolean dml = keyword.startsWith("INSERT") || keyword.startsWith("UPDATE")
+          || keyword.startsWith("DELETE") || keyword.startsWith("MERGE");
+      if (!DataRepo.isQuery(keyword) && !dml) {
+        continue;
+      }
+      try (Connection conn = dataRepo.getConnection()) {
+        conn.setAutoCommit(!dml);
+        try {
+          SqlQueryResult result = dataRepo.runQuery(conn, sql, 0);
+          objectMapper.writeValue(OutputStream.nullOutputStream(),
+              ApiResponse.success(ApiResponseType.TABLE, result));
+        } finally {
+          if (dml) {
+            conn.rollback();
+          }
+        }
+      } catch (SQLException e) {
+        // a student may already have changed the rows a sample touches, keep going
+      }
+    }
+    return System.nanoTime() - startNanos;
+  }
+}
@@ -0,0 +1,26 @@
+package org.academy.pi.sql.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.academy.pi.sql.ConnectionAcquire")
+@Label("Connection Acquire")
+@Description("Time spent opening a JDBC connection to an H2 database")
+@Category({"SQL Learning", "Database"})
+@StackTrace(false)
+public class ConnectionAcquireEvent extends Event {
+
+  @Label("Database")
+  String database;
+
+  public void complete(String database) {
+    if (shouldCommit()) {
+      this.database = database;
+      commit();
+    }
+  }
+}
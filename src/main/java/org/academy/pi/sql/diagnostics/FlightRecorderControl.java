@@ -0,0 +1,168 @@
+package org.academy.pi.sql.diagnostics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Stream;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.academy.pi.sql.logging.AppLog;
+import org.academy.pi.sql.models.SqlRecordingInfo;
+
+/**
+ * Starts, stops and dumps Java Flight Recorder recordings while the server runs. The usual setup is
+ * a long-running recording that only keeps the last {@code maxAge} minutes, dumped to a file right
+ * after something went wrong. Recordings started with {@code -XX:StartFlightRecording} or
+ * {@code jcmd JFR.start} are included in dumps too. Only the newest {@code sqllearning.jfr.keep}
+ * files (default 10) are kept, so repeated dumps can't fill the disk.
+ */
+public class FlightRecorderControl {
+
+  private static final String RECORDING_NAME = "sqllearning";
+  private static final Path DUMP_DIR =
+      Path.of(System.getProperty("sqllearning.jfr.dir", "recordings"));
+  private static final DateTimeFormatter FILE_TIMESTAMP =
+      DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+  private static final int KEEP_FILES = Integer.getInteger("sqllearning.jfr.keep", 10);
+  private static final Duration MAX_AGE = Duration.ofHours(2);
+  private static final long MAX_SIZE_BYTES = 256L * 1024 * 1024;
+
+  private Recording recording;
+
+  /**
+   * Start the app's recording, keeping at most {@code maxAge} and {@code maxSizeBytes} of data
+   * (capped at 2 hours and 256 MB)
+   *
+   * @param settings a JFR configuration name, {@code default} (about 1% overhead) or
+   *     {@code profile}
+   * @throws IllegalStateException when the recording is already running
+   */
+  public synchronized SqlRecordingInfo start(String settings, Duration maxAge, long maxSizeBytes)
+      throws IOException {
+    if (recording != null) {
+      throw new IllegalStateException("A recording is already running, stop or dump it first");
+    }
+    Configuration configuration;
+    try {
+      configuration = Configuration.getConfiguration(settings);
+    } catch (ParseException | IOException e) {
+      throw new IllegalArgumentException("Unknown JFR settings: " + settings);
+    }
+
+    Recording started = new Recording(configuration);
+    started.setName(RECORDING_NAME);
+    started.setToDisk(true);
+    started.setMaxAge(maxAge.compareTo(MAX_AGE) > 0 || maxAge.isNegative() || maxAge.isZero()
+        ? MAX_AGE : maxAge);
+    started.setMaxSize(maxSizeBytes <= 0 ? MAX_SIZE_BYTES : Math.min(maxSizeBytes, MAX_SIZE_BYTES));
+    started.enable(HttpRequestEvent.class);
+    started.enable(ConnectionAcquireEvent.class);
+    started.enable(StatementExecutionEvent.class);
+    started.enable(RowMaterializationEvent.class);
+    started.enable(SerializationEvent.class);
+    started.start();
+    recording = started;
+    AppLog.info("jfr", "Flight recording started (%s settings, last %d min)".formatted(settings,
+        started.getMaxAge().toMinutes()));
+    return info(started, null);
+  }
+
+  /**
+   * Stop the app's recording and write everything it kept to a file
+   *
+   * @throws IllegalStateException when no recording is running
+   */
+  public synchronized SqlRecordingInfo stop() throws IOException {
+    if (recording == null) {
+      throw new IllegalStateException("No recording is running");
+    }
+    Recording stopped = recording;
+    recording = null;
+    try (stopped) {
+      stopped.stop();
+      Path file = dumpFile();
+      stopped.dump(file);
+      AppLog.info("jfr", "Flight recording saved to " + file);
+      return info(stopped, file);
+    }
+  }
+
+  /**
+   * Write what every running recording has captured so far to a file, leaving them running
+   *
+   * @throws IllegalStateException when nothing is being recorded
+   */
+  public SqlRecordingInfo dump() throws IOException {
+    FlightRecorder recorder = FlightRecorder.getFlightRecorder();
+    if (recorder.getRecordings().stream().noneMatch(r -> r.getState() == RecordingState.RUNNING)) {
+      throw new IllegalStateException("No recording is running");
+    }
+    try (Recording snapshot = recorder.takeSnapshot()) {
+      Path file = dumpFile();
+      snapshot.dump(file);
+      AppLog.info("jfr", "Flight recording dumped to " + file);
+      return info(snapshot, file);
+    }
+  }
+
+  /**
+   * Every recording in this JVM, including ones started from the command line or jcmd
+   */
+  public List<SqlRecordingInfo> recordings() {
+    if (!FlightRecorder.isAvailable()) {
+      return List.of();
+    }
+    return FlightRecorder.getFlightRecorder().getRecordings().stream()
+        .map(r -> info(r, null))
+        .toList();
+  }
+
+  /**
+   * Stop the app's recording without saving it, on shutdown
+   */
+  public synchronized void close() {
+    if (recording != null) {
+      recording.close();
+      recording = null;
+    }
+  }
+
+  /**
+   * New file to dump to, making room for it by deleting the oldest dumps
+   */
+  private static Path dumpFile() throws IOException {
+    Files.createDirectories(DUMP_DIR);
+    List<Path> dumps;
+    try (Stream<Path> files = Files.list(DUMP_DIR)) {
+      // the timestamp in the name sorts oldest first
+      dumps = files.filter(f -> f.getFileName().toString().matches("sqllearning-.*\\.jfr"))
+          .sorted()
+          .toList();
+    }
+    for (int i = 0; i <= dumps.size() - Math.max(1, KEEP_FILES); i++) {
+      Files.deleteIfExists(dumps.get(i));
+    }
+    return DUMP_DIR.resolve("sqllearning-%s.jfr".formatted(
+        FILE_TIMESTAMP.format(LocalDateTime.now()))).toAbsolutePath();
+  }
+
+  private static SqlRecordingInfo info(Recording recording, Path file) {
+    Duration maxAge = recording.getMaxAge();
+    return SqlRecordingInfo.builder()
+        .id(recording.getId())
+        .name(recording.getName())
+        .state(recording.getState().name())
+        .startTime(recording.getStartTime() == null ? null : recording.getStartTime().toString())
+        .maxAgeSeconds(maxAge == null ? 0 : maxAge.toSeconds())
+        .sizeBytes(recording.getSize())
+        .file(file == null ? null : file.toString())
+        .build();
+  }
+}
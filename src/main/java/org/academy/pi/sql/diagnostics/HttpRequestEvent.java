@@ -0,0 +1,40 @@
+package org.academy.pi.sql.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.academy.pi.sql.HttpRequest")
+@Label("HTTP Request")
+@Description("One request handled by the SQL Learning API, from first filter to last byte")
+@Category({"SQL Learning", "HTTP"})
+@StackTrace(false)
+class HttpRequestEvent extends Event {
+
+  @Label("Method")
+  String method;
+
+  @Label("Path")
+  String path;
+
+  @Label("Status")
+  int status;
+
+  @Label("Query Fingerprint")
+  String fingerprint;
+
+  @Label("Rows")
+  long rows;
+
+  @Label("Bytes Read")
+  @DataAmount
+  long bytesRead;
+
+  @Label("Bytes Written")
+  @DataAmount
+  long bytesWritten;
+}
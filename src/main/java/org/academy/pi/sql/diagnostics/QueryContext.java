@@ -0,0 +1,102 @@
+package org.academy.pi.sql.diagnostics;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * The query the current HTTP request ran and the bytes it moved, so request events, serialization
+ * events and the access log can be tied to the statements it caused. Only set while
+ * {@link RequestEventFilter} is handling a request; everywhere else (the console, startup) noting a
+ * query does nothing.
+ */
+@UtilityClass
+public class QueryContext {
+
+  private static final ThreadLocal<State> CURRENT = new ThreadLocal<>();
+
+  static final class State {
+
+    private String sql;
+    private long rows = -1;
+    private String fingerprint;
+    private CountingInputStream in;
+    private CountingOutputStream out;
+
+    String fingerprint() {
+      if (fingerprint == null && sql != null) {
+        fingerprint = QueryFingerprint.of(sql);
+      }
+      return fingerprint;
+    }
+
+    long rows() {
+      return rows;
+    }
+
+    /**
+     * Count the bytes that go through {@code in} and {@code out} for this request
+     */
+    void countBytes(CountingInputStream in, CountingOutputStream out) {
+      this.in = in;
+      this.out = out;
+    }
+  }
+
+  /**
+   * Remember the statement this request ran and how many rows it returned or changed
+   */
+  public static void noteQuery(String sql, long rows) {
+    State state = CURRENT.get();
+    if (state != null) {
+      state.sql = sql;
+      state.rows = rows;
+      state.fingerprint = null;
+    }
+  }
+
+  /**
+   * Fingerprint of the query noted for this request, or null
+   */
+  public static String fingerprint() {
+    State state = CURRENT.get();
+    return state == null ? null : state.fingerprint();
+  }
+
+  /**
+   * The query noted for this request, or null
+   */
+  public static String sql() {
+    State state = CURRENT.get();
+    return state == null ? null : state.sql;
+  }
+
+  public static long rows() {
+    State state = CURRENT.get();
+    return state == null ? -1 : state.rows;
+  }
+
+  /**
+   * Request body bytes read so far, or -1 outside a request
+   */
+  public static long bytesRead() {
+    State state = CURRENT.get();
+    return state == null || state.in == null ? -1 : state.in.getCount();
+  }
+
+  /**
+   * Response body bytes written so far, or -1 outside a request
+   */
+  public static long bytesWritten() {
+    State state = CURRENT.get();
+    return state == null || state.out == null ? -1 : state.out.getCount();
+  }
+
+  static State open() {
+    State state = new State();
+    CURRENT.set(state);
+    return state;
+  }
+
+  static void close() {
+    CURRENT.remove();
+  }
+}
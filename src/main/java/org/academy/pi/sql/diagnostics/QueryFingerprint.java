@@ -0,0 +1,139 @@
+package org.academy.pi.sql.diagnostics;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Groups queries that only differ in their literals, spacing, case or comments, so a recording can
+ * be summarised per query shape ({@code SELECT * FROM STUDENTS WHERE FIRST_NAME = ?}) instead of
+ * per exact text.
+ */
+@UtilityClass
+public class QueryFingerprint {
+
+  private static final int MAX_NORMALIZED_LENGTH = 512;
+
+  /**
+   * Short stable id of the query's shape, 16 hex digits
+   */
+  public static String of(String sql) {
+    String normalized = normalize(sql);
+    long h = 0xCBF29CE484222325L;
+    for (int i = 0; i < normalized.length(); i++) {
+      h = (h ^ normalized.charAt(i)) * 0x100000001B3L;
+    }
+    return "%016x".formatted(h);
+  }
+
+  /**
+   * Upper-case the query, drop comments, normalise spacing and replace string and number literals
+   * (and lists of them) with {@code ?}. Quoted identifiers are kept as written.
+   */
+  public static String normalize(String sql) {
+    StringBuilder out = new StringBuilder(Math.min(sql.length(), MAX_NORMALIZED_LENGTH));
+    boolean space = false;
+    int i = 0;
+    int n = sql.length();
+    while (i < n && out.length() < MAX_NORMALIZED_LENGTH) {
+      char c = sql.charAt(i);
+      if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+        while (i < n && sql.charAt(i) != '\n') {
+          i++;
+        }
+        space = true;
+      } else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+        int end = sql.indexOf("*/", i + 2);
+        i = end < 0 ? n : end + 2;
+        space = true;
+      } else if (Character.isWhitespace(c) || c == ';') {
+        space = true;
+        i++;
+      } else if (c == '\'') {
+        i = skipQuoted(sql, i, '\'');
+        appendPlaceholder(out, space);
+        space = false;
+      } else if (c == '"') {
+        int end = skipQuoted(sql, i, '"');
+        separate(out, c, space);
+        out.append(sql, i, end);
+        i = end;
+        space = false;
+      } else if (Character.isDigit(c) && (space || !inIdentifier(out))) {
+        while (i < n && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+          i++;
+        }
+        appendPlaceholder(out, space);
+        space = false;
+      } else {
+        separate(out, c, space);
+        out.append(Character.toUpperCase(c));
+        i++;
+        space = false;
+      }
+    }
+    return out.toString();
+  }
+
+  /**
+   * Add the single space (or none) that goes before {@code next}: always one after a comma and
+   * around comparison operators, none inside parentheses or before a comma, otherwise one only
+   * where the query had whitespace
+   */
+  private static void separate(StringBuilder out, char next, boolean space) {
+    if (out.isEmpty()) {
+      return;
+    }
+    char last = out.charAt(out.length() - 1);
+    if (next == ',' || next == ')' || last == '(') {
+      return;
+    }
+    if (last == ',' || isOperator(next) != isOperator(last) || space) {
+      out.append(' ');
+    }
+  }
+
+  private static boolean isOperator(char c) {
+    return c == '=' || c == '<' || c == '>' || c == '!';
+  }
+
+  private static int skipQuoted(String sql, int start, char quote) {
+    int i = start + 1;
+    while (i < sql.length()) {
+      if (sql.charAt(i) == quote) {
+        if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+          i += 2;
+          continue;
+        }
+        return i + 1;
+      }
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean inIdentifier(StringBuilder out) {
+    if (out.isEmpty()) {
+      return false;
+    }
+    char last = out.charAt(out.length() - 1);
+    return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+  }
+
+  /**
+   * Append {@code ?}, folding {@code ?, ?, ?} into a single {@code ?} so IN lists of any length
+   * share a fingerprint
+   */
+  private static void appendPlaceholder(StringBuilder out, boolean space) {
+    int length = out.length();
+    if (length >= 3 && out.charAt(length - 1) == ' ' && out.charAt(length - 2) == ','
+        && out.charAt(length - 3) == '?') {
+      out.setLength(length - 2);
+      return;
+    }
+    if (length >= 2 && out.charAt(length - 1) == ',' && out.charAt(length - 2) == '?') {
+      out.setLength(length - 1);
+      return;
+    }
+    separate(out, '?', space);
+    out.append('?');
+  }
+}
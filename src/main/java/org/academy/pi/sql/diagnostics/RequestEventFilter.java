@@ -0,0 +1,48 @@
+package org.academy.pi.sql.diagnostics;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+
+/**
+ * Emits an {@link HttpRequestEvent} per request. The body streams are wrapped for counting once
+ * here and the counts kept in the {@link QueryContext}, where the access log reads them too. When
+ * no recording is running the event costs only an enabled check.
+ *
+ * <p>Per-request state lives in {@link QueryContext} rather than exchange attributes, which the
+ * JDK server shares between all requests on the same context.
+ */
+public class RequestEventFilter extends Filter {
+
+  @Override
+  public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+    HttpRequestEvent event = new HttpRequestEvent();
+    QueryContext.State state = QueryContext.open();
+    CountingInputStream in = new CountingInputStream(exchange.getRequestBody());
+    CountingOutputStream out = new CountingOutputStream(exchange.getResponseBody());
+    exchange.setStreams(in, out);
+    state.countBytes(in, out);
+    event.begin();
+    try {
+      chain.doFilter(exchange);
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.method = exchange.getRequestMethod();
+        event.path = exchange.getRequestURI().getPath();
+        event.status = exchange.getResponseCode();
+        event.fingerprint = state.fingerprint();
+        event.rows = state.rows();
+        event.bytesRead = in.getCount();
+        event.bytesWritten = out.getCount();
+        event.commit();
+      }
+      QueryContext.close();
+    }
+  }
+
+  @Override
+  public String description() {
+    return "Records JFR events for HTTP requests";
+  }
+}
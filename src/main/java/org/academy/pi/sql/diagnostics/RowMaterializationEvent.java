@@ -0,0 +1,38 @@
+package org.academy.pi.sql.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.academy.pi.sql.RowMaterialization")
+@Label("Row Materialization")
+@Description("Time spent reading a result set into rows in memory")
+@Category({"SQL Learning", "Database"})
+@StackTrace(false)
+public class RowMaterializationEvent extends Event {
+
+  @Label("Database")
+  String database;
+
+  @Label("Query Fingerprint")
+  String fingerprint;
+
+  @Label("Rows")
+  long rows;
+
+  @Label("Columns")
+  int columns;
+
+  public void complete(String database, String sql, long rows, int columns) {
+    if (shouldCommit()) {
+      this.database = database;
+      this.fingerprint = QueryFingerprint.of(sql);
+      this.rows = rows;
+      this.columns = columns;
+      commit();
+    }
+  }
+}
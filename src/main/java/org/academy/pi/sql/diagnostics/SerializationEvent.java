@@ -0,0 +1,44 @@
+package org.academy.pi.sql.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.academy.pi.sql.Serialization")
+@Label("Serialization")
+@Description("Time spent turning a response into JSON, CSV or NDJSON bytes")
+@Category({"SQL Learning", "HTTP"})
+@StackTrace(false)
+public class SerializationEvent extends Event {
+
+  @Label("Payload")
+  @Description("Response type, or the export format")
+  String payload;
+
+  @Label("Query Fingerprint")
+  String fingerprint;
+
+  @Label("Rows")
+  long rows;
+
+  @Label("Bytes")
+  @DataAmount
+  long bytes;
+
+  /**
+   * @param rows rows serialized, -1 to use the rows noted for the current request
+   */
+  public void complete(String payload, long rows, long bytes) {
+    if (shouldCommit()) {
+      this.payload = payload;
+      this.fingerprint = QueryContext.fingerprint();
+      this.rows = rows >= 0 ? rows : QueryContext.rows();
+      this.bytes = bytes;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package org.academy.pi.sql.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.academy.pi.sql.StatementExecution")
+@Label("Statement Execution")
+@Description("Time H2 spent executing a statement, before any rows are read back")
+@Category({"SQL Learning", "Database"})
+@StackTrace(false)
+public class StatementExecutionEvent extends Event {
+
+  @Label("Database")
+  String database;
+
+  @Label("Query Fingerprint")
+  String fingerprint;
+
+  @Label("Query")
+  String query;
+
+  @Label("Rows Affected")
+  @Description("Update count of a DML statement, -1 for queries")
+  long rows;
+
+  public void complete(String database, String sql, long rows) {
+    if (shouldCommit()) {
+      this.database = database;
+      this.fingerprint = QueryFingerprint.of(sql);
+      this.query = QueryFingerprint.normalize(sql);
+      this.rows = rows;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package org.academy.pi.sql.http;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-size pool of direct buffers. Direct memory for request and response bodies never grows
+ * past {@code bufferCount * bufferSize}, worker threads wait a bounded time for a buffer and the
+ * selector thread only ever tries.
+ */
+public class BufferPool {
+
+  private final BlockingQueue<ByteBuffer> buffers;
+  private final int bufferSize;
+  private volatile Runnable onRelease = () -> {
+  };
+
+  public BufferPool(int bufferCount, int bufferSize) {
+    this.buffers = new ArrayBlockingQueue<>(bufferCount);
+    this.bufferSize = bufferSize;
+    for (int i = 0; i < bufferCount; i++) {
+      buffers.add(ByteBuffer.allocateDirect(bufferSize));
+    }
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  public int available() {
+    return buffers.size();
+  }
+
+  /**
+   * Take a cleared buffer, waiting up to {@code timeoutMs} for one to be released
+   *
+   * @return the buffer, or {@code null} if none was released in time
+   */
+  public ByteBuffer acquire(long timeoutMs) throws InterruptedException {
+    ByteBuffer buffer = buffers.poll(timeoutMs, TimeUnit.MILLISECONDS);
+    return buffer == null ? null : buffer.clear();
+  }
+
+  /**
+   * Take a cleared buffer, or {@code null} if the pool is empty
+   */
+  public ByteBuffer tryAcquire() {
+    ByteBuffer buffer = buffers.poll();
+    return buffer == null ? null : buffer.clear();
+  }
+
+  public void release(ByteBuffer buffer) {
+    buffers.offer(buffer);
+    onRelease.run();
+  }
+
+  /**
+   * Called after every release, lets the selector resume connections that were starved
+   */
+  void setOnRelease(Runnable onRelease) {
+    this.onRelease = onRelease;
+  }
+}
@@ -0,0 +1,51 @@
+package org.academy.pi.sql.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails with {@link RequestTooLargeException} once more than {@code limit} bytes have been read
+ */
+public class LimitedInputStream extends FilterInputStream {
+
+  private final long limit;
+  private long count;
+
+  public LimitedInputStream(InputStream in, long limit) {
+    super(in);
+    this.limit = limit;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int b = super.read();
+    if (b != -1) {
+      count(1);
+    }
+    return b;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int n = super.read(b, off, len);
+    if (n > 0) {
+      count(n);
+    }
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = super.skip(n);
+    count(skipped);
+    return skipped;
+  }
+
+  private void count(long n) throws RequestTooLargeException {
+    count += n;
+    if (count > limit) {
+      throw new RequestTooLargeException(limit);
+    }
+  }
+}
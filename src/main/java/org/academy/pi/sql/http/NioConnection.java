@@ -0,0 +1,479 @@
+package org.academy.pi.sql.http;
+
+import com.sun.net.httpserver.Headers;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One keep-alive connection. Everything except {@link #enqueue}, {@link #endResponse},
+ * {@link #bodyConsumed} and {@link #abort} runs on the selector thread.
+ *
+ * <p>Requests are served strictly one at a time: once the current request body has been read,
+ * reading stops, the read buffer goes back to the pool and any pipelined bytes wait on the heap (or
+ * in the socket) until the response has been written, which is what keeps per-connection memory
+ * bounded. A connection whose upload or response makes no progress for the keep-alive timeout is
+ * closed, so stalled clients can't hold on to pooled buffers.
+ */
+class NioConnection {
+
+  private static final ByteBuffer END_OF_RESPONSE = ByteBuffer.allocate(0);
+  private static final byte[] CONTINUE =
+      "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+  private static final int MAX_QUEUED_WRITES = 8;
+  // longest a handler waits on a buffer or on the client to read, pools emptied by clients that
+  // stopped reading fail the response instead of hanging every handler
+  static final long WAIT_TIMEOUT_MS = 10_000;
+
+  private final NioHttpServer server;
+  private final SocketChannel channel;
+  private final SelectionKey key;
+  private final BufferPool pool;
+  private final InetSocketAddress remoteAddress;
+  private final InetSocketAddress localAddress;
+
+  private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+  private final Semaphore writePermits = new Semaphore(MAX_QUEUED_WRITES);
+  private final AtomicBoolean writeScheduled = new AtomicBoolean();
+
+  private ByteBuffer readBuffer;
+  // bytes of pipelined requests read along with the previous one, kept off the pool while it runs
+  private byte[] pipelined;
+  private NioHttpExchange exchange;
+  private long bodyRemaining;
+  private boolean closeAfterResponse;
+  private volatile long lastActivity = System.currentTimeMillis();
+  private volatile boolean closed;
+
+  NioConnection(NioHttpServer server, SocketChannel channel, SelectionKey key)
+      throws IOException {
+    this.server = server;
+    this.channel = channel;
+    this.key = key;
+    this.pool = server.getBufferPool();
+    this.remoteAddress = (InetSocketAddress) channel.getRemoteAddress();
+    this.localAddress = (InetSocketAddress) channel.getLocalAddress();
+  }
+
+  InetSocketAddress getRemoteAddress() {
+    return remoteAddress;
+  }
+
+  InetSocketAddress getLocalAddress() {
+    return localAddress;
+  }
+
+  BufferPool getPool() {
+    return pool;
+  }
+
+  void handle(SelectionKey key) {
+    try {
+      if (key.isWritable()) {
+        onWritable();
+      }
+      if (key.isValid() && key.isReadable()) {
+        onReadable();
+      }
+    } catch (IOException e) {
+      close();
+    }
+  }
+
+  /**
+   * Continue after a pause, either buffers were released or the handler drained body chunks
+   */
+  void resume() {
+    if (!closed) {
+      process();
+    }
+  }
+
+  /**
+   * Close a connection that is idle between requests, or whose request body or response stopped
+   * moving. A handler still working on its response (a long query, a quiet live stream) is left
+   * alone.
+   */
+  void closeIfIdle(long now, long timeoutMs) {
+    boolean waitingOnClient = exchange == null || !writeQueue.isEmpty()
+        || bodyRemaining > 0 && exchange.getBody().hasCapacity();
+    if (waitingOnClient && now - lastActivity > timeoutMs) {
+      close();
+    }
+  }
+
+  private void onReadable() throws IOException {
+    if (readBuffer == null && !acquireReadBuffer()) {
+      return;
+    }
+    if (channel.read(readBuffer) < 0) {
+      close();
+      return;
+    }
+    lastActivity = System.currentTimeMillis();
+    process();
+  }
+
+  /**
+   * Move buffered bytes forward: parse the next request head or hand body bytes to the handler.
+   * Leaves read interest on only when more bytes are actually wanted.
+   */
+  private void process() {
+    while (!closed) {
+      if (readBuffer == null) {
+        if (pipelined == null || exchange != null) {
+          break;
+        }
+        if (!acquireReadBuffer()) {
+          return;
+        }
+      }
+      if (exchange == null) {
+        if (closeAfterResponse || !parseRequest()) {
+          if (readBuffer != null && readBuffer.position() == 0) {
+            pool.release(readBuffer);
+            readBuffer = null;
+          }
+          break;
+        }
+      } else if (bodyRemaining > 0) {
+        if (readBuffer.position() == 0) {
+          pool.release(readBuffer);
+          readBuffer = null;
+          break;
+        }
+        if (!exchange.getBody().hasCapacity()) {
+          setInterest(SelectionKey.OP_READ, false);
+          return;
+        }
+        ByteBuffer chunk = pool.tryAcquire();
+        if (chunk == null) {
+          setInterest(SelectionKey.OP_READ, false);
+          server.starved(this);
+          return;
+        }
+        int n = (int) Math.min(bodyRemaining, Math.min(readBuffer.position(), chunk.capacity()));
+        readBuffer.flip();
+        int limit = readBuffer.limit();
+        readBuffer.limit(n);
+        chunk.put(readBuffer).flip();
+        readBuffer.limit(limit);
+        readBuffer.compact();
+
+        bodyRemaining -= n;
+        exchange.getBody().offer(chunk);
+        if (bodyRemaining == 0) {
+          exchange.getBody().finish();
+        }
+      } else {
+        // the body is complete, anything else is a pipelined request that waits its turn
+        if (readBuffer.position() > 0) {
+          readBuffer.flip();
+          pipelined = new byte[readBuffer.remaining()];
+          readBuffer.get(pipelined);
+        }
+        pool.release(readBuffer);
+        readBuffer = null;
+        setInterest(SelectionKey.OP_READ, false);
+        return;
+      }
+    }
+    if (!closed) {
+      setInterest(SelectionKey.OP_READ,
+          !closeAfterResponse && (exchange == null || bodyRemaining > 0));
+    }
+  }
+
+  /**
+   * Take a read buffer from the pool, starting with any pipelined bytes parked on the heap
+   *
+   * @return false when the pool is empty, the connection is then resumed once buffers are
+   *     released
+   */
+  private boolean acquireReadBuffer() {
+    readBuffer = pool.tryAcquire();
+    if (readBuffer == null) {
+      setInterest(SelectionKey.OP_READ, false);
+      server.starved(this);
+      return false;
+    }
+    if (pipelined != null) {
+      readBuffer.put(pipelined);
+      pipelined = null;
+    }
+    return true;
+  }
+
+  /**
+   * Parse and dispatch one request if a complete head is buffered
+   *
+   * @return true when a request was dispatched
+   */
+  private boolean parseRequest() {
+    int headEnd = indexOfHeadEnd();
+    if (headEnd < 0) {
+      if (!readBuffer.hasRemaining()) {
+        reject(431, "Request Header Fields Too Large");
+      }
+      return false;
+    }
+
+    byte[] headBytes = new byte[headEnd];
+    readBuffer.flip();
+    readBuffer.get(headBytes);
+    readBuffer.position(headEnd + 4);
+    readBuffer.compact();
+
+    String[] lines = new String(headBytes, StandardCharsets.ISO_8859_1).split("\r\n");
+    String[] requestLine = lines[0].split(" ");
+    if (requestLine.length != 3 || !requestLine[2].startsWith("HTTP/1.")) {
+      reject(400, "Bad Request");
+      return false;
+    }
+
+    Headers headers = new Headers();
+    for (int i = 1; i < lines.length; i++) {
+      int colon = lines[i].indexOf(':');
+      if (colon <= 0) {
+        reject(400, "Bad Request");
+        return false;
+      }
+      headers.add(lines[i].substring(0, colon).trim(), lines[i].substring(colon + 1).trim());
+    }
+
+    URI uri;
+    long contentLength;
+    try {
+      uri = new URI(requestLine[1]);
+      String lengthHeader = headers.getFirst("Content-Length");
+      contentLength = lengthHeader == null ? 0 : Long.parseLong(lengthHeader);
+    } catch (URISyntaxException | NumberFormatException e) {
+      reject(400, "Bad Request");
+      return false;
+    }
+    if (headers.containsKey("Transfer-Encoding")) {
+      reject(411, "Length Required");
+      return false;
+    }
+
+    NioHttpContext context = server.findContext(uri.getPath() == null ? "/" : uri.getPath());
+    if (context == null) {
+      reject(404, "Not Found");
+      return false;
+    }
+    if (contentLength > context.maxRequestBytes(server.defaultMaxRequestBytes())) {
+      reject(413, "Payload Too Large");
+      return false;
+    }
+
+    String protocol = requestLine[2];
+    String connectionHeader = headers.getFirst("Connection");
+    boolean keepAlive = "HTTP/1.1".equals(protocol)
+        ? !"close".equalsIgnoreCase(connectionHeader)
+        : "keep-alive".equalsIgnoreCase(connectionHeader);
+
+    exchange = new NioHttpExchange(this, context, requestLine[0], uri, protocol, headers,
+        keepAlive);
+    bodyRemaining = contentLength;
+    if (contentLength == 0) {
+      exchange.getBody().finish();
+    } else if ("100-continue".equalsIgnoreCase(headers.getFirst("Expect"))) {
+      writeQueue.add(ByteBuffer.wrap(CONTINUE));
+      scheduleWrite();
+    }
+
+    NioHttpExchange dispatched = exchange;
+    server.executor().execute(dispatched::run);
+    return true;
+  }
+
+  private int indexOfHeadEnd() {
+    for (int i = 3; i < readBuffer.position(); i++) {
+      if (readBuffer.get(i) == '\n' && readBuffer.get(i - 1) == '\r'
+          && readBuffer.get(i - 2) == '\n' && readBuffer.get(i - 3) == '\r') {
+        return i - 3;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Answer a request we will not dispatch and close the connection once it has been written
+   */
+  private void reject(int status, String reason) {
+    byte[] body = reason.getBytes(StandardCharsets.ISO_8859_1);
+    String head = "HTTP/1.1 %d %s\r\nContent-Type: text/plain\r\nContent-Length: %d\r\n"
+        .formatted(status, reason, body.length) + "Connection: close\r\n\r\n";
+    writeQueue.add(ByteBuffer.wrap(head.getBytes(StandardCharsets.ISO_8859_1)));
+    writeQueue.add(ByteBuffer.wrap(body));
+    writeQueue.add(END_OF_RESPONSE);
+    closeAfterResponse = true;
+    setInterest(SelectionKey.OP_READ, false);
+    scheduleWrite();
+  }
+
+  private void onWritable() throws IOException {
+    ByteBuffer head;
+    while ((head = writeQueue.peek()) != null) {
+      if (head == END_OF_RESPONSE) {
+        writeQueue.poll();
+        onResponseComplete();
+        if (closed) {
+          return;
+        }
+        continue;
+      }
+      if (channel.write(head) > 0) {
+        lastActivity = System.currentTimeMillis();
+      }
+      if (head.hasRemaining()) {
+        setInterest(SelectionKey.OP_WRITE, true);
+        return;
+      }
+      writeQueue.poll();
+      if (head.isDirect()) {
+        pool.release(head);
+        writePermits.release();
+      }
+      lastActivity = System.currentTimeMillis();
+    }
+    setInterest(SelectionKey.OP_WRITE, false);
+  }
+
+  private void onResponseComplete() {
+    NioHttpExchange finished = exchange;
+    exchange = null;
+    if (closeAfterResponse || finished == null || !finished.isKeepAlive() || bodyRemaining > 0) {
+      close();
+      return;
+    }
+    finished.getBody().close();
+    process();
+  }
+
+  /**
+   * Queue bytes for the client. Pooled (direct) buffers are handed over to the connection and
+   * released once written; callers block while too many of them are waiting, for at most
+   * {@link #WAIT_TIMEOUT_MS}.
+   */
+  void enqueue(ByteBuffer buffer) throws IOException {
+    if (buffer.isDirect()) {
+      boolean permitted;
+      try {
+        permitted = writePermits.tryAcquire(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        pool.release(buffer);
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while writing response");
+      }
+      if (!permitted) {
+        pool.release(buffer);
+        abort();
+        throw new IOException("Client stopped reading for " + WAIT_TIMEOUT_MS + " ms");
+      }
+    }
+    if (closed) {
+      if (buffer.isDirect()) {
+        pool.release(buffer);
+      }
+      throw new IOException("Connection closed");
+    }
+    // the idle timeout counts from when the response started waiting on the client
+    if (writeQueue.isEmpty()) {
+      lastActivity = System.currentTimeMillis();
+    }
+    writeQueue.add(buffer);
+    if (closed) {
+      drainWrites();
+      throw new IOException("Connection closed");
+    }
+    scheduleWrite();
+  }
+
+  /**
+   * Mark the end of the current response, the next pipelined request is parsed after it is
+   * written
+   */
+  void endResponse() {
+    writeQueue.add(END_OF_RESPONSE);
+    scheduleWrite();
+  }
+
+  void bodyConsumed() {
+    server.runOnSelector(this::resume);
+  }
+
+  /**
+   * Drop the connection from any thread, used when a response cannot be completed
+   */
+  void abort() {
+    server.runOnSelector(this::close);
+  }
+
+  private void scheduleWrite() {
+    if (writeScheduled.compareAndSet(false, true)) {
+      server.runOnSelector(() -> {
+        writeScheduled.set(false);
+        if (!closed) {
+          try {
+            onWritable();
+          } catch (IOException e) {
+            close();
+          }
+        }
+      });
+    }
+  }
+
+  private void setInterest(int op, boolean enabled) {
+    if (key.isValid()) {
+      int ops = key.interestOps();
+      key.interestOps(enabled ? ops | op : ops & ~op);
+    }
+  }
+
+  void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    key.cancel();
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // nothing left to do with a broken socket
+    }
+    if (readBuffer != null) {
+      pool.release(readBuffer);
+      readBuffer = null;
+    }
+    drainWrites();
+    // wake any writer blocked on a permit so it notices the connection is gone
+    writePermits.release(Integer.MAX_VALUE / 2);
+    if (exchange != null) {
+      exchange.getBody().abort();
+      exchange = null;
+    }
+    server.closed(this);
+  }
+
+  private void drainWrites() {
+    ByteBuffer buffer;
+    while ((buffer = writeQueue.poll()) != null) {
+      if (buffer.isDirect()) {
+        pool.release(buffer);
+      }
+    }
+  }
+}
@@ -0,0 +1,469 @@
+package org.academy.pi.sql.http;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.academy.pi.sql.logging.AppLog;
+
+/**
+ * {@link HttpExchange} backed by pooled direct buffers. The request body is read straight out of
+ * the buffers the selector filled and the response is written into buffers the selector drains,
+ * so handlers (and Jackson) work on plain streams without any intermediate copies of the body.
+ */
+class NioHttpExchange extends HttpExchange {
+
+  private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.ISO_8859_1);
+  private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+  private final NioConnection connection;
+  private final NioHttpContext context;
+  private final String method;
+  private final URI uri;
+  private final String protocol;
+  private final Headers requestHeaders;
+  private final Headers responseHeaders = new Headers();
+  private final boolean keepAlive;
+  private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+  private final RequestBody body;
+  private final ResponseBody response;
+
+  private InputStream requestStream;
+  private OutputStream responseStream;
+  private volatile int responseCode = -1;
+
+  NioHttpExchange(NioConnection connection, NioHttpContext context, String method, URI uri,
+      String protocol, Headers requestHeaders, boolean keepAlive) {
+    this.connection = connection;
+    this.context = context;
+    this.method = method;
+    this.uri = uri;
+    this.protocol = protocol;
+    this.requestHeaders = requestHeaders;
+    this.keepAlive = keepAlive;
+    this.body = new RequestBody();
+    this.response = new ResponseBody();
+    this.requestStream = body;
+    this.responseStream = response;
+  }
+
+  RequestBody getBody() {
+    return body;
+  }
+
+  boolean isKeepAlive() {
+    return keepAlive;
+  }
+
+  /**
+   * Run the context's filters and handler on a worker thread
+   */
+  void run() {
+    try {
+      new Filter.Chain(context.getFilters(), context.getHandler()).doFilter(this);
+    } catch (Exception e) {
+      AppLog.error("nio", "Handler error on " + uri.getPath(), e);
+      if (responseCode == -1) {
+        try {
+          byte[] message = "Internal Server Error".getBytes(StandardCharsets.UTF_8);
+          sendResponseHeaders(500, message.length);
+          response.write(message);
+          response.close();
+          return;
+        } catch (IOException ignored) {
+          // fall through and drop the connection
+        }
+      }
+      connection.abort();
+    }
+  }
+
+  @Override
+  public Headers getRequestHeaders() {
+    return requestHeaders;
+  }
+
+  @Override
+  public Headers getResponseHeaders() {
+    return responseHeaders;
+  }
+
+  @Override
+  public URI getRequestURI() {
+    return uri;
+  }
+
+  @Override
+  public String getRequestMethod() {
+    return method;
+  }
+
+  @Override
+  public HttpContext getHttpContext() {
+    return context;
+  }
+
+  @Override
+  public void close() {
+    try {
+      body.close();
+      if (responseCode == -1) {
+        connection.abort();
+      } else {
+        response.close();
+      }
+    } catch (IOException e) {
+      connection.abort();
+    }
+  }
+
+  @Override
+  public InputStream getRequestBody() {
+    return requestStream;
+  }
+
+  @Override
+  public OutputStream getResponseBody() {
+    return responseStream;
+  }
+
+  @Override
+  public void sendResponseHeaders(int rCode, long responseLength) throws IOException {
+    if (responseCode != -1) {
+      throw new IOException("Response headers already sent");
+    }
+    responseCode = rCode;
+
+    boolean noBody = responseLength == -1 || rCode == 204 || rCode == 304 || rCode < 200
+        || "HEAD".equals(method);
+    responseHeaders.set("Date",
+        DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)));
+    if (noBody) {
+      responseHeaders.remove("Transfer-encoding");
+      if (rCode >= 200 && rCode != 204 && rCode != 304) {
+        responseHeaders.set("Content-length", "0");
+      }
+    } else if (responseLength > 0) {
+      responseHeaders.set("Content-length", Long.toString(responseLength));
+    } else {
+      responseHeaders.set("Transfer-encoding", "chunked");
+    }
+    if (!keepAlive) {
+      responseHeaders.set("Connection", "close");
+    }
+
+    StringBuilder head = new StringBuilder(256)
+        .append("HTTP/1.1 ").append(rCode).append(' ').append(reasonPhrase(rCode))
+        .append("\r\n");
+    for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+      for (String value : header.getValue()) {
+        head.append(header.getKey()).append(": ").append(value).append("\r\n");
+      }
+    }
+    head.append("\r\n");
+    connection.enqueue(ByteBuffer.wrap(head.toString().getBytes(StandardCharsets.ISO_8859_1)));
+
+    response.start(noBody ? 0 : responseLength > 0 ? responseLength : -1);
+    if (noBody) {
+      response.close();
+    }
+  }
+
+  @Override
+  public InetSocketAddress getRemoteAddress() {
+    return connection.getRemoteAddress();
+  }
+
+  @Override
+  public int getResponseCode() {
+    return responseCode;
+  }
+
+  @Override
+  public InetSocketAddress getLocalAddress() {
+    return connection.getLocalAddress();
+  }
+
+  @Override
+  public String getProtocol() {
+    return protocol;
+  }
+
+  @Override
+  public Object getAttribute(String name) {
+    return attributes.get(name);
+  }
+
+  @Override
+  public void setAttribute(String name, Object value) {
+    if (value == null) {
+      attributes.remove(name);
+    } else {
+      attributes.put(name, value);
+    }
+  }
+
+  @Override
+  public void setStreams(InputStream i, OutputStream o) {
+    if (i != null) {
+      requestStream = i;
+    }
+    if (o != null) {
+      responseStream = o;
+    }
+  }
+
+  @Override
+  public HttpPrincipal getPrincipal() {
+    return null;
+  }
+
+  private static String reasonPhrase(int code) {
+    return switch (code) {
+      case 100 -> "Continue";
+      case 200 -> "OK";
+      case 204 -> "No Content";
+      case 304 -> "Not Modified";
+      case 400 -> "Bad Request";
+      case 404 -> "Not Found";
+      case 405 -> "Method Not Allowed";
+      case 413 -> "Payload Too Large";
+      case 500 -> "Internal Server Error";
+      case 503 -> "Service Unavailable";
+      default -> "Status " + code;
+    };
+  }
+
+  /**
+   * Request body fed chunk by chunk by the selector. At most a few chunks are queued, after that
+   * the selector stops reading the socket until the handler catches up.
+   */
+  class RequestBody extends InputStream {
+
+    private static final int MAX_QUEUED_CHUNKS = 4;
+    private static final ByteBuffer EOF = ByteBuffer.allocate(0);
+    private static final ByteBuffer ABORTED = ByteBuffer.allocate(0);
+
+    private final BlockingQueue<ByteBuffer> chunks = new LinkedBlockingQueue<>();
+    private ByteBuffer current;
+    private boolean finished;
+    private volatile boolean closed;
+
+    boolean hasCapacity() {
+      return chunks.size() < MAX_QUEUED_CHUNKS;
+    }
+
+    void offer(ByteBuffer chunk) {
+      chunks.add(chunk);
+      if (closed) {
+        drain();
+      }
+    }
+
+    void finish() {
+      chunks.add(EOF);
+    }
+
+    void abort() {
+      chunks.add(ABORTED);
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] single = new byte[1];
+      return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      if (closed) {
+        throw new IOException("Request body is closed");
+      }
+      while (current == null || !current.hasRemaining()) {
+        if (current != null) {
+          connection.getPool().release(current);
+          current = null;
+          connection.bodyConsumed();
+        }
+        if (finished) {
+          return -1;
+        }
+        ByteBuffer next;
+        try {
+          next = chunks.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while reading request body");
+        }
+        if (next == EOF) {
+          finished = true;
+          return -1;
+        }
+        if (next == ABORTED) {
+          throw new IOException("Connection closed while reading request body");
+        }
+        current = next;
+      }
+      int n = Math.min(len, current.remaining());
+      current.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public int available() {
+      return current == null ? 0 : current.remaining();
+    }
+
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (current != null) {
+        connection.getPool().release(current);
+        current = null;
+      }
+      drain();
+      connection.bodyConsumed();
+    }
+
+    private void drain() {
+      ByteBuffer chunk;
+      while ((chunk = chunks.poll()) != null) {
+        if (chunk.isDirect()) {
+          connection.getPool().release(chunk);
+        }
+      }
+    }
+  }
+
+  /**
+   * Response body written into pooled buffers. Full buffers are handed to the connection as they
+   * fill up (framed as chunks when the length is unknown), so the response never has to fit in
+   * memory.
+   */
+  class ResponseBody extends OutputStream {
+
+    private ByteBuffer current;
+    private long fixedLength = -1;
+    private long written;
+    private boolean started;
+    private boolean closed;
+
+    void start(long length) {
+      fixedLength = length;
+      started = true;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+      if (!started) {
+        throw new IOException("Response headers have not been sent");
+      }
+      if (closed) {
+        throw new IOException("Response body is closed");
+      }
+      written += len;
+      if (fixedLength >= 0 && written > fixedLength) {
+        throw new IOException("Too many bytes to write to stream");
+      }
+      while (len > 0) {
+        if (current == null) {
+          current = acquire();
+        }
+        int n = Math.min(len, current.remaining());
+        current.put(b, off, n);
+        off += n;
+        len -= n;
+        if (!current.hasRemaining()) {
+          flushBuffer();
+        }
+      }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+      if (started && !closed) {
+        flushBuffer();
+      }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+      if (closed || !started) {
+        return;
+      }
+      closed = true;
+      flushBuffer();
+      if (current != null) {
+        connection.getPool().release(current);
+        current = null;
+      }
+      if (fixedLength < 0) {
+        connection.enqueue(ByteBuffer.wrap(LAST_CHUNK));
+      } else if (written < fixedLength) {
+        connection.abort();
+        throw new IOException("Insufficient bytes written to stream");
+      }
+      connection.endResponse();
+    }
+
+    private void flushBuffer() throws IOException {
+      if (current == null || current.position() == 0) {
+        return;
+      }
+      ByteBuffer buffer = current.flip();
+      current = null;
+      if (fixedLength < 0) {
+        connection.enqueue(ByteBuffer.wrap((Integer.toHexString(buffer.remaining()) + "\r\n")
+            .getBytes(StandardCharsets.ISO_8859_1)));
+        connection.enqueue(buffer);
+        connection.enqueue(ByteBuffer.wrap(CRLF));
+      } else {
+        connection.enqueue(buffer);
+      }
+    }
+
+    private ByteBuffer acquire() throws IOException {
+      ByteBuffer buffer;
+      try {
+        buffer = connection.getPool().acquire(NioConnection.WAIT_TIMEOUT_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while writing response");
+      }
+      if (buffer == null) {
+        connection.abort();
+        throw new IOException(
+            "No response buffer free after " + NioConnection.WAIT_TIMEOUT_MS + " ms");
+      }
+      return buffer;
+    }
+  }
+}
@@ -0,0 +1,284 @@
+package org.academy.pi.sql.http;
+
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.academy.pi.sql.logging.AppLog;
+
+/**
+ * Non-blocking HTTP/1.1 engine with the same API as the JDK {@link HttpServer}, so routes are
+ * registered with {@link #createContext(String, HttpHandler)} exactly as before and handlers keep
+ * working with {@link com.sun.net.httpserver.HttpExchange}.
+ *
+ * <p>A single selector thread does all socket I/O. Handlers run on the executor, request bodies
+ * reach them through a bounded queue of pooled direct buffers and responses go back the same way,
+ * so a slow client or a huge upload/download can only hold a few buffers at a time. Connections
+ * are kept alive and pipelined requests are answered in order.
+ */
+public class NioHttpServer extends HttpServer {
+
+  /**
+   * Context attribute ({@link Long}) overriding the maximum request body size for that context
+   */
+  public static final String MAX_REQUEST_BYTES = "nio.maxRequestBytes";
+
+  private static final int BUFFER_SIZE = Integer.getInteger("sqllearning.http.bufferSize", 16 * 1024);
+  private static final int BUFFER_COUNT = Integer.getInteger("sqllearning.http.buffers", 512);
+  private static final long DEFAULT_MAX_REQUEST_BYTES =
+      Long.getLong("sqllearning.http.maxRequestBytes", 1024 * 1024);
+  private static final long KEEP_ALIVE_TIMEOUT_MS = 30_000;
+
+  private final BufferPool bufferPool = new BufferPool(BUFFER_COUNT, BUFFER_SIZE);
+  private final List<NioHttpContext> contexts = new CopyOnWriteArrayList<>();
+  private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+  private final Set<NioConnection> connections = new HashSet<>();
+  private final Queue<NioConnection> starved = new ConcurrentLinkedQueue<>();
+
+  private Selector selector;
+  private ServerSocketChannel serverChannel;
+  private Executor executor;
+  private ExecutorService defaultExecutor;
+  private Thread selectorThread;
+  private volatile boolean running;
+
+  public NioHttpServer(InetSocketAddress address, int backlog) throws IOException {
+    bind(address, backlog);
+  }
+
+  @Override
+  public void bind(InetSocketAddress address, int backlog) throws IOException {
+    if (serverChannel != null) {
+      throw new IllegalStateException("Server is already bound");
+    }
+    selector = Selector.open();
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(address, backlog);
+    serverChannel.configureBlocking(false);
+    serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    bufferPool.setOnRelease(() -> {
+      if (!starved.isEmpty()) {
+        selector.wakeup();
+      }
+    });
+  }
+
+  @Override
+  public void start() {
+    if (executor == null) {
+      defaultExecutor = Executors.newFixedThreadPool(
+          Runtime.getRuntime().availableProcessors() * 2);
+      executor = defaultExecutor;
+    }
+    running = true;
+    selectorThread = new Thread(this::runSelector, "nio-http-selector");
+    selectorThread.start();
+  }
+
+  @Override
+  public void setExecutor(Executor executor) {
+    this.executor = executor;
+  }
+
+  @Override
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Stop accepting and close every connection. Closing the selector interrupts a select in
+   * progress, the wait for the selector thread is bounded even for {@code delay == 0}.
+   */
+  @Override
+  public void stop(int delay) {
+    running = false;
+    try {
+      selector.close();
+    } catch (IOException e) {
+      System.err.println("NIO shutdown error: " + e.getMessage());
+    }
+    try {
+      selectorThread.join(Math.max(delay, 1) * 1000L);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (defaultExecutor != null) {
+      defaultExecutor.shutdownNow();
+    }
+  }
+
+  @Override
+  public HttpContext createContext(String path, HttpHandler handler) {
+    if (contexts.stream().anyMatch(context -> context.getPath().equals(path))) {
+      throw new IllegalArgumentException("Context already exists: " + path);
+    }
+    NioHttpContext context = new NioHttpContext(this, path, handler);
+    contexts.add(context);
+    return context;
+  }
+
+  @Override
+  public HttpContext createContext(String path) {
+    return createContext(path, null);
+  }
+
+  @Override
+  public void removeContext(String path) {
+    if (!contexts.removeIf(context -> context.getPath().equals(path))) {
+      throw new IllegalArgumentException("No context for " + path);
+    }
+  }
+
+  @Override
+  public void removeContext(HttpContext context) {
+    contexts.remove(context);
+  }
+
+  @Override
+  public InetSocketAddress getAddress() {
+    try {
+      return (InetSocketAddress) serverChannel.getLocalAddress();
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  BufferPool getBufferPool() {
+    return bufferPool;
+  }
+
+  Executor executor() {
+    return executor;
+  }
+
+  long defaultMaxRequestBytes() {
+    return DEFAULT_MAX_REQUEST_BYTES;
+  }
+
+  /**
+   * Longest registered path that prefixes {@code path}, the same matching the JDK server does
+   */
+  NioHttpContext findContext(String path) {
+    NioHttpContext best = null;
+    for (NioHttpContext context : contexts) {
+      if (path.startsWith(context.getPath())
+          && (best == null || context.getPath().length() > best.getPath().length())) {
+        best = context;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Run {@code task} on the selector thread, the only thread allowed to touch channels and keys
+   */
+  void runOnSelector(Runnable task) {
+    selectorTasks.add(task);
+    selector.wakeup();
+  }
+
+  /**
+   * Park a connection that could not get a buffer, it is resumed once buffers are released
+   */
+  void starved(NioConnection connection) {
+    starved.add(connection);
+  }
+
+  void closed(NioConnection connection) {
+    connections.remove(connection);
+  }
+
+  private void runSelector() {
+    long lastIdleCheck = System.currentTimeMillis();
+    while (running) {
+      try {
+        selector.select(starved.isEmpty() ? 1000 : 50);
+
+        Runnable task;
+        while ((task = selectorTasks.poll()) != null) {
+          task.run();
+        }
+        resumeStarved();
+
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          if (!key.isValid()) {
+            continue;
+          }
+          if (key.isAcceptable()) {
+            accept();
+          } else {
+            NioConnection connection = (NioConnection) key.attachment();
+            connection.handle(key);
+          }
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastIdleCheck > 1000) {
+          lastIdleCheck = now;
+          for (NioConnection connection : new ArrayList<>(connections)) {
+            connection.closeIfIdle(now, KEEP_ALIVE_TIMEOUT_MS);
+          }
+        }
+      } catch (ClosedSelectorException e) {
+        // stop() closed the selector
+        break;
+      } catch (IOException e) {
+        AppLog.error("nio", "Selector error: " + e.getMessage(), e);
+      }
+    }
+
+    for (NioConnection connection : new ArrayList<>(connections)) {
+      connection.close();
+    }
+    try {
+      serverChannel.close();
+      selector.close();
+    } catch (IOException e) {
+      System.err.println("NIO shutdown error: " + e.getMessage());
+    }
+  }
+
+  private void accept() throws IOException {
+    SocketChannel channel;
+    while ((channel = serverChannel.accept()) != null) {
+      channel.configureBlocking(false);
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+      NioConnection connection = new NioConnection(this, channel, key);
+      key.attach(connection);
+      connections.add(connection);
+    }
+  }
+
+  private void resumeStarved() {
+    int count = starved.size();
+    for (int i = 0; i < count && bufferPool.available() > 0; i++) {
+      NioConnection connection = starved.poll();
+      if (connection == null) {
+        break;
+      }
+      connection.resume();
+    }
+  }
+}
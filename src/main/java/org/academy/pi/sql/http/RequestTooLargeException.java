@@ -0,0 +1,13 @@
+package org.academy.pi.sql.http;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request body is bigger than the endpoint accepts
+ */
+public class RequestTooLargeException extends IOException {
+
+  public RequestTooLargeException(long limit) {
+    super("Request body is larger than %,d bytes".formatted(limit));
+  }
+}
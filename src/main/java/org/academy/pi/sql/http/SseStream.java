@@ -0,0 +1,180 @@
+package org.academy.pi.sql.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.academy.pi.sql.data.LiveListener;
+
+/**
+ * A server-sent events response that stays open after the handler returns. Events are queued and
+ * written by the stream's own writer thread, so a client that stops reading (a laptop closed
+ * mid-lesson) only ever holds up itself. A write stuck for more than {@value #WRITE_TIMEOUT_MS} ms
+ * or falling more than {@value #MAX_QUEUED} events behind drops the client, and its EventSource
+ * reconnects to a fresh snapshot.
+ */
+public class SseStream implements LiveListener {
+
+  private static final int MAX_QUEUED = 64;
+  private static final long WRITE_TIMEOUT_MS = 10_000;
+  private static final Set<SseStream> OPEN = ConcurrentHashMap.newKeySet();
+  private static final ScheduledExecutorService WATCHDOG =
+      Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sse-watchdog");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  static {
+    WATCHDOG.scheduleWithFixedDelay(() -> OPEN.forEach(SseStream::abortIfStalled), 1, 1,
+        TimeUnit.SECONDS);
+  }
+
+  private final HttpExchange exchange;
+  // guarded by this
+  private final Deque<String> queue = new ArrayDeque<>();
+  private Thread writer;
+  private long writingSince;
+  private boolean closed;
+
+  public SseStream(HttpExchange exchange) {
+    this.exchange = exchange;
+  }
+
+  /**
+   * Send the response headers and start writing queued events, events sent before this wait
+   */
+  public void open() throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+    exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+    exchange.sendResponseHeaders(200, 0);
+    OutputStream out = exchange.getResponseBody();
+    synchronized (this) {
+      if (closed) {
+        exchange.close();
+        return;
+      }
+      writer = new Thread(() -> drain(out), "sse-writer");
+      writer.setDaemon(true);
+      OPEN.add(this);
+      writer.start();
+    }
+  }
+
+  @Override
+  public boolean send(String event, String data) {
+    return enqueue("event: " + event + "\ndata: " + data + "\n\n");
+  }
+
+  @Override
+  public boolean ping() {
+    return enqueue(": ping\n\n");
+  }
+
+  private boolean enqueue(String message) {
+    synchronized (this) {
+      if (closed) {
+        return false;
+      }
+      if (queue.size() < MAX_QUEUED) {
+        queue.addLast(message);
+        notifyAll();
+        return true;
+      }
+    }
+    abort();
+    return false;
+  }
+
+  private void drain(OutputStream out) {
+    try {
+      while (true) {
+        String message;
+        synchronized (this) {
+          while (queue.isEmpty() && !closed) {
+            wait();
+          }
+          message = queue.pollFirst();
+          if (message == null) {
+            break;
+          }
+          writingSince = System.nanoTime();
+        }
+        out.write(message.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        synchronized (this) {
+          writingSince = 0;
+        }
+      }
+    } catch (IOException | InterruptedException e) {
+      // the client went away, or stopped reading and was dropped
+    } finally {
+      synchronized (this) {
+        closed = true;
+        queue.clear();
+        writingSince = 0;
+      }
+      OPEN.remove(this);
+      // clear an interrupt so ending the response isn't cut short
+      Thread.interrupted();
+      exchange.close();
+    }
+  }
+
+  private void abortIfStalled() {
+    boolean stalled;
+    synchronized (this) {
+      stalled = writingSince != 0
+          && System.nanoTime() - writingSince > TimeUnit.MILLISECONDS.toNanos(WRITE_TIMEOUT_MS);
+    }
+    if (stalled) {
+      abort();
+    }
+  }
+
+  /**
+   * Drop the client straight away, interrupting a write in progress
+   */
+  private void abort() {
+    boolean opened;
+    synchronized (this) {
+      closed = true;
+      queue.clear();
+      opened = writer != null;
+      if (opened) {
+        // a blocked socket write gives up when its thread is interrupted
+        writer.interrupt();
+      }
+      notifyAll();
+    }
+    if (!opened) {
+      exchange.close();
+    }
+  }
+
+  /**
+   * End the stream once the events already queued (such as a final error) are written
+   */
+  @Override
+  public void close() {
+    boolean opened;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      opened = writer != null;
+      notifyAll();
+    }
+    if (!opened) {
+      exchange.close();
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package org.academy.pi.sql.logging;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import org.academy.pi.sql.diagnostics.QueryContext;
+
+/**
+ * Logs every request to the {@link AppLog}. Has to run inside the
+ * {@link org.academy.pi.sql.diagnostics.RequestEventFilter}, which sets up the
+ * {@link QueryContext} the query and byte counts are read from.
+ */
+public class AccessLogFilter extends Filter {
+
+  @Override
+  public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+    long startNanos = System.nanoTime();
+    try {
+      chain.doFilter(exchange);
+    } finally {
+      AppLog.access(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+          exchange.getRemoteAddress().getAddress().getHostAddress(), exchange.getResponseCode(),
+          System.nanoTime() - startNanos, QueryContext.bytesRead(), QueryContext.bytesWritten(),
+          QueryContext.sql(), QueryContext.rows());
+    }
+  }
+
+  @Override
+  public String description() {
+    return "Writes an access log entry per request";
+  }
+}
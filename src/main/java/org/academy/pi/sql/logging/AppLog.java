@@ -0,0 +1,167 @@
+package org.academy.pi.sql.logging;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import lombok.experimental.UtilityClass;
+import org.academy.pi.sql.diagnostics.QueryFingerprint;
+
+/**
+ * Structured JSON-lines log of requests, queries and errors, written in the background by an
+ * {@link AsyncLogWriter}. Logging calls only build a small entry and queue it, so they are safe on
+ * request threads. Until {@link #start()} is called (the API server does) entries are ignored.
+ *
+ * <ul>
+ *   <li>{@code sqllearning.log.file} - where to write (default {@code logs/sqllearning.log})</li>
+ *   <li>{@code sqllearning.log.queueSize} - entries waiting before new ones are dropped (8192)</li>
+ *   <li>{@code sqllearning.log.maxFileMb} / {@code sqllearning.log.files} - rotate at this size
+ *   and keep this many old files (10 MB, 5 files)</li>
+ * </ul>
+ */
+@UtilityClass
+public class AppLog {
+
+  private static final int MAX_SQL_LENGTH = 2_000;
+
+  private static volatile AsyncLogWriter writer;
+
+  /**
+   * Open the log file and start the writer thread, does nothing when already started
+   */
+  public static synchronized void start() {
+    if (writer != null) {
+      return;
+    }
+    Path file = Path.of(System.getProperty("sqllearning.log.file", "logs/sqllearning.log"));
+    writer = new AsyncLogWriter(file,
+        Integer.getInteger("sqllearning.log.queueSize", 8192),
+        Long.getLong("sqllearning.log.maxFileMb", 10) * 1024 * 1024,
+        Integer.getInteger("sqllearning.log.files", 5));
+    // flush the tail of the log when the app is killed rather than stopped
+    Runtime.getRuntime().addShutdownHook(new Thread(AppLog::stop, "log-shutdown"));
+    System.out.println("🗒 Logging requests and queries to " + file.toAbsolutePath());
+  }
+
+  /**
+   * Write what is still queued and stop the writer
+   */
+  public static synchronized void stop() {
+    if (writer == null) {
+      return;
+    }
+    AsyncLogWriter stopped = writer;
+    writer = null;
+    stopped.close();
+    System.out.printf("🗒 Log closed: %,d entries written, %,d dropped%n", stopped.getWritten(),
+        stopped.getDropped());
+  }
+
+  /**
+   * One HTTP request, {@code sql} is the query it ran if any
+   */
+  public static void access(String method, String path, String client, int status,
+      long durationNanos, long bytesIn, long bytesOut, String sql, long rows) {
+    offer(new AccessEntry(System.currentTimeMillis(), method, path, client, status,
+        durationNanos, bytesIn, bytesOut, sql, rows));
+  }
+
+  /**
+   * One statement run against {@code database}, {@code error} is null when it succeeded
+   */
+  public static void query(String database, String sql, long rows, long durationNanos,
+      String error) {
+    offer(new QueryEntry(System.currentTimeMillis(), database, sql, rows, durationNanos, error));
+  }
+
+  public static void info(String source, String message) {
+    offer(new MessageEntry(System.currentTimeMillis(), "info", source, message, null));
+  }
+
+  public static void error(String source, String message, Throwable cause) {
+    offer(new MessageEntry(System.currentTimeMillis(), "error", source, message, cause));
+  }
+
+  private static void offer(LogEntry entry) {
+    AsyncLogWriter current = writer;
+    if (current != null) {
+      current.offer(entry);
+    }
+  }
+
+  private static void writeQuery(JsonGenerator gen, String sql) throws IOException {
+    if (sql == null) {
+      return;
+    }
+    gen.writeStringField("fingerprint", QueryFingerprint.of(sql));
+    gen.writeStringField("sql",
+        sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) + "…" : sql);
+  }
+
+  private record AccessEntry(long timeMillis, String method, String path, String client,
+      int status, long durationNanos, long bytesIn, long bytesOut, String sql, long rows)
+      implements LogEntry {
+
+    @Override
+    public String type() {
+      return "access";
+    }
+
+    @Override
+    public void writeFields(JsonGenerator gen) throws IOException {
+      gen.writeStringField("method", method);
+      gen.writeStringField("path", path);
+      gen.writeStringField("client", client);
+      gen.writeNumberField("status", status);
+      gen.writeNumberField("durationMs", durationNanos / 1_000_000.0);
+      gen.writeNumberField("bytesIn", bytesIn);
+      gen.writeNumberField("bytesOut", bytesOut);
+      if (sql != null) {
+        writeQuery(gen, sql);
+        gen.writeNumberField("rows", rows);
+      }
+    }
+  }
+
+  private record QueryEntry(long timeMillis, String database, String sql, long rows,
+      long durationNanos, String error) implements LogEntry {
+
+    @Override
+    public String type() {
+      return "query";
+    }
+
+    @Override
+    public void writeFields(JsonGenerator gen) throws IOException {
+      gen.writeStringField("database", database);
+      writeQuery(gen, sql);
+      gen.writeNumberField("rows", rows);
+      gen.writeNumberField("durationMs", durationNanos / 1_000_000.0);
+      if (error != null) {
+        gen.writeStringField("error", error);
+      }
+    }
+  }
+
+  private record MessageEntry(long timeMillis, String level, String source, String message,
+      Throwable cause) implements LogEntry {
+
+    @Override
+    public String type() {
+      return level;
+    }
+
+    @Override
+    public void writeFields(JsonGenerator gen) throws IOException {
+      gen.writeStringField("source", source);
+      gen.writeStringField("message", message);
+      if (cause != null) {
+        StringWriter trace = new StringWriter();
+        cause.printStackTrace(new PrintWriter(trace));
+        gen.writeStringField("exception", cause.toString());
+        gen.writeStringField("stackTrace", trace.toString());
+      }
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package org.academy.pi.sql.logging;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.academy.pi.sql.diagnostics.CountingOutputStream;
+
+/**
+ * Writes {@link LogEntry}s as JSON lines from a single background thread.
+ *
+ * <p>Producers only append to a lock-free queue. The queue is bounded by a counter instead of a
+ * lock, and when it is full the entry is dropped and counted rather than making the request wait.
+ * The writer drains the queue in batches, flushes once per batch, notes how many entries were
+ * dropped since the last batch, and rotates the file when it grows past its size limit
+ * ({@code sqllearning.log} becomes {@code sqllearning.log.1} and so on).
+ */
+class AsyncLogWriter {
+
+  private static final int BATCH_SIZE = 256;
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+  private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+  private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+  private final Path file;
+  private final int capacity;
+  private final long maxFileBytes;
+  private final int maxFiles;
+  private final ConcurrentLinkedQueue<LogEntry> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder written = new LongAdder();
+  private final JsonFactory jsonFactory = new JsonFactory();
+  private final Thread thread;
+
+  private volatile boolean running = true;
+  private CountingOutputStream out;
+  private JsonGenerator gen;
+  private long fileBytes;
+  private volatile long totalDropped;
+  private boolean failed;
+
+  /**
+   * @param capacity most entries waiting to be written before new ones are dropped
+   * @param maxFileBytes rotate once the current file is larger than this
+   * @param maxFiles rotated files to keep besides the current one
+   */
+  AsyncLogWriter(Path file, int capacity, long maxFileBytes, int maxFiles) {
+    this.file = file;
+    this.capacity = capacity;
+    this.maxFileBytes = maxFileBytes;
+    this.maxFiles = maxFiles;
+    this.thread = new Thread(this::run, "log-writer");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Queue an entry, never blocks
+   *
+   * @return false when the queue was full and the entry was dropped
+   */
+  boolean offer(LogEntry entry) {
+    if (queued.incrementAndGet() > capacity) {
+      queued.decrementAndGet();
+      dropped.increment();
+      return false;
+    }
+    queue.offer(entry);
+    return true;
+  }
+
+  long getWritten() {
+    return written.sum();
+  }
+
+  long getDropped() {
+    return totalDropped + dropped.sum();
+  }
+
+  /**
+   * Write whatever is still queued and stop the writer thread. Entries the writer could not get
+   * to within a few seconds are counted as dropped.
+   */
+  void close() {
+    running = false;
+    LockSupport.unpark(thread);
+    try {
+      thread.join(TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT_SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (thread.isAlive()) {
+      dropped.add(queued.get());
+    }
+  }
+
+  private void run() {
+    while (running || !queue.isEmpty()) {
+      int batch = 0;
+      try {
+        LogEntry entry;
+        while (batch < BATCH_SIZE && (entry = queue.poll()) != null) {
+          queued.decrementAndGet();
+          write(entry);
+          batch++;
+        }
+        long droppedNow = dropped.sumThenReset();
+        if (droppedNow > 0) {
+          totalDropped += droppedNow;
+          if (!failed) {
+            write(new DroppedEntry(System.currentTimeMillis(), droppedNow));
+          }
+        }
+        if (gen != null && (batch > 0 || droppedNow > 0)) {
+          gen.flush();
+          if (fileBytes + out.getCount() > maxFileBytes) {
+            rotate();
+          }
+        }
+      } catch (IOException e) {
+        writeFailed(e);
+      }
+      if (batch == 0 && running) {
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+      }
+    }
+    closeFile();
+  }
+
+  private void write(LogEntry entry) throws IOException {
+    if (failed) {
+      dropped.increment();
+      return;
+    }
+    if (gen == null) {
+      open();
+    }
+    gen.writeStartObject();
+    gen.writeStringField("time", Instant.ofEpochMilli(entry.timeMillis()).toString());
+    gen.writeStringField("type", entry.type());
+    entry.writeFields(gen);
+    gen.writeEndObject();
+    gen.writeRaw('\n');
+    written.increment();
+  }
+
+  private void open() throws IOException {
+    Path parent = file.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    fileBytes = Files.exists(file) ? Files.size(file) : 0;
+    OutputStream stream = Files.newOutputStream(file, StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND);
+    out = new CountingOutputStream(new BufferedOutputStream(stream, WRITE_BUFFER_SIZE));
+    gen = jsonFactory.createGenerator(out);
+    gen.setRootValueSeparator(null);
+  }
+
+  /**
+   * Shift {@code file.1 .. file.N-1} up by one (dropping the oldest) and start a new file
+   */
+  private void rotate() throws IOException {
+    closeFile();
+    if (maxFiles > 0) {
+      Files.deleteIfExists(rotated(maxFiles));
+      for (int i = maxFiles - 1; i >= 1; i--) {
+        if (Files.exists(rotated(i))) {
+          Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+      }
+      Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+    } else {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private Path rotated(int index) {
+    return file.resolveSibling(file.getFileName() + "." + index);
+  }
+
+  private void closeFile() {
+    if (gen == null) {
+      return;
+    }
+    try {
+      gen.close();
+    } catch (IOException e) {
+      writeFailed(e);
+    }
+    gen = null;
+    out = null;
+  }
+
+  /**
+   * Give up on the file after the first I/O error, entries from then on are counted as dropped
+   */
+  private void writeFailed(IOException e) {
+    if (!failed) {
+      failed = true;
+      System.err.println("Log writer error, logging to " + file + " is off: " + e.getMessage());
+    }
+  }
+
+  private record DroppedEntry(long timeMillis, long count) implements LogEntry {
+
+    @Override
+    public String type() {
+      return "dropped";
+    }
+
+    @Override
+    public void writeFields(JsonGenerator gen) throws IOException {
+      gen.writeNumberField("count", count);
+    }
+  }
+}
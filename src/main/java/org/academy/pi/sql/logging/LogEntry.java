@@ -0,0 +1,20 @@
+package org.academy.pi.sql.logging;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+
+/**
+ * One line of the JSON log. Entries are created on request threads and only turned into JSON on
+ * the writer thread, so all a request pays for is the allocation.
+ */
+interface LogEntry {
+
+  /**
+   * Write the entry's fields after {@code time} and {@code type}
+   */
+  void writeFields(JsonGenerator gen) throws IOException;
+
+  String type();
+
+  long timeMillis();
+}
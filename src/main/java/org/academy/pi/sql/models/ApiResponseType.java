@@ -4,5 +4,14 @@ public enum ApiResponseType {
 
   HEALTH,
   TABLE,
+  IMPORT,
+  SHARDS,
+  SCHEMA,
+  EXERCISES,
+  GRADE,
+  DIAGNOSTICS,
+  DATASETS,
+  LIVE,
+  SEARCH,
   ERROR
 }
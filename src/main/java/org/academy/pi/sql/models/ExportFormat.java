@@ -0,0 +1,22 @@
+package org.academy.pi.sql.models;
+
+public enum ExportFormat {
+  CSV("text/csv; charset=utf-8", "csv"),
+  NDJSON("application/x-ndjson; charset=utf-8", "ndjson");
+
+  private final String contentType;
+  private final String fileExtension;
+
+  ExportFormat(String contentType, String fileExtension) {
+    this.contentType = contentType;
+    this.fileExtension = fileExtension;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  public String getFileExtension() {
+    return fileExtension;
+  }
+}
@@ -0,0 +1,10 @@
+package org.academy.pi.sql.models;
+
+/**
+ * How each word of a search has to match a word of the indexed text
+ */
+public enum SearchMode {
+  WORD,
+  PREFIX,
+  SUBSTRING
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package org.academy.pi.sql.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Builder
+@Data
+@NoArgsConstructor
+public class SqlColumnInfo {
+
+  private String name;
+  private String dataType;
+  private boolean nullable;
+  private boolean primaryKey;
+  /**
+   * {@code TABLE.COLUMN} this column is a foreign key to, null when it isn't one
+   */
+  private String references;
+}
@@ -0,0 +1,18 @@
+package org.academy.pi.sql.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Builder
+@Data
+@NoArgsConstructor
+public class SqlDatasetInfo {
+
+  private String name;
+  private String title;
+  private String description;
+  private boolean loaded;
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package org.academy.pi.sql.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Builder
+@Data
+@NoArgsConstructor
+public class SqlExercise {
+
+  private String id;
+  private String title;
+  private String question;
+  private boolean ordered;
+
+  @JsonIgnore
+  private String referenceSql;
+}
@@ -0,0 +1,19 @@
+package org.academy.pi.sql.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Builder
+@Data
+@NoArgsConstructor
+public class SqlGradeResult {
+
+  private String exercise;
+  private boolean passed;
+  private String hint;
+  private long rowCount;
+  private long execTimeMs;
+}
@@ -14,6 +14,9 @@ public class SqlHealthResult {
 
   private boolean connected;
   private String message;
+  private String status;
+  private String dataset;
+  private List<SqlDatasetInfo> datasets;
   private List<SqlNamedQuery> sampleQueries;
   private List<String> tableNames;
 }
\ No newline at end of file
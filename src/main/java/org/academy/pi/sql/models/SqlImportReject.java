@@ -0,0 +1,16 @@
+package org.academy.pi.sql.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Builder
+@Data
+@NoArgsConstructor
+public class SqlImportReject {
+
+  private long line;
+  private String reason;
+}
@@ -0,0 +1,22 @@
+package org.academy.pi.sql.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Builder
+@Data
+@NoArgsConstructor
+public class SqlImportResult {
+
+  private String table;
+  private List<String> columns;
+  private long rowsImported;
+  private long rowsRejected;
+  private List<SqlImportReject> rejects;
+  private long execTimeMs;
+  private long rowsPerSecond;
+}
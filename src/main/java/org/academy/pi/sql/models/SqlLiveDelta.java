@@ -0,0 +1,19 @@
+package org.academy.pi.sql.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Builder
+@Data
+@NoArgsConstructor
+public class SqlLiveDelta {
+
+  // key column values of rows that left the result
+  private List<List<Object>> removed;
+  // new or changed rows, in ascending index order
+  private List<SqlLiveRow> upserted;
+}
\ No newline at end of file
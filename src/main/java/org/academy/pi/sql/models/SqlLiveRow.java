@@ -0,0 +1,17 @@
+package org.academy.pi.sql.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Builder
+@Data
+@NoArgsConstructor
+public class SqlLiveRow {
+
+  private int index;
+  private List<Object> row;
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package org.academy.pi.sql.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Builder
+@Data
+@NoArgsConstructor
+public class SqlLiveSnapshot {
+
+  private List<String> columns;
+  private List<List<Object>> rows;
+  // positions of the columns that identify a row in later deltas, empty when not incremental
+  private List<Integer> keyColumns;
+  private boolean incremental;
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package org.academy.pi.sql.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Builder
+@Data
+@NoArgsConstructor
+public class SqlRecordingInfo {
+
+  private long id;
+  private String name;
+  private String state;
+  private String startTime;
+  private long maxAgeSeconds;
+  private long sizeBytes;
+  private String file;
+}
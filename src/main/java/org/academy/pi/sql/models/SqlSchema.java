@@ -0,0 +1,17 @@
+package org.academy.pi.sql.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Builder
+@Data
+@NoArgsConstructor
+public class SqlSchema {
+
+  private String database;
+  private List<SqlTableInfo> tables;
+}
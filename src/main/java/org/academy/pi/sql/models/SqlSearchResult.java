@@ -0,0 +1,22 @@
+package org.academy.pi.sql.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Builder
+@Data
+@NoArgsConstructor
+public class SqlSearchResult {
+
+  private String query;
+  private SearchMode mode;
+  // every matching student, rows holds at most the requested limit of them
+  private int total;
+  private List<String> columns;
+  private List<List<Object>> rows;
+  private long execTimeMs;
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package org.academy.pi.sql.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Builder
+@Data
+@NoArgsConstructor
+public class SqlShardStats {
+
+  private int shard;
+  private String database;
+  private int sessions;
+  private int pinnedSessions;
+  private int inFlight;
+  private long requests;
+  private long writes;
+  private double avgLatencyMs;
+  private double maxLatencyMs;
+}
@@ -0,0 +1,19 @@
+package org.academy.pi.sql.models;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Builder
+@Data
+@NoArgsConstructor
+public class SqlTableInfo {
+
+  private String name;
+  private String type;
+  private long rowCountEstimate;
+  private List<SqlColumnInfo> columns;
+}
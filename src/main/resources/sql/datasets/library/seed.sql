@@ -0,0 +1,257 @@
+/*
+ * Library lesson: authors write books, members borrow them
+ */
+CREATE TABLE AUTHORS
+(
+    ID         INT,
+    NAME       VARCHAR(100),
+    COUNTRY    VARCHAR(50),
+    BORN_YEAR  INT,
+    PRIMARY KEY (ID)
+);
+
+CREATE TABLE BOOKS
+(
+    ID              INT,
+    TITLE           VARCHAR(200),
+    AUTHOR_ID       INT,
+    GENRE           VARCHAR(50),
+    PUBLISHED_YEAR  INT,
+    PAGES           INT,
+    PRIMARY KEY (ID),
+    FOREIGN KEY (AUTHOR_ID) REFERENCES AUTHORS (ID)
+);
+
+CREATE TABLE MEMBERS
+(
+    ID          INT,
+    FIRST_NAME  VARCHAR(50),
+    LAST_NAME   VARCHAR(50),
+    EMAIL       VARCHAR(100),
+    JOINED_DATE DATE,
+    PRIMARY KEY (ID)
+);
+
+CREATE TABLE LOANS
+(
+    ID            INT,
+    BOOK_ID       INT,
+    MEMBER_ID     INT,
+    LOAN_DATE     DATE,
+    DUE_DATE      DATE,
+    RETURNED_DATE DATE,
+    PRIMARY KEY (ID),
+    FOREIGN KEY (BOOK_ID) REFERENCES BOOKS (ID),
+    FOREIGN KEY (MEMBER_ID) REFERENCES MEMBERS (ID)
+);
+
+INSERT INTO AUTHORS VALUES (1, 'Jane Austen', 'England', 1775);
+INSERT INTO AUTHORS VALUES (2, 'Mark Twain', 'United States', 1835);
+INSERT INTO AUTHORS VALUES (3, 'Jules Verne', 'France', 1828);
+INSERT INTO AUTHORS VALUES (4, 'Lewis Carroll', 'England', 1832);
+INSERT INTO AUTHORS VALUES (5, 'Charles Dickens', 'England', 1812);
+INSERT INTO AUTHORS VALUES (6, 'Louisa May Alcott', 'United States', 1832);
+INSERT INTO AUTHORS VALUES (7, 'Robert Louis Stevenson', 'Scotland', 1850);
+INSERT INTO AUTHORS VALUES (8, 'L. Frank Baum', 'United States', 1856);
+INSERT INTO AUTHORS VALUES (9, 'Arthur Conan Doyle', 'Scotland', 1859);
+INSERT INTO AUTHORS VALUES (10, 'Frances Hodgson Burnett', 'England', 1849);
+INSERT INTO AUTHORS VALUES (11, 'Rudyard Kipling', 'India', 1865);
+INSERT INTO AUTHORS VALUES (12, 'Mary Shelley', 'England', 1797);
+INSERT INTO AUTHORS VALUES (13, 'H. G. Wells', 'England', 1866);
+INSERT INTO AUTHORS VALUES (14, 'Lucy Maud Montgomery', 'Canada', 1874);
+INSERT INTO AUTHORS VALUES (15, 'Kenneth Grahame', 'Scotland', 1859);
+
+INSERT INTO BOOKS VALUES (1, 'Pride and Prejudice', 1, 'Romance', 1813, 432);
+INSERT INTO BOOKS VALUES (2, 'Emma', 1, 'Romance', 1815, 474);
+INSERT INTO BOOKS VALUES (3, 'Sense and Sensibility', 1, 'Romance', 1811, 409);
+INSERT INTO BOOKS VALUES (4, 'The Adventures of Tom Sawyer', 2, 'Adventure', 1876, 274);
+INSERT INTO BOOKS VALUES (5, 'Adventures of Huckleberry Finn', 2, 'Adventure', 1884, 366);
+INSERT INTO BOOKS VALUES (6, 'The Prince and the Pauper', 2, 'Historical', 1881, 240);
+INSERT INTO BOOKS VALUES (7, 'Twenty Thousand Leagues Under the Seas', 3, 'Science Fiction', 1870, 426);
+INSERT INTO BOOKS VALUES (8, 'Around the World in Eighty Days', 3, 'Adventure', 1872, 256);
+INSERT INTO BOOKS VALUES (9, 'Journey to the Center of the Earth', 3, 'Science Fiction', 1864, 240);
+INSERT INTO BOOKS VALUES (10, 'The Mysterious Island', 3, 'Adventure', 1875, 672);
+INSERT INTO BOOKS VALUES (11, 'Alice''s Adventures in Wonderland', 4, 'Fantasy', 1865, 200);
+INSERT INTO BOOKS VALUES (12, 'Through the Looking-Glass', 4, 'Fantasy', 1871, 224);
+INSERT INTO BOOKS VALUES (13, 'Oliver Twist', 5, 'Historical', 1838, 608);
+INSERT INTO BOOKS VALUES (14, 'A Christmas Carol', 5, 'Fantasy', 1843, 104);
+INSERT INTO BOOKS VALUES (15, 'Great Expectations', 5, 'Historical', 1861, 544);
+INSERT INTO BOOKS VALUES (16, 'A Tale of Two Cities', 5, 'Historical', 1859, 448);
+INSERT INTO BOOKS VALUES (17, 'Little Women', 6, 'Historical', 1868, 759);
+INSERT INTO BOOKS VALUES (18, 'Little Men', 6, 'Historical', 1871, 376);
+INSERT INTO BOOKS VALUES (19, 'Treasure Island', 7, 'Adventure', 1883, 292);
+INSERT INTO BOOKS VALUES (20, 'Kidnapped', 7, 'Adventure', 1886, 288);
+INSERT INTO BOOKS VALUES (21, 'Strange Case of Dr Jekyll and Mr Hyde', 7, 'Mystery', 1886, 144);
+INSERT INTO BOOKS VALUES (22, 'The Wonderful Wizard of Oz', 8, 'Fantasy', 1900, 259);
+INSERT INTO BOOKS VALUES (23, 'The Marvelous Land of Oz', 8, 'Fantasy', 1904, 287);
+INSERT INTO BOOKS VALUES (24, 'Ozma of Oz', 8, 'Fantasy', 1907, 270);
+INSERT INTO BOOKS VALUES (25, 'A Study in Scarlet', 9, 'Mystery', 1887, 176);
+INSERT INTO BOOKS VALUES (26, 'The Sign of the Four', 9, 'Mystery', 1890, 160);
+INSERT INTO BOOKS VALUES (27, 'The Hound of the Baskervilles', 9, 'Mystery', 1902, 256);
+INSERT INTO BOOKS VALUES (28, 'The Lost World', 9, 'Science Fiction', 1912, 320);
+INSERT INTO BOOKS VALUES (29, 'The Secret Garden', 10, 'Historical', 1911, 331);
+INSERT INTO BOOKS VALUES (30, 'A Little Princess', 10, 'Historical', 1905, 320);
+INSERT INTO BOOKS VALUES (31, 'Little Lord Fauntleroy', 10, 'Historical', 1886, 224);
+INSERT INTO BOOKS VALUES (32, 'The Jungle Book', 11, 'Adventure', 1894, 277);
+INSERT INTO BOOKS VALUES (33, 'Just So Stories', 11, 'Fantasy', 1902, 248);
+INSERT INTO BOOKS VALUES (34, 'Kim', 11, 'Adventure', 1901, 368);
+INSERT INTO BOOKS VALUES (35, 'Frankenstein', 12, 'Science Fiction', 1818, 280);
+INSERT INTO BOOKS VALUES (36, 'The Time Machine', 13, 'Science Fiction', 1895, 118);
+INSERT INTO BOOKS VALUES (37, 'The War of the Worlds', 13, 'Science Fiction', 1898, 192);
+INSERT INTO BOOKS VALUES (38, 'The Invisible Man', 13, 'Science Fiction', 1897, 166);
+INSERT INTO BOOKS VALUES (39, 'Anne of Green Gables', 14, 'Historical', 1908, 320);
+INSERT INTO BOOKS VALUES (40, 'Anne of Avonlea', 14, 'Historical', 1909, 288);
+INSERT INTO BOOKS VALUES (41, 'The Wind in the Willows', 15, 'Fantasy', 1908, 256);
+INSERT INTO BOOKS VALUES (42, 'Beowulf', null, 'Poetry', 1000, 96);
+
+INSERT INTO MEMBERS VALUES (1, 'Ava', 'Rossi', 'ava.rossi1@readers.example.org', '2022-06-04');
+INSERT INTO MEMBERS VALUES (2, 'Liam', 'Silva', 'liam.silva2@readers.example.org', '2023-10-29');
+INSERT INTO MEMBERS VALUES (3, 'Mia', 'Patel', 'mia.patel3@readers.example.org', '2022-03-16');
+INSERT INTO MEMBERS VALUES (4, 'Noah', 'Berg', 'noah.berg4@readers.example.org', '2022-04-07');
+INSERT INTO MEMBERS VALUES (5, 'Zoe', 'Novak', 'zoe.novak5@readers.example.org', '2023-08-20');
+INSERT INTO MEMBERS VALUES (6, 'Ethan', 'Patel', 'ethan.patel6@readers.example.org', '2023-06-04');
+INSERT INTO MEMBERS VALUES (7, 'Lily', 'Lopez', 'lily.lopez7@readers.example.org', '2022-02-08');
+INSERT INTO MEMBERS VALUES (8, 'Mason', 'Garcia', 'mason.garcia8@readers.example.org', '2023-03-21');
+INSERT INTO MEMBERS VALUES (9, 'Chloe', 'Murphy', 'chloe.murphy9@readers.example.org', '2022-03-13');
+INSERT INTO MEMBERS VALUES (10, 'Lucas', 'Walker', 'lucas.walker10@readers.example.org', '2022-04-03');
+INSERT INTO MEMBERS VALUES (11, 'Emma', 'Berg', null, '2023-03-11');
+INSERT INTO MEMBERS VALUES (12, 'Oliver', 'Patel', 'oliver.patel12@readers.example.org', '2024-04-26');
+INSERT INTO MEMBERS VALUES (13, 'Aria', 'Sato', 'aria.sato13@readers.example.org', '2022-05-07');
+INSERT INTO MEMBERS VALUES (14, 'Leo', 'Walker', 'leo.walker14@readers.example.org', '2023-10-08');
+INSERT INTO MEMBERS VALUES (15, 'Nora', 'Sato', 'nora.sato15@readers.example.org', '2022-03-05');
+INSERT INTO MEMBERS VALUES (16, 'Kai', 'Sato', 'kai.sato16@readers.example.org', '2023-08-23');
+INSERT INTO MEMBERS VALUES (17, 'Ruby', 'Silva', 'ruby.silva17@readers.example.org', '2022-02-20');
+INSERT INTO MEMBERS VALUES (18, 'Finn', 'Walker', 'finn.walker18@readers.example.org', '2022-02-17');
+INSERT INTO MEMBERS VALUES (19, 'Ivy', 'Berg', 'ivy.berg19@readers.example.org', '2024-05-29');
+INSERT INTO MEMBERS VALUES (20, 'Owen', 'Kim', 'owen.kim20@readers.example.org', '2022-10-24');
+INSERT INTO MEMBERS VALUES (21, 'Luna', 'Murphy', 'luna.murphy21@readers.example.org', '2022-05-28');
+INSERT INTO MEMBERS VALUES (22, 'Theo', 'Berg', null, '2022-05-01');
+INSERT INTO MEMBERS VALUES (23, 'Maya', 'Sato', 'maya.sato23@readers.example.org', '2022-11-12');
+INSERT INTO MEMBERS VALUES (24, 'Jack', 'Berg', 'jack.berg24@readers.example.org', '2024-04-15');
+INSERT INTO MEMBERS VALUES (25, 'Ella', 'Brown', 'ella.brown25@readers.example.org', '2022-04-16');
+INSERT INTO MEMBERS VALUES (26, 'Sam', 'Sato', 'sam.sato26@readers.example.org', '2023-08-08');
+INSERT INTO MEMBERS VALUES (27, 'Isla', 'Lopez', 'isla.lopez27@readers.example.org', '2023-01-17');
+INSERT INTO MEMBERS VALUES (28, 'Eli', 'Smith', 'eli.smith28@readers.example.org', '2023-07-15');
+INSERT INTO MEMBERS VALUES (29, 'Hazel', 'Garcia', 'hazel.garcia29@readers.example.org', '2023-08-01');
+INSERT INTO MEMBERS VALUES (30, 'Max', 'Patel', 'max.patel30@readers.example.org', '2023-09-26');
+
+INSERT INTO LOANS VALUES (1, 14, 16, '2025-05-15', '2025-06-05', null);
+INSERT INTO LOANS VALUES (2, 21, 15, '2025-03-27', '2025-04-17', '2025-04-22');
+INSERT INTO LOANS VALUES (3, 20, 8, '2024-09-01', '2024-09-22', '2024-09-19');
+INSERT INTO LOANS VALUES (4, 6, 19, '2024-11-01', '2024-11-22', '2024-11-25');
+INSERT INTO LOANS VALUES (5, 29, 10, '2025-04-08', '2025-04-29', '2025-04-18');
+INSERT INTO LOANS VALUES (6, 33, 14, '2024-08-24', '2024-09-14', '2024-09-05');
+INSERT INTO LOANS VALUES (7, 32, 14, '2024-06-21', '2024-07-12', '2024-06-28');
+INSERT INTO LOANS VALUES (8, 36, 19, '2024-11-08', '2024-11-29', '2024-12-03');
+INSERT INTO LOANS VALUES (9, 39, 16, '2025-03-24', '2025-04-14', '2025-03-31');
+INSERT INTO LOANS VALUES (10, 6, 9, '2025-01-29', '2025-02-19', '2025-02-05');
+INSERT INTO LOANS VALUES (11, 4, 24, '2025-05-26', '2025-06-16', null);
+INSERT INTO LOANS VALUES (12, 37, 22, '2025-01-15', '2025-02-05', '2025-02-11');
+INSERT INTO LOANS VALUES (13, 23, 1, '2025-01-23', '2025-02-13', '2025-02-02');
+INSERT INTO LOANS VALUES (14, 32, 2, '2024-09-20', '2024-10-11', '2024-10-01');
+INSERT INTO LOANS VALUES (15, 16, 13, '2024-12-18', '2025-01-08', '2025-01-21');
+INSERT INTO LOANS VALUES (16, 6, 6, '2025-01-16', '2025-02-06', '2025-02-05');
+INSERT INTO LOANS VALUES (17, 9, 27, '2025-01-07', '2025-01-28', '2025-01-27');
+INSERT INTO LOANS VALUES (18, 27, 12, '2025-05-16', '2025-06-06', '2025-06-02');
+INSERT INTO LOANS VALUES (19, 10, 3, '2024-08-30', '2024-09-20', '2024-09-16');
+INSERT INTO LOANS VALUES (20, 1, 16, '2025-03-29', '2025-04-19', '2025-04-19');
+INSERT INTO LOANS VALUES (21, 1, 5, '2025-01-01', '2025-01-22', '2025-01-24');
+INSERT INTO LOANS VALUES (22, 9, 23, '2025-02-19', '2025-03-12', '2025-02-25');
+INSERT INTO LOANS VALUES (23, 30, 29, '2025-05-15', '2025-06-05', '2025-06-12');
+INSERT INTO LOANS VALUES (24, 26, 13, '2024-12-19', '2025-01-09', '2025-01-16');
+INSERT INTO LOANS VALUES (25, 4, 7, '2024-07-05', '2024-07-26', '2024-08-05');
+INSERT INTO LOANS VALUES (26, 11, 4, '2024-11-22', '2024-12-13', '2024-12-01');
+INSERT INTO LOANS VALUES (27, 1, 19, '2024-08-17', '2024-09-07', '2024-09-12');
+INSERT INTO LOANS VALUES (28, 40, 1, '2024-07-07', '2024-07-28', '2024-08-03');
+INSERT INTO LOANS VALUES (29, 10, 21, '2024-10-08', '2024-10-29', '2024-11-03');
+INSERT INTO LOANS VALUES (30, 31, 4, '2024-07-30', '2024-08-20', '2024-08-31');
+INSERT INTO LOANS VALUES (31, 31, 16, '2024-11-07', '2024-11-28', '2024-11-16');
+INSERT INTO LOANS VALUES (32, 22, 24, '2024-10-14', '2024-11-04', '2024-10-27');
+INSERT INTO LOANS VALUES (33, 34, 1, '2024-09-14', '2024-10-05', '2024-10-10');
+INSERT INTO LOANS VALUES (34, 10, 23, '2025-03-06', '2025-03-27', '2025-03-28');
+INSERT INTO LOANS VALUES (35, 42, 28, '2024-07-17', '2024-08-07', '2024-08-05');
+INSERT INTO LOANS VALUES (36, 34, 12, '2024-08-25', '2024-09-15', '2024-09-11');
+INSERT INTO LOANS VALUES (37, 35, 18, '2025-02-13', '2025-03-06', '2025-03-02');
+INSERT INTO LOANS VALUES (38, 40, 26, '2024-09-08', '2024-09-29', '2024-10-06');
+INSERT INTO LOANS VALUES (39, 15, 7, '2025-02-21', '2025-03-14', '2025-02-25');
+INSERT INTO LOANS VALUES (40, 2, 26, '2024-10-22', '2024-11-12', '2024-11-06');
+INSERT INTO LOANS VALUES (41, 39, 12, '2025-01-15', '2025-02-05', '2025-02-09');
+INSERT INTO LOANS VALUES (42, 24, 3, '2024-09-21', '2024-10-12', '2024-10-24');
+INSERT INTO LOANS VALUES (43, 13, 11, '2024-09-13', '2024-10-04', '2024-09-16');
+INSERT INTO LOANS VALUES (44, 31, 30, '2025-05-01', '2025-05-22', null);
+INSERT INTO LOANS VALUES (45, 42, 3, '2025-05-05', '2025-05-26', null);
+INSERT INTO LOANS VALUES (46, 25, 26, '2024-09-11', '2024-10-02', '2024-09-25');
+INSERT INTO LOANS VALUES (47, 28, 26, '2025-04-22', '2025-05-13', null);
+INSERT INTO LOANS VALUES (48, 26, 15, '2024-12-23', '2025-01-13', '2024-12-31');
+INSERT INTO LOANS VALUES (49, 11, 6, '2024-08-05', '2024-08-26', null);
+INSERT INTO LOANS VALUES (50, 38, 29, '2025-01-25', '2025-02-15', '2025-02-06');
+INSERT INTO LOANS VALUES (51, 40, 27, '2025-04-02', '2025-04-23', '2025-04-27');
+INSERT INTO LOANS VALUES (52, 10, 18, '2025-03-08', '2025-03-29', '2025-03-11');
+INSERT INTO LOANS VALUES (53, 42, 4, '2025-02-25', '2025-03-18', '2025-03-08');
+INSERT INTO LOANS VALUES (54, 28, 28, '2024-09-08', '2024-09-29', '2024-09-24');
+INSERT INTO LOANS VALUES (55, 2, 9, '2024-09-17', '2024-10-08', '2024-10-05');
+INSERT INTO LOANS VALUES (56, 38, 11, '2024-10-11', '2024-11-01', '2024-10-22');
+INSERT INTO LOANS VALUES (57, 4, 30, '2024-11-29', '2024-12-20', '2024-12-28');
+INSERT INTO LOANS VALUES (58, 33, 5, '2025-02-28', '2025-03-21', '2025-04-04');
+INSERT INTO LOANS VALUES (59, 2, 28, '2025-01-12', '2025-02-02', '2025-01-15');
+INSERT INTO LOANS VALUES (60, 10, 6, '2024-08-12', '2024-09-02', '2024-08-22');
+INSERT INTO LOANS VALUES (61, 36, 2, '2024-11-14', '2024-12-05', '2024-12-17');
+INSERT INTO LOANS VALUES (62, 7, 29, '2025-03-14', '2025-04-04', null);
+INSERT INTO LOANS VALUES (63, 13, 9, '2024-06-22', '2024-07-13', '2024-07-27');
+INSERT INTO LOANS VALUES (64, 29, 18, '2024-06-15', '2024-07-06', '2024-06-22');
+INSERT INTO LOANS VALUES (65, 29, 11, '2025-04-10', '2025-05-01', '2025-05-15');
+INSERT INTO LOANS VALUES (66, 13, 23, '2024-10-20', '2024-11-10', '2024-11-22');
+INSERT INTO LOANS VALUES (67, 33, 8, '2025-05-24', '2025-06-14', null);
+INSERT INTO LOANS VALUES (68, 17, 30, '2025-03-14', '2025-04-04', '2025-03-29');
+INSERT INTO LOANS VALUES (69, 29, 5, '2024-12-31', '2025-01-21', '2025-01-31');
+INSERT INTO LOANS VALUES (70, 21, 3, '2025-05-10', '2025-05-31', null);
+INSERT INTO LOANS VALUES (71, 5, 7, '2025-05-09', '2025-05-30', null);
+INSERT INTO LOANS VALUES (72, 8, 29, '2024-08-19', '2024-09-09', '2024-09-14');
+INSERT INTO LOANS VALUES (73, 10, 9, '2024-08-10', '2024-08-31', '2024-08-27');
+INSERT INTO LOANS VALUES (74, 7, 13, '2025-02-05', '2025-02-26', '2025-02-22');
+INSERT INTO LOANS VALUES (75, 11, 23, '2025-01-07', '2025-01-28', '2025-02-04');
+INSERT INTO LOANS VALUES (76, 22, 14, '2024-09-09', '2024-09-30', '2024-09-17');
+INSERT INTO LOANS VALUES (77, 24, 1, '2024-11-21', '2024-12-12', '2024-12-22');
+INSERT INTO LOANS VALUES (78, 2, 13, '2024-11-17', '2024-12-08', '2024-12-08');
+INSERT INTO LOANS VALUES (79, 33, 3, '2024-07-28', '2024-08-18', '2024-08-14');
+INSERT INTO LOANS VALUES (80, 7, 3, '2024-10-14', '2024-11-04', '2024-10-28');
+INSERT INTO LOANS VALUES (81, 18, 25, '2024-08-06', '2024-08-27', '2024-08-25');
+INSERT INTO LOANS VALUES (82, 26, 5, '2025-03-02', '2025-03-23', '2025-04-05');
+INSERT INTO LOANS VALUES (83, 21, 3, '2024-10-21', '2024-11-11', null);
+INSERT INTO LOANS VALUES (84, 12, 14, '2024-07-08', '2024-07-29', '2024-07-12');
+INSERT INTO LOANS VALUES (85, 41, 3, '2024-10-12', '2024-11-02', '2024-10-29');
+INSERT INTO LOANS VALUES (86, 5, 9, '2024-08-02', '2024-08-23', '2024-08-26');
+INSERT INTO LOANS VALUES (87, 36, 14, '2024-10-16', '2024-11-06', '2024-10-21');
+INSERT INTO LOANS VALUES (88, 34, 23, '2024-10-01', '2024-10-22', '2024-10-14');
+INSERT INTO LOANS VALUES (89, 17, 2, '2024-09-01', '2024-09-22', '2024-09-23');
+INSERT INTO LOANS VALUES (90, 41, 10, '2025-02-27', '2025-03-20', '2025-03-20');
+INSERT INTO LOANS VALUES (91, 29, 17, '2025-05-11', '2025-06-01', null);
+INSERT INTO LOANS VALUES (92, 23, 26, '2024-06-10', '2024-07-01', '2024-06-15');
+INSERT INTO LOANS VALUES (93, 1, 1, '2025-02-14', '2025-03-07', '2025-03-01');
+INSERT INTO LOANS VALUES (94, 33, 16, '2024-10-04', '2024-10-25', '2024-10-13');
+INSERT INTO LOANS VALUES (95, 42, 14, '2025-05-03', '2025-05-24', null);
+INSERT INTO LOANS VALUES (96, 26, 17, '2024-11-05', '2024-11-26', '2024-11-22');
+INSERT INTO LOANS VALUES (97, 22, 7, '2025-04-22', '2025-05-13', null);
+INSERT INTO LOANS VALUES (98, 23, 2, '2024-08-06', '2024-08-27', null);
+INSERT INTO LOANS VALUES (99, 41, 24, '2024-10-09', '2024-10-30', '2024-10-15');
+INSERT INTO LOANS VALUES (100, 6, 22, '2024-12-13', '2025-01-03', '2025-01-03');
+INSERT INTO LOANS VALUES (101, 39, 8, '2025-05-21', '2025-06-11', null);
+INSERT INTO LOANS VALUES (102, 30, 6, '2024-08-20', '2024-09-10', '2024-08-23');
+INSERT INTO LOANS VALUES (103, 17, 12, '2024-11-16', '2024-12-07', '2024-12-09');
+INSERT INTO LOANS VALUES (104, 16, 2, '2024-11-06', '2024-11-27', '2024-11-20');
+INSERT INTO LOANS VALUES (105, 1, 11, '2024-12-13', '2025-01-03', '2025-01-02');
+INSERT INTO LOANS VALUES (106, 33, 21, '2024-09-11', '2024-10-02', '2024-09-14');
+INSERT INTO LOANS VALUES (107, 6, 9, '2024-07-16', '2024-08-06', '2024-07-21');
+INSERT INTO LOANS VALUES (108, 26, 1, '2024-11-01', '2024-11-22', '2024-11-18');
+INSERT INTO LOANS VALUES (109, 6, 19, '2025-02-26', '2025-03-19', '2025-03-10');
+INSERT INTO LOANS VALUES (110, 39, 13, '2024-11-14', '2024-12-05', '2024-12-18');
+INSERT INTO LOANS VALUES (111, 10, 10, '2025-04-13', '2025-05-04', '2025-04-18');
+INSERT INTO LOANS VALUES (112, 33, 21, '2025-01-06', '2025-01-27', '2025-02-10');
+INSERT INTO LOANS VALUES (113, 9, 30, '2025-02-24', '2025-03-17', '2025-02-28');
+INSERT INTO LOANS VALUES (114, 38, 26, '2025-05-16', '2025-06-06', '2025-06-02');
+INSERT INTO LOANS VALUES (115, 6, 1, '2024-06-22', '2024-07-13', '2024-07-18');
+INSERT INTO LOANS VALUES (116, 7, 13, '2025-01-18', '2025-02-08', '2025-01-22');
+INSERT INTO LOANS VALUES (117, 41, 18, '2025-05-15', '2025-06-05', null);
+INSERT INTO LOANS VALUES (118, 17, 1, '2025-01-20', '2025-02-10', '2025-02-24');
+INSERT INTO LOANS VALUES (119, 35, 3, '2025-05-04', '2025-05-25', null);
+INSERT INTO LOANS VALUES (120, 31, 9, '2024-07-09', '2024-07-30', '2024-07-27');
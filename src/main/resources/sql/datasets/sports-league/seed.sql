@@ -0,0 +1,218 @@
+/*
+ * Sports league lesson: a youth soccer league with teams, players and a season of matches.
+ * Matches that haven't been played yet have NULL goals.
+ */
+CREATE TABLE TEAMS
+(
+    ID            INT,
+    NAME          VARCHAR(100),
+    CITY          VARCHAR(50),
+    FOUNDED_YEAR  INT,
+    COLORS        VARCHAR(50),
+    PRIMARY KEY (ID)
+);
+
+CREATE TABLE PLAYERS
+(
+    ID             INT,
+    TEAM_ID        INT,
+    FIRST_NAME     VARCHAR(50),
+    LAST_NAME      VARCHAR(50),
+    POSITION       VARCHAR(20),
+    JERSEY_NUMBER  INT,
+    BIRTH_DATE     DATE,
+    PRIMARY KEY (ID),
+    FOREIGN KEY (TEAM_ID) REFERENCES TEAMS (ID)
+);
+
+CREATE TABLE MATCHES
+(
+    ID            INT,
+    MATCH_DATE    DATE,
+    HOME_TEAM_ID  INT,
+    AWAY_TEAM_ID  INT,
+    HOME_GOALS    INT,
+    AWAY_GOALS    INT,
+    PRIMARY KEY (ID),
+    FOREIGN KEY (HOME_TEAM_ID) REFERENCES TEAMS (ID),
+    FOREIGN KEY (AWAY_TEAM_ID) REFERENCES TEAMS (ID)
+);
+
+INSERT INTO TEAMS VALUES (1, 'River City Otters', 'River City', 1998, 'Blue/White');
+INSERT INTO TEAMS VALUES (2, 'Hilltop Hawks', 'Hilltop', 2003, 'Red/Black');
+INSERT INTO TEAMS VALUES (3, 'Lakeside Lightning', 'Lakeside', 1995, 'Yellow/Navy');
+INSERT INTO TEAMS VALUES (4, 'Pine Valley Pumas', 'Pine Valley', 2008, 'Green/Gold');
+INSERT INTO TEAMS VALUES (5, 'Harbor Town Herons', 'Harbor Town', 2001, 'Teal/White');
+INSERT INTO TEAMS VALUES (6, 'Maple Grove Meteors', 'Maple Grove', 2011, 'Orange/Black');
+INSERT INTO TEAMS VALUES (7, 'Stone Bridge Strikers', 'Stone Bridge', 1999, 'Purple/Silver');
+INSERT INTO TEAMS VALUES (8, 'Sunny Fields Foxes', 'Sunny Fields', 2015, 'Orange/White');
+
+INSERT INTO PLAYERS VALUES (1, 1, 'Cameron', 'Ellis', 'Goalkeeper', 14, '2009-06-08');
+INSERT INTO PLAYERS VALUES (2, 1, 'Quinn', 'Underwood', 'Goalkeeper', 15, '2010-11-11');
+INSERT INTO PLAYERS VALUES (3, 1, 'Cameron', 'Stone', 'Defender', 30, '2010-09-16');
+INSERT INTO PLAYERS VALUES (4, 1, 'Alex', 'Porter', 'Defender', 32, '2009-10-01');
+INSERT INTO PLAYERS VALUES (5, 1, 'Reese', 'Irving', 'Defender', 25, '2009-05-05');
+INSERT INTO PLAYERS VALUES (6, 1, 'Riley', 'Wells', 'Defender', 5, '2012-10-08');
+INSERT INTO PLAYERS VALUES (7, 1, 'Elliot', 'Porter', 'Defender', 31, '2010-03-22');
+INSERT INTO PLAYERS VALUES (8, 1, 'Frankie', 'Quincy', 'Midfielder', 19, '2010-08-19');
+INSERT INTO PLAYERS VALUES (9, 1, 'Emery', 'Ortiz', 'Midfielder', 35, '2010-08-08');
+INSERT INTO PLAYERS VALUES (10, 1, 'Jesse', 'Dawson', 'Midfielder', 2, '2011-08-14');
+INSERT INTO PLAYERS VALUES (11, 1, 'Jamie', 'James', 'Midfielder', 20, '2012-01-30');
+INSERT INTO PLAYERS VALUES (12, 1, 'Peyton', 'Porter', 'Forward', 21, '2009-06-25');
+INSERT INTO PLAYERS VALUES (13, 1, 'Avery', 'Ortiz', 'Forward', 28, '2009-02-05');
+INSERT INTO PLAYERS VALUES (14, 1, 'Lane', 'Quincy', 'Forward', 7, '2009-06-06');
+INSERT INTO PLAYERS VALUES (15, 2, 'Hayden', 'Irving', 'Goalkeeper', 29, '2012-07-17');
+INSERT INTO PLAYERS VALUES (16, 2, 'Frankie', 'Lambert', 'Goalkeeper', 18, '2009-08-19');
+INSERT INTO PLAYERS VALUES (17, 2, 'Reese', 'Porter', 'Defender', 25, '2010-04-19');
+INSERT INTO PLAYERS VALUES (18, 2, 'Alex', 'Foster', 'Defender', 14, '2011-03-19');
+INSERT INTO PLAYERS VALUES (19, 2, 'Reese', 'Vaughn', 'Defender', 36, '2009-01-08');
+INSERT INTO PLAYERS VALUES (20, 2, 'Skyler', 'James', 'Defender', 5, '2011-07-13');
+INSERT INTO PLAYERS VALUES (21, 2, 'Drew', 'Lambert', 'Defender', 6, '2009-10-16');
+INSERT INTO PLAYERS VALUES (22, 2, 'Parker', 'Dawson', 'Midfielder', 10, '2011-02-10');
+INSERT INTO PLAYERS VALUES (23, 2, 'Alex', 'Keller', 'Midfielder', 24, '2010-11-10');
+INSERT INTO PLAYERS VALUES (24, 2, 'Lane', 'Mendes', 'Midfielder', 17, '2010-11-24');
+INSERT INTO PLAYERS VALUES (25, 2, 'Peyton', 'Grant', 'Midfielder', 9, '2009-09-03');
+INSERT INTO PLAYERS VALUES (26, 2, 'Nico', 'Young', 'Forward', 12, '2009-01-25');
+INSERT INTO PLAYERS VALUES (27, 2, 'Quinn', 'Lambert', 'Forward', 34, '2010-08-17');
+INSERT INTO PLAYERS VALUES (28, 2, 'Skyler', 'Mendes', 'Forward', 20, '2009-05-14');
+INSERT INTO PLAYERS VALUES (29, 3, 'Quinn', 'Nolan', 'Goalkeeper', 38, '2010-05-26');
+INSERT INTO PLAYERS VALUES (30, 3, 'Parker', 'Grant', 'Goalkeeper', 5, '2011-11-13');
+INSERT INTO PLAYERS VALUES (31, 3, 'Kendall', 'Nolan', 'Defender', 24, '2011-02-04');
+INSERT INTO PLAYERS VALUES (32, 3, 'Kendall', 'Zhang', 'Defender', 28, '2009-03-01');
+INSERT INTO PLAYERS VALUES (33, 3, 'Skyler', 'Reyes', 'Defender', 18, '2012-07-16');
+INSERT INTO PLAYERS VALUES (34, 3, 'Jamie', 'Young', 'Defender', 4, '2012-01-30');
+INSERT INTO PLAYERS VALUES (35, 3, 'Sam', 'Young', 'Defender', 35, '2009-06-15');
+INSERT INTO PLAYERS VALUES (36, 3, 'Emery', 'Turner', 'Midfielder', 7, '2011-04-22');
+INSERT INTO PLAYERS VALUES (37, 3, 'Dakota', 'James', 'Midfielder', 2, '2009-10-11');
+INSERT INTO PLAYERS VALUES (38, 3, 'Sam', 'Reyes', 'Midfielder', 27, '2011-09-22');
+INSERT INTO PLAYERS VALUES (39, 3, 'Taylor', 'Porter', 'Midfielder', 22, '2009-09-18');
+INSERT INTO PLAYERS VALUES (40, 3, 'Parker', 'James', 'Forward', 10, '2011-04-30');
+INSERT INTO PLAYERS VALUES (41, 3, 'Quinn', 'Young', 'Forward', 21, '2010-09-02');
+INSERT INTO PLAYERS VALUES (42, 3, 'Quinn', 'Mendes', 'Forward', 39, '2012-08-29');
+INSERT INTO PLAYERS VALUES (43, 4, 'Emery', 'Keller', 'Goalkeeper', 16, '2010-03-27');
+INSERT INTO PLAYERS VALUES (44, 4, 'Drew', 'Ellis', 'Goalkeeper', 20, '2011-07-11');
+INSERT INTO PLAYERS VALUES (45, 4, 'Jamie', 'Hayes', 'Defender', 31, '2012-01-27');
+INSERT INTO PLAYERS VALUES (46, 4, 'Taylor', 'Keller', 'Defender', 36, '2009-07-05');
+INSERT INTO PLAYERS VALUES (47, 4, 'Jordan', 'Keller', 'Defender', 26, '2012-02-13');
+INSERT INTO PLAYERS VALUES (48, 4, 'Rowan', 'Irving', 'Defender', 8, '2010-05-05');
+INSERT INTO PLAYERS VALUES (49, 4, 'Jamie', 'Adams', 'Defender', 11, '2012-03-12');
+INSERT INTO PLAYERS VALUES (50, 4, 'Skyler', 'Nolan', 'Midfielder', 33, '2011-04-26');
+INSERT INTO PLAYERS VALUES (51, 4, 'Jamie', 'Mendes', 'Midfielder', 3, '2011-12-10');
+INSERT INTO PLAYERS VALUES (52, 4, 'Parker', 'Zhang', 'Midfielder', 7, '2010-07-08');
+INSERT INTO PLAYERS VALUES (53, 4, 'Reese', 'Irving', 'Midfielder', 17, '2009-05-08');
+INSERT INTO PLAYERS VALUES (54, 4, 'Rowan', 'Ellis', 'Forward', 35, '2012-03-22');
+INSERT INTO PLAYERS VALUES (55, 4, 'Hayden', 'Underwood', 'Forward', 39, '2011-10-28');
+INSERT INTO PLAYERS VALUES (56, 4, 'Jordan', 'Irving', 'Forward', 18, '2010-03-19');
+INSERT INTO PLAYERS VALUES (57, 5, 'Reese', 'Adams', 'Goalkeeper', 16, '2012-04-17');
+INSERT INTO PLAYERS VALUES (58, 5, 'Skyler', 'Quincy', 'Goalkeeper', 25, '2009-05-30');
+INSERT INTO PLAYERS VALUES (59, 5, 'Emery', 'Hayes', 'Defender', 26, '2011-08-17');
+INSERT INTO PLAYERS VALUES (60, 5, 'Morgan', 'Ellis', 'Defender', 29, '2009-08-12');
+INSERT INTO PLAYERS VALUES (61, 5, 'Hayden', 'Vaughn', 'Defender', 28, '2009-11-08');
+INSERT INTO PLAYERS VALUES (62, 5, 'Lane', 'Young', 'Defender', 20, '2009-08-12');
+INSERT INTO PLAYERS VALUES (63, 5, 'Micah', 'Zhang', 'Defender', 2, '2012-08-18');
+INSERT INTO PLAYERS VALUES (64, 5, 'Jordan', 'Reyes', 'Midfielder', 9, '2011-07-26');
+INSERT INTO PLAYERS VALUES (65, 5, 'Alex', 'Ellis', 'Midfielder', 33, '2009-03-22');
+INSERT INTO PLAYERS VALUES (66, 5, 'Blake', 'Baker', 'Midfielder', 14, '2010-04-22');
+INSERT INTO PLAYERS VALUES (67, 5, 'Frankie', 'James', 'Midfielder', 23, '2012-08-14');
+INSERT INTO PLAYERS VALUES (68, 5, 'Dakota', 'Irving', 'Forward', 38, '2009-09-20');
+INSERT INTO PLAYERS VALUES (69, 5, 'Dakota', 'Nolan', 'Forward', 37, '2011-12-18');
+INSERT INTO PLAYERS VALUES (70, 5, 'Riley', 'Carter', 'Forward', 39, '2009-08-18');
+INSERT INTO PLAYERS VALUES (71, 6, 'Reese', 'Quincy', 'Goalkeeper', 20, '2010-05-12');
+INSERT INTO PLAYERS VALUES (72, 6, 'Logan', 'Hayes', 'Goalkeeper', 34, '2010-04-26');
+INSERT INTO PLAYERS VALUES (73, 6, 'Drew', 'Wells', 'Defender', 13, '2009-03-01');
+INSERT INTO PLAYERS VALUES (74, 6, 'Avery', 'Baker', 'Defender', 25, '2012-08-23');
+INSERT INTO PLAYERS VALUES (75, 6, 'Jamie', 'Porter', 'Defender', 17, '2009-02-14');
+INSERT INTO PLAYERS VALUES (76, 6, 'Dakota', 'Nolan', 'Defender', 15, '2012-10-13');
+INSERT INTO PLAYERS VALUES (77, 6, 'Quinn', 'Hayes', 'Defender', 1, '2009-06-16');
+INSERT INTO PLAYERS VALUES (78, 6, 'Drew', 'Lambert', 'Midfielder', 33, '2012-09-28');
+INSERT INTO PLAYERS VALUES (79, 6, 'Reese', 'Baker', 'Midfielder', 18, '2010-04-10');
+INSERT INTO PLAYERS VALUES (80, 6, 'Frankie', 'Nolan', 'Midfielder', 10, '2010-11-24');
+INSERT INTO PLAYERS VALUES (81, 6, 'Elliot', 'Mendes', 'Midfielder', 38, '2011-01-13');
+INSERT INTO PLAYERS VALUES (82, 6, 'Alex', 'James', 'Forward', 9, '2010-02-10');
+INSERT INTO PLAYERS VALUES (83, 6, 'Jordan', 'Grant', 'Forward', 11, '2011-10-31');
+INSERT INTO PLAYERS VALUES (84, 6, 'Jamie', 'James', 'Forward', 21, '2011-10-13');
+INSERT INTO PLAYERS VALUES (85, 7, 'Sam', 'Turner', 'Goalkeeper', 13, '2012-09-24');
+INSERT INTO PLAYERS VALUES (86, 7, 'Peyton', 'Mendes', 'Goalkeeper', 15, '2009-10-27');
+INSERT INTO PLAYERS VALUES (87, 7, 'Jamie', 'Adams', 'Defender', 30, '2009-04-22');
+INSERT INTO PLAYERS VALUES (88, 7, 'Casey', 'Nolan', 'Defender', 38, '2012-05-05');
+INSERT INTO PLAYERS VALUES (89, 7, 'Frankie', 'Baker', 'Defender', 17, '2009-04-17');
+INSERT INTO PLAYERS VALUES (90, 7, 'Skyler', 'Ortiz', 'Defender', 19, '2010-01-13');
+INSERT INTO PLAYERS VALUES (91, 7, 'Harper', 'Dawson', 'Defender', 7, '2010-10-06');
+INSERT INTO PLAYERS VALUES (92, 7, 'Peyton', 'Foster', 'Midfielder', 32, '2009-06-12');
+INSERT INTO PLAYERS VALUES (93, 7, 'Jamie', 'Foster', 'Midfielder', 20, '2010-11-06');
+INSERT INTO PLAYERS VALUES (94, 7, 'Peyton', 'Quincy', 'Midfielder', 6, '2012-08-29');
+INSERT INTO PLAYERS VALUES (95, 7, 'Sam', 'James', 'Midfielder', 29, '2011-08-16');
+INSERT INTO PLAYERS VALUES (96, 7, 'Harper', 'Mendes', 'Forward', 8, '2012-09-22');
+INSERT INTO PLAYERS VALUES (97, 7, 'Parker', 'Ortiz', 'Forward', 16, '2011-02-05');
+INSERT INTO PLAYERS VALUES (98, 7, 'Riley', 'Adams', 'Forward', 14, '2009-12-13');
+INSERT INTO PLAYERS VALUES (99, 8, 'Jordan', 'Baker', 'Goalkeeper', 6, '2011-06-05');
+INSERT INTO PLAYERS VALUES (100, 8, 'Jamie', 'Lambert', 'Goalkeeper', 18, '2011-08-28');
+INSERT INTO PLAYERS VALUES (101, 8, 'Peyton', 'Ortiz', 'Defender', 39, '2012-01-15');
+INSERT INTO PLAYERS VALUES (102, 8, 'Parker', 'Lambert', 'Defender', 23, '2010-01-31');
+INSERT INTO PLAYERS VALUES (103, 8, 'Alex', 'Underwood', 'Defender', 27, '2011-08-30');
+INSERT INTO PLAYERS VALUES (104, 8, 'Morgan', 'Underwood', 'Defender', 8, '2011-04-22');
+INSERT INTO PLAYERS VALUES (105, 8, 'Sam', 'Mendes', 'Defender', 14, '2011-04-09');
+INSERT INTO PLAYERS VALUES (106, 8, 'Emery', 'Carter', 'Midfielder', 25, '2009-03-13');
+INSERT INTO PLAYERS VALUES (107, 8, 'Quinn', 'Grant', 'Midfielder', 12, '2009-05-07');
+INSERT INTO PLAYERS VALUES (108, 8, 'Nico', 'Turner', 'Midfielder', 32, '2009-05-09');
+INSERT INTO PLAYERS VALUES (109, 8, 'Rowan', 'Irving', 'Midfielder', 35, '2010-11-26');
+INSERT INTO PLAYERS VALUES (110, 8, 'Cameron', 'Baker', 'Forward', 10, '2010-11-18');
+INSERT INTO PLAYERS VALUES (111, 8, 'Harper', 'Wells', 'Forward', 29, '2010-06-21');
+INSERT INTO PLAYERS VALUES (112, 8, 'Peyton', 'Irving', 'Forward', 26, '2010-10-11');
+
+INSERT INTO MATCHES VALUES (1, '2024-09-07', 1, 8, 2, 2);
+INSERT INTO MATCHES VALUES (2, '2024-09-07', 2, 7, 1, 3);
+INSERT INTO MATCHES VALUES (3, '2024-09-07', 3, 6, 2, 1);
+INSERT INTO MATCHES VALUES (4, '2024-09-07', 4, 5, 1, 1);
+INSERT INTO MATCHES VALUES (5, '2024-09-14', 1, 7, 2, 3);
+INSERT INTO MATCHES VALUES (6, '2024-09-14', 8, 6, 0, 0);
+INSERT INTO MATCHES VALUES (7, '2024-09-14', 2, 5, 2, 0);
+INSERT INTO MATCHES VALUES (8, '2024-09-14', 3, 4, 1, 0);
+INSERT INTO MATCHES VALUES (9, '2024-09-21', 1, 6, 1, 0);
+INSERT INTO MATCHES VALUES (10, '2024-09-21', 7, 5, 3, 2);
+INSERT INTO MATCHES VALUES (11, '2024-09-21', 8, 4, 3, 0);
+INSERT INTO MATCHES VALUES (12, '2024-09-21', 2, 3, 1, 1);
+INSERT INTO MATCHES VALUES (13, '2024-09-28', 1, 5, 1, 0);
+INSERT INTO MATCHES VALUES (14, '2024-09-28', 6, 4, 0, 1);
+INSERT INTO MATCHES VALUES (15, '2024-09-28', 7, 3, 0, 1);
+INSERT INTO MATCHES VALUES (16, '2024-09-28', 8, 2, 2, 1);
+INSERT INTO MATCHES VALUES (17, '2024-10-05', 1, 4, 0, 1);
+INSERT INTO MATCHES VALUES (18, '2024-10-05', 5, 3, 1, 2);
+INSERT INTO MATCHES VALUES (19, '2024-10-05', 6, 2, 2, 0);
+INSERT INTO MATCHES VALUES (20, '2024-10-05', 7, 8, 1, 2);
+INSERT INTO MATCHES VALUES (21, '2024-10-12', 1, 3, 0, 2);
+INSERT INTO MATCHES VALUES (22, '2024-10-12', 4, 2, 0, 1);
+INSERT INTO MATCHES VALUES (23, '2024-10-12', 5, 8, 1, 4);
+INSERT INTO MATCHES VALUES (24, '2024-10-12', 6, 7, 1, 0);
+INSERT INTO MATCHES VALUES (25, '2024-10-19', 1, 2, 0, 1);
+INSERT INTO MATCHES VALUES (26, '2024-10-19', 3, 8, 3, 1);
+INSERT INTO MATCHES VALUES (27, '2024-10-19', 4, 7, 1, 3);
+INSERT INTO MATCHES VALUES (28, '2024-10-19', 5, 6, 3, 2);
+INSERT INTO MATCHES VALUES (29, '2024-10-26', 8, 1, 1, 2);
+INSERT INTO MATCHES VALUES (30, '2024-10-26', 7, 2, 0, 0);
+INSERT INTO MATCHES VALUES (31, '2024-10-26', 6, 3, 1, 1);
+INSERT INTO MATCHES VALUES (32, '2024-10-26', 5, 4, 0, 0);
+INSERT INTO MATCHES VALUES (33, '2024-11-02', 7, 1, 4, 0);
+INSERT INTO MATCHES VALUES (34, '2024-11-02', 6, 8, 0, 0);
+INSERT INTO MATCHES VALUES (35, '2024-11-02', 5, 2, 0, 0);
+INSERT INTO MATCHES VALUES (36, '2024-11-02', 4, 3, 1, 3);
+INSERT INTO MATCHES VALUES (37, '2024-11-09', 6, 1, 0, 2);
+INSERT INTO MATCHES VALUES (38, '2024-11-09', 5, 7, 1, 5);
+INSERT INTO MATCHES VALUES (39, '2024-11-09', 4, 8, 1, 1);
+INSERT INTO MATCHES VALUES (40, '2024-11-09', 3, 2, 0, 1);
+INSERT INTO MATCHES VALUES (41, '2024-11-16', 5, 1, 1, 2);
+INSERT INTO MATCHES VALUES (42, '2024-11-16', 4, 6, 4, 0);
+INSERT INTO MATCHES VALUES (43, '2024-11-16', 3, 7, 4, 1);
+INSERT INTO MATCHES VALUES (44, '2024-11-16', 2, 8, 1, 0);
+INSERT INTO MATCHES VALUES (45, '2024-11-23', 4, 1, 0, 2);
+INSERT INTO MATCHES VALUES (46, '2024-11-23', 3, 5, 5, 1);
+INSERT INTO MATCHES VALUES (47, '2024-11-23', 2, 6, 3, 0);
+INSERT INTO MATCHES VALUES (48, '2024-11-23', 8, 7, 1, 1);
+INSERT INTO MATCHES VALUES (49, '2024-11-30', 3, 1, null, null);
+INSERT INTO MATCHES VALUES (50, '2024-11-30', 2, 4, null, null);
+INSERT INTO MATCHES VALUES (51, '2024-11-30', 8, 5, null, null);
+INSERT INTO MATCHES VALUES (52, '2024-11-30', 7, 6, null, null);
+INSERT INTO MATCHES VALUES (53, '2024-12-07', 2, 1, null, null);
+INSERT INTO MATCHES VALUES (54, '2024-12-07', 8, 3, null, null);
+INSERT INTO MATCHES VALUES (55, '2024-12-07', 7, 4, null, null);
+INSERT INTO MATCHES VALUES (56, '2024-12-07', 6, 5, null, null);
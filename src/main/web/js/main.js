@@ -1,20 +1,38 @@
 class DbManager {
 
   constructor() {
+    this.sessionId = this.loadSessionId();
+    this.schemaNames = [];
+    this.liveSource = null;
     this.fetchServerHealth().then();
+    this.fetchSchema().then();
     this.setupEventListeners();
   }
 
+  // Keeps this browser on the same database shard across page reloads
+  loadSessionId() {
+    let sessionId = localStorage.getItem('sqlSessionId');
+    if (!sessionId) {
+      sessionId = crypto.randomUUID();
+      localStorage.setItem('sqlSessionId', sessionId);
+    }
+    return sessionId;
+  }
+
   async fetchServerHealth() {
-    await fetch('http://localhost:8080/sql/health')
+    await fetch('http://localhost:8080/sql/health', {
+      headers: {'X-Session-Id': this.sessionId},
+    })
     .then(response => response.json())
     .then(response => {
       const data = response?.data ?? {
         connected: false,
         sampleQueries: [],
         tableNames: [],
+        datasets: [],
       };
       this.updateStatusIndicator(data.connected);
+      this.populateDatasets(data.datasets ?? [], data.dataset);
       this.populateSampleQueries(data.sampleQueries);
     })
     .catch(err => {
@@ -23,6 +41,94 @@ class DbManager {
     });
   }
 
+  populateDatasets(datasets, selected) {
+    const select = document.getElementById('dataset-select');
+    select.innerHTML = '';
+    datasets.forEach(dataset => {
+      const option = document.createElement('option');
+      option.value = dataset.name;
+      option.title = dataset.description;
+      option.textContent = `${dataset.loaded ? '🟢' : '⚪'} ${dataset.title}`;
+      option.selected = dataset.name === selected;
+      select.appendChild(option);
+    });
+  }
+
+  // The server remembers the choice for this session, so queries and downloads follow it
+  async selectDataset(name) {
+    await fetch('http://localhost:8080/sql/datasets', {
+      method: 'POST',
+      headers: {
+        'Content-Type': 'application/json',
+        'X-Session-Id': this.sessionId,
+      },
+      body: JSON.stringify({'dataset': name})
+    })
+    .then(() => Promise.all([this.fetchServerHealth(), this.fetchSchema()]))
+    .catch(err => console.log("error", err));
+  }
+
+  // The browser revalidates with the ETag, so this is a cheap 304 unless the schema changed
+  async fetchSchema() {
+    await fetch('http://localhost:8080/sql/schema', {
+      headers: {'X-Session-Id': this.sessionId},
+      cache: 'no-cache',
+    })
+    .then(response => response.json())
+    .then(response => {
+      const tables = response?.data?.tables ?? [];
+      this.schemaNames = [...new Set(tables.flatMap(
+          table => [table.name, ...table.columns.map(column => column.name)]))];
+      this.populateSchema(tables);
+    })
+    .catch(err => console.log("error", err));
+  }
+
+  populateSchema(tables) {
+    const container = document.getElementById('schema-list');
+    container.innerHTML = '';
+    tables.forEach(table => {
+      const details = document.createElement('details');
+      details.className = 'schema-table';
+      details.innerHTML = `
+          <summary data-name="${table.name}">${table.name}
+            <span class="schema-row-count">~${table.rowCountEstimate} rows</span></summary>
+      `;
+      table.columns.forEach(column => {
+        const div = document.createElement('div');
+        div.className = 'schema-column';
+        div.dataset.name = column.name;
+        const key = column.primaryKey ? ' 🔑' : column.references ? ` → ${column.references}` : '';
+        div.textContent = `${column.name} ${column.dataType}${key}`;
+        details.appendChild(div);
+      });
+      container.appendChild(details);
+    });
+  }
+
+  insertIntoQuery(text) {
+    const queryInput = document.getElementById('query-input');
+    const start = queryInput.selectionStart;
+    queryInput.setRangeText(text, start, queryInput.selectionEnd, 'end');
+    queryInput.focus();
+  }
+
+  // Tab completes the word before the cursor with a table or column name
+  completeName(event) {
+    const queryInput = event.target;
+    const end = queryInput.selectionStart;
+    const prefix = queryInput.value.slice(0, end).match(/[A-Za-z_][A-Za-z0-9_]*$/)?.[0];
+    if (!prefix || queryInput.selectionEnd !== end) {
+      return;
+    }
+    const match = this.schemaNames.find(
+        name => name.toUpperCase().startsWith(prefix.toUpperCase()) && name.length > prefix.length);
+    if (match) {
+      event.preventDefault();
+      queryInput.setRangeText(match, end - prefix.length, end, 'end');
+    }
+  }
+
   updateStatusIndicator(isConnected) {
     document.querySelectorAll('.status-indicator').forEach(indicator => {
       const connectedClass = 'status-connected';
@@ -43,11 +149,43 @@ class DbManager {
       this.executeQuery();
     });
 
+    // Download results button
+    document.getElementById('download-btn').addEventListener('click', () => {
+      const query = document.getElementById('query-input').value.trim();
+      window.open(`http://localhost:8080/sql/export?format=csv&session=${this.sessionId}`
+          + `&sql=${encodeURIComponent(query)}`, '_blank');
+    });
+
+    // Live results, click again to stop
+    document.getElementById('live-btn').addEventListener('click', () => {
+      this.toggleLive();
+    });
+
+    // Switch lesson dataset
+    document.getElementById('dataset-select').addEventListener('change', (e) => {
+      this.selectDataset(e.target.value).then();
+    });
+
     // Execute database button
     document.getElementById('db-btn').addEventListener('click', () => {
       window.open('http://localhost:8082', '_blank');
     });
 
+    // Table and column names complete with Tab
+    document.getElementById('query-input').addEventListener('keydown', (e) => {
+      if (e.key === 'Tab') {
+        this.completeName(e);
+      }
+    });
+
+    // Table browser clicks insert the name into the query
+    document.getElementById('schema-list').addEventListener('click', (e) => {
+      const named = e.target.closest('.schema-column, summary');
+      if (named) {
+        this.insertIntoQuery(named.dataset.name);
+      }
+    });
+
     // Sample query clicks
     document.addEventListener('click', (e) => {
       const closestQuery = e.target.closest('.sample-query');
@@ -112,6 +250,7 @@ class DbManager {
       headers: {
         Accept: 'application/json',
         'Content-Type': 'application/json',
+        'X-Session-Id': this.sessionId,
       },
       body: JSON.stringify({
         'sql': query
@@ -130,11 +269,77 @@ class DbManager {
           execTimeMs: 0
         };
         this.displayResults(response, data.execTimeMs);
+        // pick up tables created or altered by this statement
+        this.fetchSchema().then();
       }
     })
     .catch(err => this.displayError(err.message || 'Network error occurred', 0));
   }
 
+  // Keeps the results table up to date as rows change, the server pushes a snapshot first and
+  // then deltas (or new snapshots for queries it can't update incrementally)
+  toggleLive() {
+    const button = document.getElementById('live-btn');
+    if (this.liveSource) {
+      this.liveSource.close();
+      this.liveSource = null;
+      button.innerHTML = '&#x1F4E1; &nbsp; Go Live';
+      return;
+    }
+
+    const query = document.getElementById('query-input').value.trim();
+    const source = new EventSource(`http://localhost:8080/sql/live?session=${this.sessionId}`
+        + `&sql=${encodeURIComponent(query)}`);
+    let live = null;
+    let updates = 0;
+    let notice = '';
+    const render = () => {
+      this.displayResults({
+        type: 'TABLE',
+        data: {columns: live.columns, rows: live.rows, count: live.rows.length},
+      }, 0);
+      document.getElementById('performance-badge').textContent = `📡 ${updates} updates${notice}`;
+    };
+
+    source.addEventListener('snapshot', (e) => {
+      live = JSON.parse(e.data).data;
+      render();
+    });
+    source.addEventListener('delta', (e) => {
+      const delta = JSON.parse(e.data).data;
+      const keyOf = row => JSON.stringify(live.keyColumns.map(column => row[column]));
+      const gone = new Set([
+        ...delta.removed.map(key => JSON.stringify(key)),
+        ...delta.upserted.map(upsert => keyOf(upsert.row)),
+      ]);
+      live.rows = live.rows.filter(row => !gone.has(keyOf(row)));
+      delta.upserted.forEach(upsert => live.rows.splice(upsert.index, 0, upsert.row));
+      updates++;
+      render();
+    });
+    source.addEventListener('notice', (e) => {
+      // still live, but something happened worth mentioning
+      notice = ` ⚠️ ${JSON.parse(e.data).data.errorMessage}`;
+      if (live) {
+        render();
+      }
+    });
+    source.addEventListener('error', (e) => {
+      if (e.data) {
+        // the query stopped working, e.g. a column it reads was dropped
+        this.displayError(JSON.parse(e.data).data.errorMessage, 0);
+        this.toggleLive();
+      } else if (source.readyState === EventSource.CLOSED) {
+        this.displayError('Could not go live, execute the query to see why', 0);
+        this.toggleLive();
+      }
+      // otherwise the browser reconnects and gets a fresh snapshot
+    });
+
+    this.liveSource = source;
+    button.innerHTML = '&#x23F9; &nbsp; Stop Live';
+  }
+
   displayResults(result, executionTime) {
     const resultsContent = document.getElementById('results-content');
     const performanceBadge = document.getElementById('performance-badge');
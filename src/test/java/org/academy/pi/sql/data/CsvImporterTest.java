@@ -0,0 +1,180 @@
+package org.academy.pi.sql.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.academy.pi.sql.models.SqlImportReject;
+import org.academy.pi.sql.models.SqlImportResult;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CsvImporterTest {
+
+  private static DataRepo dataRepo;
+  private static CsvImporter importer;
+
+  @BeforeAll
+  static void openDatabase() {
+    dataRepo = new DataRepo("csv_importer_test", ExecutionMode.DIRECT);
+    importer = new CsvImporter(dataRepo);
+  }
+
+  @AfterAll
+  static void closeDatabase() {
+    dataRepo.close();
+  }
+
+  @BeforeEach
+  void createTable() throws SQLException {
+    execute("DROP TABLE IF EXISTS PEOPLE");
+    execute("""
+        CREATE TABLE PEOPLE (
+          ID INT PRIMARY KEY,
+          NAME VARCHAR(20) NOT NULL,
+          NOTE VARCHAR(50)
+        )""");
+  }
+
+  @Test
+  void importsWithAHeaderRow() throws Exception {
+    SqlImportResult result = importCsv("""
+        note,Id,NAME\r
+        "likes ""SQL"", a lot",1,Ada\r
+        ,2,Bob\r
+        "",3,Cy\r
+        """, List.of(), true);
+
+    assertEquals("PEOPLE", result.getTable());
+    assertEquals(List.of("NOTE", "ID", "NAME"), result.getColumns());
+    assertEquals(3, result.getRowsImported());
+    assertEquals(0, result.getRowsRejected());
+    // an empty unquoted field is NULL, a quoted one an empty string
+    assertEquals(List.of(
+        Arrays.asList(1, "Ada", "likes \"SQL\", a lot"),
+        Arrays.asList(2, "Bob", null),
+        Arrays.asList(3, "Cy", "")), people());
+  }
+
+  @Test
+  void usesTableOrderWithoutHeaderOrColumns() throws Exception {
+    SqlImportResult result = importCsv("1,Ada,first\n2,Bob,\"multi\nline\"\n", List.of(), false);
+    assertEquals(2, result.getRowsImported());
+    assertEquals(List.of(
+        Arrays.asList(1, "Ada", "first"),
+        Arrays.asList(2, "Bob", "multi\nline")), people());
+  }
+
+  @Test
+  void mapsFieldsToTheGivenColumns() throws Exception {
+    // the header is skipped, the given columns win
+    importCsv("a,b\nAda,7\n", List.of("name", "id"), true);
+    assertEquals(List.of(Arrays.asList(7, "Ada", null)), people());
+  }
+
+  @Test
+  void rejectsOnlyTheBadRowsWithTheirLines() throws Exception {
+    SqlImportResult result = importCsv("""
+        id,name,note
+        1,Ada,ok
+        2,Bob
+        1,Duplicate,primary key
+        "3","Cy","quoted
+        over two lines"
+        x,Bad number,
+        4,,name is NULL
+        5,Ed,ok
+        """, List.of(), true);
+
+    assertEquals(3, result.getRowsImported());
+    assertEquals(4, result.getRowsRejected());
+    assertEquals(List.of(3L, 4L, 7L, 8L),
+        result.getRejects().stream().map(SqlImportReject::getLine).toList());
+    assertTrue(result.getRejects().get(0).getReason().contains("Expected 3 fields but found 2"));
+    // driver messages are cut down to their first part
+    for (SqlImportReject reject : result.getRejects()) {
+      assertFalse(reject.getReason().contains("SQL statement"), reject.getReason());
+    }
+    assertEquals(List.of(1, 3, 5), people().stream().map(row -> row.get(0)).toList());
+  }
+
+  @Test
+  void mapsRejectsAcrossBatches() throws Exception {
+    StringBuilder csv = new StringBuilder();
+    List<Long> badLines = new ArrayList<>();
+    for (int i = 1; i <= 2_500; i++) {
+      // every 400th row repeats an ID, the rest are fine
+      int id = i % 400 == 0 ? 1 : i;
+      if (id != i) {
+        badLines.add((long) i);
+      }
+      csv.append(id).append(",Name ").append(i).append('\n');
+    }
+
+    SqlImportResult result = importCsv(csv.toString(), List.of("ID", "NAME"), false);
+    assertEquals(2_500 - badLines.size(), result.getRowsImported());
+    assertEquals(badLines,
+        result.getRejects().stream().map(SqlImportReject::getLine).toList());
+    assertEquals(2_500 - badLines.size(), people().size());
+  }
+
+  @Test
+  void failsOnUnknownTablesAndColumns() {
+    SQLException table = assertThrows(SQLException.class,
+        () -> importCsv("1\n", List.of(), false, "NOBODY"));
+    assertTrue(table.getMessage().contains("NOBODY"), table.getMessage());
+    SQLException column = assertThrows(SQLException.class,
+        () -> importCsv("1,2\n", List.of("ID", "AGE"), false));
+    assertTrue(column.getMessage().contains("AGE"), column.getMessage());
+  }
+
+  @Test
+  void rollsBackWhenTheFileIsBroken() throws Exception {
+    assertThrows(IOException.class, () -> importCsv("1,Ada,ok\n2,Bob,\"never closed\n",
+        List.of(), false));
+    assertEquals(List.of(), people());
+  }
+
+  private static SqlImportResult importCsv(String csv, List<String> columns, boolean header)
+      throws SQLException, IOException {
+    return importCsv(csv, columns, header, "people");
+  }
+
+  private static SqlImportResult importCsv(String csv, List<String> columns, boolean header,
+      String table) throws SQLException, IOException {
+    return importer.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+        table, columns, header);
+  }
+
+  private static List<List<Object>> people() throws SQLException {
+    List<List<Object>> rows = new ArrayList<>();
+    try (Connection conn = dataRepo.getConnection();
+        Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT ID, NAME, NOTE FROM PEOPLE ORDER BY ID")) {
+      while (rs.next()) {
+        rows.add(Arrays.asList(rs.getInt(1), rs.getString(2), rs.getString(3)));
+      }
+    }
+    return rows;
+  }
+
+  private static void execute(String sql) throws SQLException {
+    try (Connection conn = dataRepo.getConnection();
+        Statement stmt = conn.createStatement()) {
+      stmt.execute(sql);
+    }
+  }
+}
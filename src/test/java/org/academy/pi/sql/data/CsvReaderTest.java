@@ -0,0 +1,100 @@
+package org.academy.pi.sql.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+
+  @Test
+  void readsPlainRecords() throws IOException {
+    assertEquals(List.of(List.of("id", "name"), List.of("1", "Ada"), List.of("2", "Bob")),
+        readAll("id,name\n1,Ada\n2,Bob\n"));
+  }
+
+  @Test
+  void readsEmptyUnquotedFieldsAsNull() throws IOException {
+    assertEquals(List.of(Arrays.asList("a", null, "", null)), readAll("a,,\"\",\n"));
+    assertEquals(List.of(Arrays.asList(null, null)), readAll(","));
+  }
+
+  @Test
+  void readsQuotedFields() throws IOException {
+    assertEquals(List.of(List.of("a,b", "say \"hi\"", "line 1\r\nline 2", "x")),
+        readAll("\"a,b\",\"say \"\"hi\"\"\",\"line 1\r\nline 2\",x\r\n"));
+  }
+
+  @Test
+  void keepsQuotesInsideUnquotedFields() throws IOException {
+    assertEquals(List.of(List.of("5'11\"", "ab\"c")), readAll("5'11\",ab\"c"));
+  }
+
+  @Test
+  void acceptsEveryLineBreakAndNoFinalOne() throws IOException {
+    List<List<String>> expected = List.of(List.of("1"), List.of("2"), List.of("3"), List.of("4"));
+    assertEquals(expected, readAll("1\r\n2\n3\r4"));
+    // blank lines between records are skipped
+    assertEquals(expected, readAll("\n1\r\n\r\n2\n\n3\r\r4\n\n"));
+  }
+
+  @Test
+  void reportsTheLineEachRecordStartsOn() throws IOException {
+    CsvReader reader = reader("a\r\n\"b\nstill b\r\nand b\"\nc\r\n\r\nd");
+    List<Long> lines = new ArrayList<>();
+    while (reader.readRecord() != null) {
+      lines.add(reader.getRecordLine());
+    }
+    assertEquals(List.of(1L, 2L, 5L, 7L), lines);
+  }
+
+  @Test
+  void failsOnAnUnterminatedQuote() throws IOException {
+    CsvReader reader = reader("ok\n\"never\nclosed");
+    assertEquals(List.of("ok"), reader.readRecord());
+    IOException e = assertThrows(IOException.class, reader::readRecord);
+    assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+  }
+
+  @Test
+  void readsRecordsAcrossBufferBoundaries() throws IOException {
+    String longField = "x".repeat(20_000);
+    StringBuilder csv = new StringBuilder();
+    for (int i = 0; i < 3; i++) {
+      csv.append(i).append(",\"").append(longField).append("\"\r\n");
+    }
+    List<List<String>> records = readAll(csv.toString());
+    assertEquals(3, records.size());
+    for (int i = 0; i < 3; i++) {
+      assertEquals(List.of(String.valueOf(i), longField), records.get(i));
+    }
+  }
+
+  @Test
+  void returnsNullOnceExhausted() throws IOException {
+    CsvReader reader = reader("");
+    assertNull(reader.readRecord());
+    assertNull(reader.readRecord());
+  }
+
+  private static CsvReader reader(String csv) {
+    return new CsvReader(new StringReader(csv));
+  }
+
+  private static List<List<String>> readAll(String csv) throws IOException {
+    CsvReader reader = reader(csv);
+    List<List<String>> records = new ArrayList<>();
+    List<String> record;
+    while ((record = reader.readRecord()) != null) {
+      records.add(record);
+    }
+    return records;
+  }
+}
@@ -0,0 +1,32 @@
+package org.academy.pi.sql.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class DataRepoTest {
+
+  private static final String DB_NAME = "data_repo_test_planets";
+
+  @Test
+  void dropsAHalfSeededDatabase() throws Exception {
+    assertThrows(RuntimeException.class,
+        () -> new DataRepo(DB_NAME, dataset("seed.sql"), ExecutionMode.DIRECT));
+
+    // the tables the broken script did create are gone, so seeding again doesn't trip over them
+    DataRepo repo = new DataRepo(DB_NAME, dataset("fixed.sql"), ExecutionMode.DIRECT);
+    try {
+      assertEquals(List.of(List.of(2L)),
+          repo.executeQuery("SELECT COUNT(*) FROM PLANETS").getRows());
+    } finally {
+      repo.close();
+    }
+  }
+
+  private static Dataset dataset(String script) {
+    return new Dataset("broken", "Broken", "Seeds partway", "/sql/datasets/broken/" + script,
+        List.of());
+  }
+}
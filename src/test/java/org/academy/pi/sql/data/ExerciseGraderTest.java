@@ -0,0 +1,85 @@
+package org.academy.pi.sql.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.academy.pi.sql.models.SqlGradeResult;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ExerciseGraderTest {
+
+  private static DataRepo dataRepo;
+  private static ExerciseGrader grader;
+
+  @BeforeAll
+  static void openDatabase() {
+    dataRepo = new DataRepo("exercise_grader_test", ExecutionMode.DIRECT);
+    grader = new ExerciseGrader(dataRepo);
+  }
+
+  @AfterAll
+  static void closeDatabase() {
+    dataRepo.close();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"SELECT 1", "SELECT 1;", "SELECT 1 ;\n  ;\n", "SELECT ';' AS S",
+      "SELECT 'it''s; fine'", "SELECT 1 AS \"a;b\"", "SELECT 1 -- one; two\n",
+      "SELECT /* ; */ 1", "SELECT 1; -- done", "SELECT 1; /* done */"})
+  void acceptsOneStatement(String sql) {
+    assertTrue(ExerciseGrader.isSingleStatement(sql), sql);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"SELECT 1; SELECT 2", "SELECT 1;DROP TABLE FAVORITES",
+      "SELECT 1; 'x'", "SELECT 'unterminated; DROP TABLE FAVORITES",
+      "SELECT /* unterminated; DROP TABLE FAVORITES", "SELECT 1 /* /* */ ; DROP TABLE F */",
+      "SELECT $$;$$ AS S"})
+  void rejectsAnythingMore(String sql) {
+    assertFalse(ExerciseGrader.isSingleStatement(sql), sql);
+  }
+
+  @Test
+  void gradesAnAnswer() throws SQLException {
+    SqlGradeResult result = grader.grade(dataRepo, "count-students",
+        "select count(*) from STUDENTS;");
+    assertTrue(result.isPassed(), result.getHint());
+    assertEquals(1, result.getRowCount());
+  }
+
+  @Test
+  void refusesASecondStatement() throws SQLException {
+    long favorites = count("FAVORITES");
+    SQLException e = assertThrows(SQLException.class, () -> grader.grade(dataRepo,
+        "count-students", "SELECT COUNT(*) FROM STUDENTS; DROP TABLE FAVORITES"));
+    assertEquals("Answers must be a single SELECT query", e.getMessage());
+    assertEquals(favorites, count("FAVORITES"));
+  }
+
+  @Test
+  void rollsBackChangesMadeInsideTheQuery() throws SQLException {
+    long favorites = count("FAVORITES");
+    grader.grade(dataRepo, "count-students",
+        "SELECT COUNT(*) FROM OLD TABLE (DELETE FROM FAVORITES)");
+    assertEquals(favorites, count("FAVORITES"));
+  }
+
+  private static long count(String table) throws SQLException {
+    try (Connection conn = dataRepo.getConnection();
+        Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+      rs.next();
+      return rs.getLong(1);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package org.academy.pi.sql.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.academy.pi.sql.models.SqlQueryResult;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class GroupCommitExecutorTest {
+
+  private static DataRepo dataRepo;
+
+  @BeforeAll
+  static void openDatabase() throws SQLException {
+    dataRepo = new DataRepo("group_commit_executor_test", ExecutionMode.GROUP_COMMIT) {
+      @Override
+      SqlQueryResult runQuery(Connection conn, String sql, int maxRows) throws SQLException {
+        if (sql.contains("'error'")) {
+          throw new AssertionError("writer bug");
+        }
+        if (sql.contains("'runtime'")) {
+          throw new IllegalStateException("writer bug");
+        }
+        return super.runQuery(conn, sql, maxRows);
+      }
+    };
+    dataRepo.executeQuery("CREATE TABLE LOG (MSG VARCHAR(20))");
+  }
+
+  @AfterAll
+  static void closeDatabase() {
+    dataRepo.close();
+  }
+
+  @Test
+  void commitsWrites() throws SQLException {
+    assertEquals(1, dataRepo.executeQuery("INSERT INTO LOG VALUES ('one')").getCount());
+    assertEquals(1, count("one"));
+  }
+
+  @Test
+  void survivesAWriteThatThrows() throws SQLException {
+    for (String msg : List.of("error", "runtime")) {
+      SQLException e = assertThrows(SQLException.class,
+          () -> dataRepo.executeQuery("INSERT INTO LOG VALUES ('" + msg + "')"));
+      assertTrue(e.getMessage().contains("writer bug"), e.getMessage());
+    }
+    dataRepo.executeQuery("INSERT INTO LOG VALUES ('after')");
+    assertEquals(1, count("after"));
+  }
+
+  @Test
+  void failsTheWholeGroupOfAWriteThatThrows() throws Exception {
+    ExecutorService clients = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<SqlQueryResult>> results = new ArrayList<>();
+      for (int i = 0; i < 40; i++) {
+        String msg = i == 20 ? "runtime" : "group";
+        results.add(clients.submit(
+            () -> dataRepo.executeQuery("INSERT INTO LOG VALUES ('" + msg + "')")));
+      }
+      int committed = 0;
+      for (Future<SqlQueryResult> result : results) {
+        try {
+          result.get(10, TimeUnit.SECONDS);
+          committed++;
+        } catch (ExecutionException e) {
+          assertTrue(e.getCause() instanceof SQLException, e.getCause().toString());
+        }
+      }
+      // every client hears back, and only the ones told so were committed
+      assertEquals(committed, count("group"));
+      assertTrue(committed < 40);
+    } finally {
+      clients.shutdownNow();
+    }
+  }
+
+  private static long count(String msg) throws SQLException {
+    return ((Number) dataRepo.executeQuery("SELECT COUNT(*) FROM LOG WHERE MSG = '" + msg + "'")
+        .getRows().get(0).get(0)).longValue();
+  }
+}
@@ -0,0 +1,272 @@
+package org.academy.pi.sql.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class GroupCountPlanTest {
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+  private static Connection conn;
+
+  @BeforeAll
+  static void createTables() throws SQLException {
+    conn = DriverManager.getConnection("jdbc:h2:mem:group_count_plan_test");
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("""
+          CREATE TABLE FAVORITES (
+            NAME VARCHAR(50),
+            CATEGORY VARCHAR(20),
+            FAVORITE VARCHAR(20),
+            RANK INT,
+            SCORE DECIMAL(5, 2),
+            OPT_OUT BOOLEAN
+          )""");
+      stmt.execute("""
+          INSERT INTO FAVORITES VALUES
+            ('Ada', 'COLOR', 'Red', 1, 1.5, FALSE),
+            ('Bob', 'COLOR', 'Blue', 2, 2.5, FALSE),
+            ('Cy', 'COLOR', 'Red', 10, 3.5, TRUE),
+            ('Di', 'COLOR', 'Green', 9, 1.0, FALSE),
+            ('Ed', 'COLOR', 'Blue', 2, 1.0, NULL),
+            ('Fay', 'COLOR', NULL, 9, 1.0, FALSE),
+            ('Gus', 'FOOD', 'Pizza', 1, 1.0, FALSE),
+            ('Hal', 'FOOD', 'Pizza', NULL, 1.0, TRUE),
+            ('Ida', 'FOOD', 'Soup', 10, 1.0, FALSE),
+            ('Jo', 'FOOD', NULL, 3, 1.0, FALSE)""");
+    }
+  }
+
+  @AfterAll
+  static void closeConnection() throws SQLException {
+    conn.close();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "SELECT COUNT(*) FROM FAVORITES",
+      "select favorite, count(*) from favorites group by favorite",
+      """
+          SELECT F.FAVORITE AS COLOR, COUNT(*) AS STUDENT_COUNT
+          FROM FAVORITES F
+          WHERE F.CATEGORY = 'COLOR'
+          GROUP BY F.FAVORITE
+          ORDER BY STUDENT_COUNT DESC
+          LIMIT 10""",
+      "SELECT CATEGORY, FAVORITE, COUNT(*) N FROM FAVORITES GROUP BY FAVORITE, CATEGORY ORDER BY 3",
+      "SELECT RANK, COUNT(*) FROM FAVORITES WHERE RANK <> -1 AND NAME IS NOT NULL GROUP BY RANK;",
+      "SELECT OPT_OUT, COUNT(*) FROM FAVORITES WHERE OPT_OUT != TRUE GROUP BY OPT_OUT",
+      "SELECT COUNT(*) FROM FAVORITES WHERE NAME = 'O''Brien' AND FAVORITE IS NULL",
+      "SELECT FAVORITE, COUNT(*) FROM FAVORITES GROUP BY FAVORITE ORDER BY COUNT(*) ASC, FAVORITE",
+  })
+  void parsesSimpleGroupedCounts(String sql) {
+    assertTrue(GroupCountPlan.parse(sql).isPresent(), sql);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "SELECT NAME FROM FAVORITES",
+      "SELECT FAVORITE, COUNT(*) FROM FAVORITES",
+      "SELECT COUNT(*) FROM FAVORITES GROUP BY FAVORITE",
+      "SELECT FAVORITE, COUNT(*), COUNT(*) FROM FAVORITES GROUP BY FAVORITE",
+      "SELECT FAVORITE, COUNT(NAME) FROM FAVORITES GROUP BY FAVORITE",
+      "SELECT FAVORITE, SUM(RANK) FROM FAVORITES GROUP BY FAVORITE",
+      "SELECT FAVORITE, COUNT(*) FROM FAVORITES GROUP BY FAVORITE HAVING COUNT(*) > 1",
+      "SELECT F.FAVORITE, COUNT(*) FROM FAVORITES F JOIN STUDENTS S ON S.ID = F.NAME"
+          + " GROUP BY F.FAVORITE",
+      "SELECT FAVORITE, COUNT(*) FROM FAVORITES, STUDENTS GROUP BY FAVORITE",
+      "SELECT X.FAVORITE, COUNT(*) FROM FAVORITES F GROUP BY F.FAVORITE",
+      "SELECT \"FAVORITE\", COUNT(*) FROM FAVORITES GROUP BY \"FAVORITE\"",
+      "SELECT COUNT(*) FROM FAVORITES WHERE RANK = 1 OR RANK = 2",
+      "SELECT COUNT(*) FROM FAVORITES WHERE RANK > 1",
+      "SELECT COUNT(*) FROM FAVORITES WHERE RANK = 1.5",
+      "SELECT COUNT(*) FROM FAVORITES WHERE RANK = 99999999999999999999",
+      "SELECT COUNT(*) FROM FAVORITES WHERE RANK = NAME",
+      "SELECT COUNT(*) FROM FAVORITES WHERE NAME = 'unterminated",
+      "SELECT COUNT(*) FROM FAVORITES LIMIT -1",
+      "SELECT FAVORITE, COUNT(*) FROM FAVORITES GROUP BY FAVORITE ORDER BY 3",
+      "SELECT FAVORITE, COUNT(*) FROM FAVORITES GROUP BY FAVORITE ORDER BY NAME",
+      "SELECT COUNT(*) FROM FAVORITES -- comment",
+      "SELECT COUNT(*) FROM FAVORITES; DROP TABLE FAVORITES",
+      "SELECT DISTINCT FAVORITE, COUNT(*) FROM FAVORITES GROUP BY FAVORITE",
+      "SELECT COUNT(*) FROM FAVORITES UNION SELECT COUNT(*) FROM FAVORITES",
+      "UPDATE FAVORITES SET RANK = 1",
+  })
+  void rejectsAnythingElse(String sql) {
+    assertTrue(GroupCountPlan.parse(sql).isEmpty(), sql);
+  }
+
+  @Test
+  void describesItsOutput() {
+    GroupCountPlan plan = plan(
+        "SELECT COUNT(*) AS N, F.CATEGORY, FAVORITE FROM FAVORITES F GROUP BY CATEGORY, FAVORITE");
+    assertEquals("FAVORITES", plan.getTable());
+    assertEquals(List.of("N", "CATEGORY", "FAVORITE"), plan.getLabels());
+    assertEquals(List.of(1, 2), plan.keyColumns());
+    assertEquals("SELECT CATEGORY, FAVORITE, COUNT(*) FROM FAVORITES GROUP BY CATEGORY, FAVORITE",
+        plan.groupSql());
+  }
+
+  @Test
+  void onlyTrustsColumnsTriggerRowsCompareOn() throws SQLException {
+    assertTrue(plan("SELECT RANK, COUNT(*) FROM FAVORITES WHERE OPT_OUT = FALSE GROUP BY RANK")
+        .supportedBy(conn));
+    // DECIMAL values don't round-trip through JSON exactly
+    assertFalse(plan("SELECT SCORE, COUNT(*) FROM FAVORITES GROUP BY SCORE").supportedBy(conn));
+    assertFalse(plan("SELECT COUNT(*) FROM FAVORITES WHERE RANK = '1'").supportedBy(conn));
+    assertFalse(plan("SELECT COUNT(*) FROM FAVORITES WHERE NAME = 1").supportedBy(conn));
+    assertFalse(plan("SELECT MISSING, COUNT(*) FROM FAVORITES GROUP BY MISSING")
+        .supportedBy(conn));
+  }
+
+  @Test
+  void matchesTriggerRows() throws Exception {
+    GroupCountPlan plan = plan("""
+        SELECT CATEGORY, COUNT(*) FROM FAVORITES
+        WHERE FAVORITE = 'Red' AND RANK <> 2 AND OPT_OUT = FALSE AND NAME IS NOT NULL
+        GROUP BY CATEGORY""");
+    assertTrue(plan.matches(row(
+        "{\"NAME\":\"Ada\",\"CATEGORY\":\"COLOR\",\"FAVORITE\":\"Red\",\"RANK\":1,"
+            + "\"OPT_OUT\":false}")));
+    assertFalse(plan.matches(row(
+        "{\"NAME\":\"Ada\",\"CATEGORY\":\"COLOR\",\"FAVORITE\":\"Red\",\"RANK\":2,"
+            + "\"OPT_OUT\":false}")));
+    assertFalse(plan.matches(row(
+        "{\"NAME\":\"Ada\",\"CATEGORY\":\"COLOR\",\"FAVORITE\":\"red\",\"RANK\":1,"
+            + "\"OPT_OUT\":false}")));
+    assertFalse(plan.matches(row(
+        "{\"NAME\":null,\"CATEGORY\":\"COLOR\",\"FAVORITE\":\"Red\",\"RANK\":1,"
+            + "\"OPT_OUT\":false}")));
+    assertFalse(plan.matches(row(
+        "{\"NAME\":\"Ada\",\"CATEGORY\":\"COLOR\",\"FAVORITE\":\"Red\",\"RANK\":1,"
+            + "\"OPT_OUT\":true}")));
+    // like SQL, <> is never true for NULL
+    assertFalse(plan.matches(row(
+        "{\"NAME\":\"Ada\",\"CATEGORY\":\"COLOR\",\"FAVORITE\":\"Red\",\"RANK\":null,"
+            + "\"OPT_OUT\":false}")));
+  }
+
+  @Test
+  void matchesWholeNumbersWhateverTheirJsonSize() throws Exception {
+    GroupCountPlan plan = plan("SELECT COUNT(*) FROM FAVORITES WHERE RANK = 5000000000");
+    assertTrue(plan.matches(row("{\"RANK\":5000000000}")));
+    assertTrue(plan("SELECT COUNT(*) FROM FAVORITES WHERE RANK = -3")
+        .matches(row("{\"RANK\":-3}")));
+    assertFalse(plan.matches(row("{\"RANK\":5}")));
+  }
+
+  @Test
+  void keysTriggerRowsLikeGroupRows() throws Exception {
+    GroupCountPlan plan = plan(
+        "SELECT FAVORITE, RANK, COUNT(*) FROM FAVORITES GROUP BY FAVORITE, RANK");
+    List<Object> fromTrigger = plan.key(row("{\"NAME\":\"Ada\",\"FAVORITE\":\"Red\",\"RANK\":1}"));
+    List<Object> fromH2 = GroupCountPlan.key(Arrays.asList("Red", 1, 2L));
+    assertEquals(fromH2, fromTrigger);
+    assertEquals(Arrays.asList(null, null), plan.key(row("{\"FAVORITE\":null}")));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "SELECT COUNT(*) FROM FAVORITES",
+      "SELECT COUNT(*) FROM FAVORITES WHERE CATEGORY = 'NONE'",
+      "SELECT COUNT(*) AS N FROM FAVORITES WHERE FAVORITE IS NULL",
+      "SELECT FAVORITE, COUNT(*) FROM FAVORITES WHERE CATEGORY = 'NONE' GROUP BY FAVORITE",
+      "SELECT CATEGORY, COUNT(*) FROM FAVORITES GROUP BY CATEGORY ORDER BY CATEGORY DESC",
+      "SELECT RANK, COUNT(*) FROM FAVORITES GROUP BY RANK ORDER BY RANK",
+      "SELECT RANK, COUNT(*) FROM FAVORITES GROUP BY RANK ORDER BY RANK DESC",
+      "SELECT OPT_OUT, COUNT(*) FROM FAVORITES GROUP BY OPT_OUT ORDER BY 1",
+      "SELECT CATEGORY, FAVORITE, COUNT(*) FROM FAVORITES GROUP BY CATEGORY, FAVORITE"
+          + " ORDER BY CATEGORY, FAVORITE DESC",
+      "SELECT COUNT(*) AS N, FAVORITE FROM FAVORITES WHERE RANK <> 2 GROUP BY FAVORITE"
+          + " ORDER BY N DESC, FAVORITE LIMIT 2",
+  })
+  void buildsWhatH2Returns(String sql) throws SQLException {
+    GroupCountPlan plan = plan(sql);
+    assertEquals(query(sql), plan.result(counts(plan)), sql);
+  }
+
+  @Test
+  void breaksTiesByGroupSoLimitsAreStable() throws SQLException {
+    // Red and Blue share the top count among colors; H2 leaves their order open, the plan sorts
+    // them by group after the ORDER BY
+    GroupCountPlan plan = plan("""
+        SELECT F.FAVORITE AS COLOR, COUNT(*) AS STUDENT_COUNT
+        FROM FAVORITES F
+        WHERE F.CATEGORY = 'COLOR'
+        GROUP BY F.FAVORITE
+        ORDER BY STUDENT_COUNT DESC
+        LIMIT 2""");
+    List<List<Object>> expected = query("""
+        SELECT F.FAVORITE AS COLOR, COUNT(*) AS STUDENT_COUNT
+        FROM FAVORITES F
+        WHERE F.CATEGORY = 'COLOR'
+        GROUP BY F.FAVORITE
+        ORDER BY STUDENT_COUNT DESC, COLOR
+        LIMIT 2""");
+    assertEquals(expected, plan.result(counts(plan)));
+    assertEquals(List.of(List.of("Blue", 2L), List.of("Red", 2L)), expected);
+  }
+
+  @Test
+  void leavesOutGroupsThatCountedDownToZero() {
+    GroupCountPlan plan = plan("SELECT FAVORITE, COUNT(*) FROM FAVORITES GROUP BY FAVORITE");
+    Map<List<Object>, Long> counts = new HashMap<>();
+    counts.put(List.of("Red"), 0L);
+    counts.put(List.of("Blue"), 1L);
+    assertEquals(List.of(List.of("Blue", 1L)), plan.result(counts));
+  }
+
+  private static GroupCountPlan plan(String sql) {
+    return GroupCountPlan.parse(sql).orElseThrow(() -> new AssertionError("No plan: " + sql));
+  }
+
+  private static Map<String, Object> row(String json) throws Exception {
+    return JSON.readValue(json, new TypeReference<Map<String, Object>>() {
+    });
+  }
+
+  /**
+   * Group counts as {@link LiveSubscription} loads them
+   */
+  private static Map<List<Object>, Long> counts(GroupCountPlan plan) throws SQLException {
+    Map<List<Object>, Long> counts = new HashMap<>();
+    for (List<Object> row : query(plan.groupSql())) {
+      counts.put(GroupCountPlan.key(row), (Long) row.get(row.size() - 1));
+    }
+    return counts;
+  }
+
+  private static List<List<Object>> query(String sql) throws SQLException {
+    List<List<Object>> rows = new ArrayList<>();
+    try (Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery(sql)) {
+      int columns = rs.getMetaData().getColumnCount();
+      while (rs.next()) {
+        Object[] row = new Object[columns];
+        for (int i = 0; i < columns; i++) {
+          row[i] = GroupCountPlan.normalize(rs.getObject(i + 1));
+        }
+        rows.add(Arrays.asList(row));
+      }
+    }
+    return rows;
+  }
+}
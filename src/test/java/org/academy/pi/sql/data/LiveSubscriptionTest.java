@@ -0,0 +1,124 @@
+package org.academy.pi.sql.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.academy.pi.sql.models.SqlLiveDelta;
+import org.academy.pi.sql.models.SqlLiveRow;
+import org.academy.pi.sql.models.SqlLiveSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LiveSubscriptionTest {
+
+  private static final String SQL = """
+      SELECT FAVORITE, COUNT(*) AS N FROM FAVORITES
+      WHERE CATEGORY = 'COLOR'
+      GROUP BY FAVORITE
+      ORDER BY N DESC""";
+
+  private LiveSubscription subscription;
+
+  @BeforeEach
+  void subscribe() {
+    GroupCountPlan plan = GroupCountPlan.parse(SQL).orElseThrow();
+    subscription = new LiveSubscription(SQL, plan, Set.of("FAVORITES"), plan.getLabels());
+    insert("Red");
+    insert("Red");
+    insert("Blue");
+  }
+
+  @Test
+  void startsWithASnapshot() {
+    SqlLiveSnapshot snapshot = assertInstanceOf(SqlLiveSnapshot.class, subscription.update());
+    assertEquals(List.of("FAVORITE", "N"), snapshot.getColumns());
+    assertEquals(List.of(List.of("Red", 2L), List.of("Blue", 1L)), snapshot.getRows());
+    assertEquals(List.of(0), snapshot.getKeyColumns());
+    assertTrue(snapshot.isIncremental());
+    assertTrue(subscription.isLoaded());
+    assertNull(subscription.update());
+  }
+
+  @Test
+  void sendsOnlyRowsThatMoved() {
+    subscription.update();
+    insert("Blue");
+    insert("Blue");
+    insert("Green");
+
+    SqlLiveDelta delta = assertInstanceOf(SqlLiveDelta.class, subscription.update());
+    assertEquals(List.of(), delta.getRemoved());
+    // Red still counts 2 and keeps its place relative to the others, so it isn't sent
+    assertEquals(List.of(upserted(0, "Blue", 3L), upserted(2, "Green", 1L)), delta.getUpserted());
+  }
+
+  @Test
+  void removesGroupsThatCountDownToZero() {
+    subscription.update();
+    delete("Blue");
+
+    SqlLiveDelta delta = assertInstanceOf(SqlLiveDelta.class, subscription.update());
+    assertEquals(List.of(List.of("Blue")), delta.getRemoved());
+    assertEquals(List.of(), delta.getUpserted());
+  }
+
+  @Test
+  void movesUpdatedRowsBetweenGroups() {
+    subscription.update();
+    subscription.apply("FAVORITES", row("Red"), row("Blue"));
+
+    SqlLiveDelta delta = assertInstanceOf(SqlLiveDelta.class, subscription.update());
+    assertEquals(List.of(), delta.getRemoved());
+    assertEquals(List.of(upserted(0, "Blue", 2L), upserted(1, "Red", 1L)), delta.getUpserted());
+  }
+
+  @Test
+  void ignoresChangesThatDontReachTheResult() {
+    subscription.update();
+    subscription.apply("STUDENTS", null, row("Red"));
+    subscription.apply("FAVORITES", null, Map.of("CATEGORY", "FOOD", "FAVORITE", "Red"));
+    assertNull(subscription.update());
+
+    insert("Green");
+    delete("Green");
+    assertNull(subscription.update());
+  }
+
+  @Test
+  void rerunsQueriesWithoutAPlan() {
+    LiveSubscription rerun = new LiveSubscription("SELECT * FROM FAVORITES", null,
+        Set.of("FAVORITES"), List.of("FAVORITE"));
+    rerun.apply("FAVORITES", null, row("Red"));
+    // nothing to re-run before the first snapshot has been read
+    assertFalse(rerun.needsReload());
+    SqlLiveSnapshot snapshot = assertInstanceOf(SqlLiveSnapshot.class, rerun.update());
+    assertFalse(snapshot.isIncremental());
+
+    rerun.apply("STUDENTS", null, row("Red"));
+    assertFalse(rerun.needsReload());
+    rerun.apply("FAVORITES", null, row("Red"));
+    assertTrue(rerun.needsReload());
+  }
+
+  private void insert(String favorite) {
+    subscription.apply("FAVORITES", null, row(favorite));
+  }
+
+  private void delete(String favorite) {
+    subscription.apply("FAVORITES", row(favorite), null);
+  }
+
+  private static Map<String, Object> row(String favorite) {
+    return Map.of("CATEGORY", "COLOR", "FAVORITE", favorite);
+  }
+
+  private static SqlLiveRow upserted(int index, String favorite, long count) {
+    return SqlLiveRow.builder().index(index).row(List.of(favorite, count)).build();
+  }
+}
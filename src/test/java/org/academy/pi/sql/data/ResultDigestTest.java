@@ -0,0 +1,82 @@
+package org.academy.pi.sql.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ResultDigestTest {
+
+  private static Connection conn;
+
+  @BeforeAll
+  static void openDatabase() throws SQLException {
+    conn = DriverManager.getConnection("jdbc:h2:mem:result_digest_test");
+  }
+
+  @AfterAll
+  static void closeDatabase() throws SQLException {
+    conn.close();
+  }
+
+  @ParameterizedTest
+  @CsvSource(delimiter = '|', value = {
+      "CAST(3 AS INT)             | CAST(3 AS BIGINT)",
+      "CAST(3 AS INT)             | CAST(3.00 AS DECIMAL(10, 2))",
+      "CAST(3 AS DOUBLE)          | CAST(3.00 AS DECIMAL(10, 2))",
+      "CAST(2.5 AS DOUBLE)        | CAST(2.50 AS DECIMAL(10, 2))",
+      "CAST(2.5 AS REAL)          | CAST(2.50 AS DECIMAL(10, 2))",
+      "CAST(0.1 AS DOUBLE)        | CAST(0.1 AS DECIMAL(10, 1))",
+      "CAST(0.1 AS REAL)          | CAST(0.1 AS DECIMAL(10, 1))",
+      "CAST(-1234.5678 AS DOUBLE) | CAST(-1234.567800 AS NUMERIC(20, 6))",
+      "CAST(1E20 AS DOUBLE)       | CAST(100000000000000000000 AS DECIMAL(30))",
+      "CAST(1E20 AS DOUBLE)       | CAST(100000000000000000000 AS NUMERIC(30))",
+      "CAST(9223372036854775807 AS BIGINT) | CAST(9223372036854775807 AS DECIMAL(19))",
+  })
+  void matchesNumbersByValue(String a, String b) throws SQLException {
+    assertTrue(digest(a).matches(digest(b), true), a + " vs " + b);
+  }
+
+  @ParameterizedTest
+  @CsvSource(delimiter = '|', quoteCharacter = '"', value = {
+      "CAST(2.5 AS DOUBLE)  | CAST(2.51 AS DECIMAL(10, 2))",
+      "CAST(2.5 AS DOUBLE)  | '2.5'",
+      "CAST(3 AS INT)       | '3'",
+      "CAST(1E20 AS DOUBLE) | CAST(1E21 AS DOUBLE)",
+  })
+  void tellsDifferentValuesApart(String a, String b) throws SQLException {
+    assertFalse(digest(a).matches(digest(b), false), a + " vs " + b);
+  }
+
+  @Test
+  void comparesRowsInOrderOnlyWhenAsked() throws SQLException {
+    ResultDigest ascending = digest("SELECT X FROM SYSTEM_RANGE(1, 5) ORDER BY X");
+    ResultDigest descending = digest("SELECT X FROM SYSTEM_RANGE(1, 5) ORDER BY X DESC");
+    assertEquals(5, ascending.getRowCount());
+    assertTrue(ascending.matches(descending, false));
+    assertFalse(ascending.matches(descending, true));
+    assertEquals(0, ascending.firstDifferentRow(descending));
+    assertEquals(-1, ascending.firstRowNotIn(descending));
+  }
+
+  private static ResultDigest digest(String value) throws SQLException {
+    return digestOf(value.startsWith("SELECT") ? value : "SELECT " + value);
+  }
+
+  private static ResultDigest digestOf(String sql) throws SQLException {
+    try (Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery(sql)) {
+      return ResultDigest.of(rs);
+    }
+  }
+}
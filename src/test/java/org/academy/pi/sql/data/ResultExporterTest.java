@@ -0,0 +1,113 @@
+package org.academy.pi.sql.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.academy.pi.sql.models.ExportFormat;
+import org.academy.pi.sql.models.SqlImportResult;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ResultExporterTest {
+
+  private static DataRepo dataRepo;
+  private static ResultExporter exporter;
+
+  @BeforeAll
+  static void openDatabase() throws SQLException {
+    dataRepo = new DataRepo("result_exporter_test", ExecutionMode.DIRECT);
+    exporter = new ResultExporter(dataRepo, new ObjectMapper());
+    execute("CREATE TABLE NOTES (ID INT PRIMARY KEY, TEXT VARCHAR(50), FLAG BOOLEAN)");
+    execute("CREATE TABLE NOTES_COPY (ID INT PRIMARY KEY, TEXT VARCHAR(50), FLAG BOOLEAN)");
+    execute("""
+        INSERT INTO NOTES VALUES
+          (1, 'plain', TRUE),
+          (2, '', FALSE),
+          (3, NULL, NULL),
+          (4, 'comma, "quotes"', TRUE),
+          (5, 'two' || CHAR(13) || CHAR(10) || 'lines', FALSE),
+          (6, ' ', TRUE)""");
+  }
+
+  @AfterAll
+  static void closeDatabase() {
+    dataRepo.close();
+  }
+
+  @Test
+  void writesNullBareAndEmptyQuoted() throws Exception {
+    assertEquals("ID,TEXT\r\n2,\"\"\r\n3,\r\n",
+        exportCsv("SELECT ID, TEXT FROM NOTES WHERE ID IN (2, 3) ORDER BY ID"));
+  }
+
+  @Test
+  void importsBackWhatItExported() throws Exception {
+    String csv = exportCsv("SELECT * FROM NOTES ORDER BY ID");
+    SqlImportResult result = new CsvImporter(dataRepo).importCsv(
+        new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "NOTES_COPY", List.of(),
+        true);
+
+    assertEquals(6, result.getRowsImported());
+    assertEquals(0, result.getRowsRejected());
+    assertEquals(rows("NOTES"), rows("NOTES_COPY"));
+  }
+
+  @Test
+  void exportsEveryKindOfQuery() throws Exception {
+    assertEquals("N\r\n1\r\n2\r\n",
+        exportCsv("WITH T(N) AS (VALUES 1, 2) SELECT N FROM T ORDER BY N"));
+    assertEquals("C1,C2\r\n1,a\r\n", exportCsv("  values (1, 'a')"));
+    assertEquals("ID\r\n1\r\n", exportCsv("select ID from NOTES where ID = 1"));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"UPDATE NOTES SET TEXT = 'x'", "EXPLAIN SELECT * FROM NOTES",
+      "DELETE FROM NOTES", "CALL 1"})
+  void refusesEverythingElse(String sql) throws SQLException {
+    SQLException e = assertThrows(SQLException.class, () -> exporter.open(sql));
+    assertTrue(e.getMessage().startsWith("Only SELECT"), e.getMessage());
+    assertEquals(6, rows("NOTES").size());
+  }
+
+  private static String exportCsv(String sql) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ResultExporter.Export export = exporter.open(sql)) {
+      export.writeTo(out, ExportFormat.CSV);
+    }
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  private static List<List<Object>> rows(String table) throws SQLException {
+    List<List<Object>> rows = new ArrayList<>();
+    try (Connection conn = dataRepo.getConnection();
+        Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT ID, TEXT, FLAG FROM " + table + " ORDER BY ID")) {
+      while (rs.next()) {
+        rows.add(Arrays.asList(rs.getObject(1), rs.getObject(2), rs.getObject(3)));
+      }
+    }
+    return rows;
+  }
+
+  private static void execute(String sql) throws SQLException {
+    try (Connection conn = dataRepo.getConnection();
+        Statement stmt = conn.createStatement()) {
+      stmt.execute(sql);
+    }
+  }
+}
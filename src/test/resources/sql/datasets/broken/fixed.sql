@@ -0,0 +1,2 @@
+CREATE TABLE PLANETS (NAME VARCHAR(20) PRIMARY KEY, MOONS INT);
+INSERT INTO PLANETS VALUES ('Earth', 1), ('Mars', 2);
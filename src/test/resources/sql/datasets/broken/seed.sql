@@ -0,0 +1,3 @@
+CREATE TABLE PLANETS (NAME VARCHAR(20) PRIMARY KEY, MOONS INT);
+INSERT INTO PLANETS VALUES ('Earth', 1), ('Mars', 2);
+INSERT INTO MISSING_TABLE VALUES (1);
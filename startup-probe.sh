@@ -0,0 +1,85 @@
+#!/bin/bash
+
+# ==============================================================================
+# Startup time probe for the SQL Learning App
+# ==============================================================================
+# Measures the time from launching the JVM to the first 200 from /sql/health,
+# with the default JDK class data sharing and with the app's AppCDS archive.
+# Build both first with:  mvn clean verify -Pappcds
+#
+# Usage: ./startup-probe.sh [runs]   (default 5 runs per mode)
+# ==============================================================================
+
+set -e
+
+cd "$(dirname "$0")"
+
+RUNS="${1:-5}"
+JAR="target/db-learning-app-1.0.0.jar"
+ARCHIVE="target/db-learning-app.jsa"
+HEALTH_URL="http://localhost:8080/sql/health"
+
+BLUE='\033[0;34m'
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+if [ ! -f "$JAR" ] || [ ! -f "$ARCHIVE" ]; then
+    echo -e "${RED}[ERROR]${NC} $JAR or $ARCHIVE missing, run: mvn clean verify -Pappcds"
+    exit 1
+fi
+if curl -s -o /dev/null "$HEALTH_URL"; then
+    echo -e "${RED}[ERROR]${NC} Something is already listening on port 8080, stop it first"
+    exit 1
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+# Start the app once and print the milliseconds until /sql/health answers 200
+probe_once() {
+    local start pid stdin_fd stdin_pid elapsed
+    start=$(now_ms)
+    # keep stdin open so the interactive console doesn't exit straight away
+    exec {stdin_fd}< <(sleep 600)
+    stdin_pid=$!
+    java "$@" -jar "$JAR" <&"$stdin_fd" > /dev/null 2>&1 &
+    pid=$!
+    exec {stdin_fd}<&-
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "$HEALTH_URL")" = "200" ]; do
+        sleep 0.02
+    done
+    elapsed=$(( $(now_ms) - start ))
+    kill "$pid" "$stdin_pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+    while curl -s -o /dev/null "$HEALTH_URL"; do
+        sleep 0.05
+    done
+    echo "$elapsed"
+}
+
+# Run one mode RUNS times and print min / median / max
+probe_mode() {
+    local label="$1"
+    shift
+    local times=()
+    for _ in $(seq 1 "$RUNS"); do
+        times+=("$(probe_once "$@")")
+    done
+    local sorted
+    sorted=($(printf '%s\n' "${times[@]}" | sort -n))
+    printf "%-22s min %6d ms   median %6d ms   max %6d ms   (%s)\n" "$label" \
+        "${sorted[0]}" "${sorted[$(( ${#sorted[@]} / 2 ))]}" "${sorted[-1]}" "${times[*]}"
+    echo "${sorted[$(( ${#sorted[@]} / 2 ))]}" > "/tmp/startup-probe-$label"
+}
+
+echo -e "${BLUE}[INFO]${NC} Time from JVM launch to first 200 from $HEALTH_URL, $RUNS runs each"
+probe_mode "default-cds"
+probe_mode "appcds" "-XX:SharedArchiveFile=$ARCHIVE"
+
+WITHOUT=$(cat /tmp/startup-probe-default-cds)
+WITH=$(cat /tmp/startup-probe-appcds)
+rm -f /tmp/startup-probe-default-cds /tmp/startup-probe-appcds
+echo -e "${GREEN}[RESULT]${NC} AppCDS median startup ${WITH} ms vs ${WITHOUT} ms" \
+    "($(( (WITHOUT - WITH) * 100 / WITHOUT ))% faster)"